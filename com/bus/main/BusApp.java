@@ -2,26 +2,43 @@ package com.bus.main;
 
 import com.bus.model.Bus;
 import com.bus.model.Booking;
+import com.bus.model.Journey;
 import com.bus.model.Passenger;
+import com.bus.model.WaitlistEntry;
+import com.bus.service.BookingPage;
 import com.bus.service.BusService;
+import com.bus.service.ChangeEvent;
 import com.bus.service.ReportService;
 
+import java.io.IOException;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Queue;
 import java.util.Scanner;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
 
 /**
  * BusApp - Main Application Class
  * Entry point for the Bus Reservation System
  */
 public class BusApp {
+    private static final int BOOKINGS_PAGE_SIZE = 20;
+    private static final int CITY_SUGGESTIONS = 8;
+
     private static BusService busService;
     private static ReportService reportService;
     private static Scanner scanner;
+    // Change deliveries queued by ChangeEventBus, run on the main thread between commands
+    private static final Queue<Runnable> notifications = new ConcurrentLinkedQueue<>();
+    // Bookings this session just made or cancelled, whose events need no notification
+    private static final Set<String> ownChanges = new HashSet<>();
 
     public static void main(String[] args) {
         busService = new BusService();
         reportService = new ReportService();
         scanner = new Scanner(System.in);
+        busService.getChangeEvents().subscribe(notifications::add, BusApp::printNotifications);
 
         System.out.println("\n╔════════════════════════════════════════════╗");
         System.out.println("║   WELCOME TO BUS RESERVATION SYSTEM       ║");
@@ -30,6 +47,7 @@ public class BusApp {
         boolean running = true;
         while (running) {
             try {
+                showNotifications();
                 displayMenu();
                 int choice = getIntInput("Enter your choice: ");
 
@@ -53,9 +71,12 @@ public class BusApp {
                         viewAllBookings();
                         break;
                     case 7:
-                        viewRevenueReport();
+                        findBookingsByPhone();
                         break;
                     case 8:
+                        viewRevenueReport();
+                        break;
+                    case 9:
                         running = false;
                         System.out.println("\nThank you for using Bus Reservation System!");
                         break;
@@ -67,6 +88,12 @@ public class BusApp {
             }
         }
 
+        // Flush outstanding writes and save the fleet before the JVM goes
+        try {
+            busService.close();
+        } catch (IOException e) {
+            System.out.println("Error saving data: " + e.getMessage());
+        }
         scanner.close();
     }
 
@@ -80,11 +107,48 @@ public class BusApp {
         System.out.println("│  4. Cancel Ticket                       │");
         System.out.println("│  5. View Booking Details                │");
         System.out.println("│  6. View All Bookings                   │");
-        System.out.println("│  7. View Revenue Report                 │");
-        System.out.println("│  8. Exit                                │");
+        System.out.println("│  7. Find Bookings by Phone              │");
+        System.out.println("│  8. View Revenue Report                 │");
+        System.out.println("│  9. Exit                                │");
         System.out.println("└─────────────────────────────────────────┘");
     }
 
+    // Run the change deliveries queued since the last command
+    private static void showNotifications() {
+        Runnable delivery;
+        while ((delivery = notifications.poll()) != null) {
+            delivery.run();
+        }
+    }
+
+    // Print changes this session did not make itself: waitlist promotions, holds that ran
+    // out and bookings or cancellations made elsewhere. Seat counts are printed only for
+    // buses with no booking event in the batch to explain them.
+    private static void printNotifications(List<ChangeEvent> batch) {
+        Set<String> explained = new HashSet<>();
+        for (ChangeEvent event : batch) {
+            if (event instanceof ChangeEvent.BookingCreated) {
+                Booking booking = ((ChangeEvent.BookingCreated) event).getBooking();
+                explained.add(event.getBusNo());
+                if (!ownChanges.remove(booking.getBookingId())) {
+                    System.out.println("\n🔔 " + booking.getPassenger().getName() + " has been booked on "
+                            + booking.getBusNo() + ", seat " + booking.getSeatNo() + " (" + booking.getBookingId() + ")");
+                }
+            } else if (event instanceof ChangeEvent.BookingCancelled) {
+                Booking booking = ((ChangeEvent.BookingCancelled) event).getBooking();
+                explained.add(event.getBusNo());
+                if (!ownChanges.remove(booking.getBookingId())) {
+                    System.out.println("\n🔔 Booking " + booking.getBookingId() + " on " + booking.getBusNo()
+                            + " has been cancelled");
+                }
+            } else if (event instanceof ChangeEvent.SeatsChanged && !explained.contains(event.getBusNo())) {
+                ChangeEvent.SeatsChanged seats = (ChangeEvent.SeatsChanged) event;
+                System.out.println("\n🔔 " + event.getBusNo() + " now has " + seats.getSeatsAvailable()
+                        + " of " + seats.getTotalSeats() + " seats available");
+            }
+        }
+    }
+
     private static void viewAllBuses() {
         List<Bus> buses = busService.getAllBuses();
         reportService.displayAvailableBuses(buses);
@@ -92,18 +156,53 @@ public class BusApp {
 
     private static void searchBuses() {
         System.out.print("\nEnter source city: ");
-        String source = scanner.nextLine().trim();
+        String source = readCity();
         System.out.print("Enter destination city: ");
-        String destination = scanner.nextLine().trim();
+        String destination = readCity();
 
         List<Bus> buses = busService.searchBuses(source, destination);
         if (buses.isEmpty()) {
             System.out.println("\nNo buses found for this route.");
+            List<Journey> journeys = busService.planJourney(source, destination);
+            if (!journeys.isEmpty()) {
+                System.out.println("Connecting journeys:");
+                for (Journey journey : journeys) {
+                    System.out.println("  " + journey);
+                }
+            }
         } else {
             reportService.displayAvailableBuses(buses);
         }
     }
 
+    // Read a city name and resolve it to the fleet's spelling, pointing out likely typos.
+    // A short or ambiguous prefix is not guessed: the cities it starts are listed and the
+    // name is asked for again.
+    private static String readCity() {
+        while (true) {
+            String typed = scanner.nextLine().trim();
+            String city = busService.canonicalCity(typed);
+            if (!city.equals(typed)) {
+                System.out.println("  Using: " + city);
+                return city;
+            }
+
+            List<String> completions = busService.suggestCities(city, CITY_SUGGESTIONS);
+            if (completions.isEmpty()) {
+                List<String> similar = busService.findSimilarCities(city);
+                if (!similar.isEmpty()) {
+                    System.out.println("  Unknown city. Did you mean: " + String.join(", ", similar) + "?");
+                }
+                return city;
+            }
+            // An exact match comes first among the cities it starts
+            if (completions.get(0).equalsIgnoreCase(city)) {
+                return city;
+            }
+            System.out.print("  Did you mean: " + String.join(", ", completions) + "? Enter the city: ");
+        }
+    }
+
     private static void bookTicket() {
         try {
             System.out.println("\n┌─────────────────────────────────────────┐");
@@ -135,8 +234,20 @@ public class BusApp {
             // Create passenger
             Passenger passenger = new Passenger(name, age, gender, phone, email);
 
+            // Offer the waitlist when the bus is sold out
+            if (busService.getBusByNumber(busNo).getSeatsAvailable() == 0) {
+                System.out.print("This bus is full. Join the waitlist? (Y/N): ");
+                if (scanner.nextLine().trim().equalsIgnoreCase("Y")) {
+                    WaitlistEntry entry = busService.joinWaitlist(busNo, passenger);
+                    System.out.println("\n✓ Added to the waitlist. Waitlist ID: " + entry.getEntryId()
+                            + " (position " + busService.getWaitlist(busNo).size() + ")");
+                }
+                return;
+            }
+
             // Book the ticket
             Booking booking = busService.bookSeat(busNo, passenger);
+            ownChanges.add(booking.getBookingId());
             Bus bus = busService.getBusByNumber(busNo);
 
             System.out.println("\n✓ Booking successful!");
@@ -165,6 +276,7 @@ public class BusApp {
 
             if (confirm.equalsIgnoreCase("Y")) {
                 busService.cancelBooking(bookingId);
+                ownChanges.add(booking.getBookingId());
                 System.out.println("\n✓ Booking cancelled successfully!");
                 System.out.println("Refund amount: ₹" + String.format("%.2f", booking.getFare()));
             } else {
@@ -191,14 +303,37 @@ public class BusApp {
         }
     }
 
-    private static void viewAllBookings() {
-        List<Booking> bookings = busService.getAllBookings();
-        reportService.displayBookings(bookings);
+    // Show the history a page at a time, so only the page on screen is loaded
+    private static void viewAllBookings() throws Exception {
+        BookingPage page = busService.getBookingPage(null, BOOKINGS_PAGE_SIZE);
+        int shown = 0;
+        while (true) {
+            reportService.displayBookings(page.getBookings());
+            if (page.getBookings().isEmpty()) {
+                return;
+            }
+            System.out.println("Showing bookings " + (shown + 1) + "-" + (shown + page.getBookings().size()));
+            shown += page.getBookings().size();
+            if (!page.hasMore()) {
+                return;
+            }
+
+            System.out.print("Press Enter for the next page, or q to stop: ");
+            if (scanner.nextLine().trim().equalsIgnoreCase("q")) {
+                return;
+            }
+            page = busService.getBookingPage(page.getNextCursor(), BOOKINGS_PAGE_SIZE);
+        }
+    }
+
+    private static void findBookingsByPhone() {
+        System.out.print("\nEnter phone number: ");
+        String phone = scanner.nextLine().trim();
+        reportService.displayBookings(busService.findBookingsByPhone(phone));
     }
 
     private static void viewRevenueReport() {
-        List<Booking> bookings = busService.getAllBookings();
-        reportService.displayRevenueReport(bookings);
+        reportService.displayRevenueReport(busService.getStatistics().getGlobal());
     }
 
     private static int getIntInput(String prompt) {
@@ -1,5 +1,7 @@
 package com.bus.model;
 
+import com.bus.util.CsvReader;
+
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 
@@ -14,7 +16,7 @@ public class Booking {
     private int seatNo;
     private String bookingDate;
     private double fare;
-    private String status; // CONFIRMED, CANCELLED
+    private volatile String status; // CONFIRMED, CANCELLED, DISCARDED (never stored)
 
     // Constructor
     public Booking(String bookingId, Passenger passenger, String busNo, int seatNo, double fare) {
@@ -98,46 +100,57 @@ public class Booking {
 
     // Business Methods
     public void cancelBooking() {
-        this.status = "CANCELLED";
+        setStatus("CANCELLED");
+    }
+
+    // Mark a booking whose write failed; storage leaves it out from then on
+    public void discardBooking() {
+        setStatus("DISCARDED");
     }
 
+    // Formatting goes through the getters so storage-backed subclasses render correctly
     @Override
     public String toString() {
         return String.format("Booking ID: %s | Bus: %s | Seat: %d | Fare: ₹%.2f | Status: %s",
-                bookingId, busNo, seatNo, fare, status);
+                getBookingId(), getBusNo(), getSeatNo(), getFare(), getStatus());
     }
 
     // CSV format conversion
     public String toCSV() {
-        return String.format("%s,%s,%d,%s,%s,%s,%s,%.2f,%s",
-                bookingId,
-                passenger.getName(),
+        Passenger passenger = getPassenger();
+        return String.format("%s,%s,%d,%s,%s,%s,%s,%.2f,%s,%s",
+                getBookingId(),
+                CsvReader.escape(passenger.getName()),
                 passenger.getAge(),
-                passenger.getGender(),
-                passenger.getPhoneNumber(),
-                busNo,
-                seatNo,
-                fare,
-                status);
+                CsvReader.escape(passenger.getGender()),
+                CsvReader.escape(passenger.getPhoneNumber()),
+                CsvReader.escape(getBusNo()),
+                getSeatNo(),
+                getFare(),
+                getStatus(),
+                CsvReader.escape(getBookingDate()));
     }
 
     public static Booking fromCSV(String csvLine) {
-        String[] parts = csvLine.split(",");
+        return fromCSV(CsvReader.forRecord(csvLine));
+    }
+
+    // Read a booking from the reader's current record.
+    // The booking date column was added later and is optional.
+    public static Booking fromCSV(CsvReader csv) {
+        String bookingId = csv.nextString();
         Passenger passenger = new Passenger(
-                parts[1],
-                Integer.parseInt(parts[2]),
-                parts[3],
-                parts[4],
+                csv.nextString(),
+                csv.nextInt(),
+                csv.nextPooledString(),
+                csv.nextString(),
                 ""
         );
-        return new Booking(
-                parts[0],
-                passenger,
-                parts[5],
-                Integer.parseInt(parts[6]),
-                parts[7],
-                Double.parseDouble(parts[7]),
-                parts[8]
-        );
+        String busNo = csv.nextPooledString();
+        int seatNo = csv.nextInt();
+        double fare = csv.nextDouble();
+        String status = csv.nextPooledString();
+        String bookingDate = csv.hasMoreFields() ? csv.nextString() : "";
+        return new Booking(bookingId, passenger, busNo, seatNo, bookingDate, fare, status);
     }
 }
\ No newline at end of file
@@ -1,16 +1,34 @@
 package com.bus.model;
 
+import com.bus.util.CsvReader;
+
+import java.util.Arrays;
+
 /**
  * Bus Model Class
- * Represents a bus with route and seat information
+ * Represents a bus with route and seat information.
+ * Seats are tracked in a bitmap (bit i set = seat i + 1 taken), so allocation,
+ * explicit selection and release are constant-time and allocation-free.
+ * Seat mutations are not synchronized here; callers hold the bus's monitor
+ * (see BusService) so the check and the update happen atomically.
  */
 public class Bus {
+    /**
+     * Notified when a bus sells its last free seat or gets one back.
+     * Called by the thread changing the seats, while it still owns the bus.
+     */
+    public interface AvailabilityListener {
+        void availabilityChanged(Bus bus, boolean hasSeats);
+    }
+
     private String busNo;
     private String source;
     private String destination;
-    private int seatsAvailable;
+    private volatile int seatsAvailable;
     private int totalSeats;
     private double farePerSeat;
+    private long[] seatMap;
+    private volatile AvailabilityListener availabilityListener;
 
     // Constructor
     public Bus(String busNo, String source, String destination, int totalSeats, double farePerSeat) {
@@ -20,6 +38,7 @@ public class Bus {
         this.totalSeats = totalSeats;
         this.seatsAvailable = totalSeats;
         this.farePerSeat = farePerSeat;
+        this.seatMap = new long[wordsFor(totalSeats)];
     }
 
     // Getters and Setters
@@ -51,16 +70,18 @@ public class Bus {
         return seatsAvailable;
     }
 
-    public void setSeatsAvailable(int seatsAvailable) {
-        this.seatsAvailable = seatsAvailable;
-    }
-
     public int getTotalSeats() {
         return totalSeats;
     }
 
     public void setTotalSeats(int totalSeats) {
+        this.seatMap = Arrays.copyOf(seatMap, wordsFor(totalSeats));
         this.totalSeats = totalSeats;
+        int tail = totalSeats & 63;
+        if (tail != 0) {
+            seatMap[seatMap.length - 1] &= (1L << tail) - 1;
+        }
+        updateSeatsAvailable();
     }
 
     public double getFarePerSeat() {
@@ -71,19 +92,147 @@ public class Bus {
         this.farePerSeat = farePerSeat;
     }
 
+    public void setAvailabilityListener(AvailabilityListener availabilityListener) {
+        this.availabilityListener = availabilityListener;
+    }
+
     // Business Methods
-    public boolean bookSeat() {
-        if (seatsAvailable > 0) {
-            seatsAvailable--;
-            return true;
+
+    // Take the lowest free seat; returns its number, or -1 if the bus is full
+    public int bookSeat() {
+        for (int word = 0; word < seatMap.length; word++) {
+            long free = ~seatMap[word];
+            if (free != 0) {
+                int seatNo = (word << 6) + Long.numberOfTrailingZeros(free) + 1;
+                if (seatNo > totalSeats) {
+                    return -1;
+                }
+                seatMap[word] |= 1L << (seatNo - 1);
+                updateSeatsAvailable();
+                return seatNo;
+            }
         }
-        return false;
+        return -1;
     }
 
-    public void cancelSeat() {
-        if (seatsAvailable < totalSeats) {
-            seatsAvailable++;
+    // Take a specific seat; false if it does not exist or is already taken
+    public boolean bookSeat(int seatNo) {
+        if (!isSeatFree(seatNo)) {
+            return false;
         }
+        seatMap[(seatNo - 1) >>> 6] |= 1L << (seatNo - 1);
+        updateSeatsAvailable();
+        return true;
+    }
+
+    // Release a taken seat; false if it does not exist or was already free
+    public boolean cancelSeat(int seatNo) {
+        if (seatNo < 1 || seatNo > totalSeats || isSeatFree(seatNo)) {
+            return false;
+        }
+        seatMap[(seatNo - 1) >>> 6] &= ~(1L << (seatNo - 1));
+        updateSeatsAvailable();
+        return true;
+    }
+
+    // Take several seats at once; false (and nothing taken) if any does not exist, is taken or repeats
+    public boolean bookSeats(int[] seatNos) {
+        long[] wanted = new long[seatMap.length];
+        for (int seatNo : seatNos) {
+            if (!isSeatFree(seatNo) || (wanted[(seatNo - 1) >>> 6] & (1L << (seatNo - 1))) != 0) {
+                return false;
+            }
+            wanted[(seatNo - 1) >>> 6] |= 1L << (seatNo - 1);
+        }
+        for (int word = 0; word < seatMap.length; word++) {
+            seatMap[word] |= wanted[word];
+        }
+        updateSeatsAvailable();
+        return true;
+    }
+
+    // Release several taken seats at once; seats that are already free are skipped
+    public void cancelSeats(int[] seatNos) {
+        for (int seatNo : seatNos) {
+            if (seatNo >= 1 && seatNo <= totalSeats) {
+                seatMap[(seatNo - 1) >>> 6] &= ~(1L << (seatNo - 1));
+            }
+        }
+        updateSeatsAvailable();
+    }
+
+    // First seat of the lowest run of count free seats side by side, or -1 if there is none
+    public int findFreeRun(int count) {
+        int run = 0;
+        int seatNo = 1;
+        while (seatNo <= totalSeats) {
+            int index = seatNo - 1;
+            // Taken bits from this seat to the end of its word
+            long taken = seatMap[index >>> 6] >>> (index & 63);
+            int left = Math.min(64 - (index & 63), totalSeats - index);
+            if ((taken & 1) == 0) {
+                int free = taken == 0 ? left : Math.min(left, Long.numberOfTrailingZeros(taken));
+                run += free;
+                seatNo += free;
+                if (run >= count) {
+                    return seatNo - run;
+                }
+            } else {
+                run = 0;
+                seatNo += Long.numberOfTrailingZeros(~taken);
+            }
+        }
+        return -1;
+    }
+
+    // The count lowest-numbered free seats, or null if there are not that many
+    public int[] findFreeSeats(int count) {
+        int[] seatNos = new int[count];
+        int found = 0;
+        for (int word = 0; word < seatMap.length && found < count; word++) {
+            long free = ~seatMap[word];
+            while (free != 0 && found < count) {
+                int seatNo = (word << 6) + Long.numberOfTrailingZeros(free) + 1;
+                if (seatNo > totalSeats) {
+                    break;
+                }
+                seatNos[found++] = seatNo;
+                free &= free - 1;
+            }
+        }
+        return found == count ? seatNos : null;
+    }
+
+    // Check if a seat exists and is free
+    public boolean isSeatFree(int seatNo) {
+        if (seatNo < 1 || seatNo > totalSeats) {
+            return false;
+        }
+        return (seatMap[(seatNo - 1) >>> 6] & (1L << (seatNo - 1))) == 0;
+    }
+
+    // Free every seat; occupancy is then rebuilt from confirmed bookings
+    public void clearSeats() {
+        Arrays.fill(seatMap, 0L);
+        updateSeatsAvailable();
+    }
+
+    private void updateSeatsAvailable() {
+        int taken = 0;
+        for (long word : seatMap) {
+            taken += Long.bitCount(word);
+        }
+        int previous = seatsAvailable;
+        seatsAvailable = totalSeats - taken;
+
+        AvailabilityListener listener = availabilityListener;
+        if (listener != null && (previous > 0) != (seatsAvailable > 0)) {
+            listener.availabilityChanged(this, seatsAvailable > 0);
+        }
+    }
+
+    private static int wordsFor(int seats) {
+        return Math.max(1, (seats + 63) >>> 6);
     }
 
     @Override
@@ -95,13 +244,23 @@ public class Bus {
     // CSV format conversion
     public String toCSV() {
         return String.format("%s,%s,%s,%d,%d,%.2f",
-                busNo, source, destination, seatsAvailable, totalSeats, farePerSeat);
+                CsvReader.escape(busNo), CsvReader.escape(source), CsvReader.escape(destination),
+                seatsAvailable, totalSeats, farePerSeat);
     }
 
     public static Bus fromCSV(String csvLine) {
-        String[] parts = csvLine.split(",");
-        Bus bus = new Bus(parts[0], parts[1], parts[2], Integer.parseInt(parts[4]), Double.parseDouble(parts[5]));
-        bus.setSeatsAvailable(Integer.parseInt(parts[3]));
-        return bus;
+        return fromCSV(CsvReader.forRecord(csvLine));
+    }
+
+    // Read a bus from the reader's current record.
+    // The seats-available column is informational; occupancy is rebuilt from bookings.
+    public static Bus fromCSV(CsvReader csv) {
+        String busNo = csv.nextString();
+        String source = csv.nextPooledString();
+        String destination = csv.nextPooledString();
+        csv.skipField();
+        int totalSeats = csv.nextInt();
+        double farePerSeat = csv.nextDouble();
+        return new Bus(busNo, source, destination, totalSeats, farePerSeat);
     }
 }
\ No newline at end of file
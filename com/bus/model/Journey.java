@@ -0,0 +1,59 @@
+package com.bus.model;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Journey Model Class
+ * Represents an itinerary of one or more connecting buses from an origin to a destination
+ */
+public class Journey {
+    private List<Bus> legs;
+    private double totalFare;
+
+    // Constructor
+    public Journey(List<Bus> legs, double totalFare) {
+        this.legs = Collections.unmodifiableList(legs);
+        this.totalFare = totalFare;
+    }
+
+    // Getters
+    public List<Bus> getLegs() {
+        return legs;
+    }
+
+    public double getTotalFare() {
+        return totalFare;
+    }
+
+    public int getTransfers() {
+        return legs.size() - 1;
+    }
+
+    public String getOrigin() {
+        return legs.get(0).getSource();
+    }
+
+    public String getDestination() {
+        return legs.get(legs.size() - 1).getDestination();
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        return other instanceof Journey && ((Journey) other).legs.equals(legs);
+    }
+
+    @Override
+    public int hashCode() {
+        return legs.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder route = new StringBuilder(getOrigin());
+        for (Bus leg : legs) {
+            route.append(" → ").append(leg.getDestination()).append(" (").append(leg.getBusNo()).append(')');
+        }
+        return String.format("%s | Fare: ₹%.2f | Transfers: %d", route, totalFare, getTransfers());
+    }
+}
\ No newline at end of file
@@ -0,0 +1,57 @@
+package com.bus.model;
+
+/**
+ * SeatHold Model Class
+ * Represents a seat reserved for a limited time during checkout, before any booking exists
+ */
+public class SeatHold {
+    private String holdId;
+    private String busNo;
+    private int seatNo;
+    private long expiresAt;
+    private volatile String status; // HELD, CONFIRMED, RELEASED, EXPIRED
+
+    // Constructor
+    public SeatHold(String holdId, String busNo, int seatNo, long expiresAt) {
+        this.holdId = holdId;
+        this.busNo = busNo;
+        this.seatNo = seatNo;
+        this.expiresAt = expiresAt;
+        this.status = "HELD";
+    }
+
+    // Getters and Setters
+    public String getHoldId() {
+        return holdId;
+    }
+
+    public String getBusNo() {
+        return busNo;
+    }
+
+    public int getSeatNo() {
+        return seatNo;
+    }
+
+    // Expiry time in epoch milliseconds
+    public long getExpiresAt() {
+        return expiresAt;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    public boolean isHeld() {
+        return "HELD".equals(status);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("Hold[%s] Bus: %s | Seat: %d | Status: %s", holdId, busNo, seatNo, status);
+    }
+}
\ No newline at end of file
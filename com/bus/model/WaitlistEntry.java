@@ -0,0 +1,105 @@
+package com.bus.model;
+
+import com.bus.util.CsvReader;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * WaitlistEntry Model Class
+ * Represents a passenger queued for a sold-out bus, waiting for a cancellation
+ */
+public class WaitlistEntry {
+    private String entryId;
+    private Passenger passenger;
+    private String busNo;
+    private String requestDate;
+    private volatile String status; // WAITING, PROMOTED, LEFT
+    private volatile String bookingId;
+
+    // Constructor
+    public WaitlistEntry(String entryId, Passenger passenger, String busNo) {
+        this(entryId, passenger, busNo,
+                LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss")));
+    }
+
+    // Constructor for loading from CSV
+    public WaitlistEntry(String entryId, Passenger passenger, String busNo, String requestDate) {
+        this.entryId = entryId;
+        this.passenger = passenger;
+        this.busNo = busNo;
+        this.requestDate = requestDate;
+        this.status = "WAITING";
+    }
+
+    // Getters and Setters
+    public String getEntryId() {
+        return entryId;
+    }
+
+    public Passenger getPassenger() {
+        return passenger;
+    }
+
+    public String getBusNo() {
+        return busNo;
+    }
+
+    public String getRequestDate() {
+        return requestDate;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    // Booking made for this passenger once promoted; null while waiting
+    public String getBookingId() {
+        return bookingId;
+    }
+
+    public void setBookingId(String bookingId) {
+        this.bookingId = bookingId;
+    }
+
+    public boolean isWaiting() {
+        return "WAITING".equals(status);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("Waitlist[%s] %s | Bus: %s | Status: %s%s", entryId, passenger.getName(), busNo, status,
+                bookingId == null ? "" : " | Booking: " + bookingId);
+    }
+
+    // Convert to CSV format
+    public String toCSV() {
+        return String.format("%s,%s,%d,%s,%s,%s,%s",
+                entryId,
+                CsvReader.escape(passenger.getName()),
+                passenger.getAge(),
+                CsvReader.escape(passenger.getGender()),
+                CsvReader.escape(passenger.getPhoneNumber()),
+                CsvReader.escape(busNo),
+                CsvReader.escape(requestDate));
+    }
+
+    // Read an entry from the reader's current record
+    public static WaitlistEntry fromCSV(CsvReader csv) {
+        String entryId = csv.nextString();
+        Passenger passenger = new Passenger(
+                csv.nextString(),
+                csv.nextInt(),
+                csv.nextPooledString(),
+                csv.nextString(),
+                ""
+        );
+        String busNo = csv.nextPooledString();
+        String requestDate = csv.nextString();
+        return new WaitlistEntry(entryId, passenger, busNo, requestDate);
+    }
+}
\ No newline at end of file
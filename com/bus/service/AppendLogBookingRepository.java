@@ -0,0 +1,106 @@
+package com.bus.service;
+
+import com.bus.model.Booking;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * AppendLogBookingRepository Class
+ * Bookings stored only as an append-only log of BOOK/CANCEL/DISCARD entries
+ * (bookings.log). Writes never rewrite earlier data; the log is replayed in
+ * full on startup. On first use it is seeded from the CSV snapshot and journal.
+ * Whenever the log is written afresh (seeding, or dropping a torn tail) the new
+ * log is built in a temp file and renamed over the old one, so a crash leaves
+ * either the old log or the complete new one.
+ */
+public class AppendLogBookingRepository extends InMemoryBookingRepository {
+    private static final String LOG_FILE = "bookings.log";
+    private static final String TEMP_FILE = LOG_FILE + ".tmp";
+
+    private FileService fileService;
+    private DurabilityMode durabilityMode;
+    private JournalService journalService;
+
+    public AppendLogBookingRepository(FileService fileService, DurabilityMode durabilityMode) {
+        this.fileService = fileService;
+        this.durabilityMode = durabilityMode;
+        this.journalService = new JournalService(fileService, durabilityMode, LOG_FILE);
+    }
+
+    // Replay the whole log, or create it from the CSV bookings
+    @Override
+    public void open() throws IOException {
+        if (!fileService.exists(LOG_FILE)) {
+            CsvBookingRepository csv = new CsvBookingRepository(fileService, durabilityMode);
+            csv.open();
+            try {
+                for (Booking booking : csv.findAll()) {
+                    restore(booking);
+                }
+            } finally {
+                csv.close();
+            }
+            replaceLog(findAll());
+        } else {
+            int read = replay(journalService);
+
+            // A torn final entry would sit in front of everything appended after it
+            if (read > journalService.getEntriesSinceSnapshot()) {
+                System.err.println("Rewriting " + LOG_FILE + " without its torn tail");
+                replaceLog(findAll());
+            }
+        }
+        journalService.open();
+    }
+
+    // Write a complete log (one BOOK entry per booking, statuses included) and rename it into place
+    private void replaceLog(List<Booking> bookings) throws IOException {
+        JournalService temp = new JournalService(fileService, durabilityMode, TEMP_FILE);
+        temp.open();
+        try {
+            // rewrite truncates first, so a temp file left by a crash is discarded
+            temp.rewrite(bookings);
+        } finally {
+            temp.close();
+        }
+        fileService.moveIntoPlace(TEMP_FILE, LOG_FILE);
+    }
+
+    @Override
+    public CompletableFuture<Booking> add(Booking booking) throws IOException {
+        super.add(booking);
+        return journalService.recordBooking(booking).thenApply(v -> booking);
+    }
+
+    // The group is logged as a single entry
+    @Override
+    public CompletableFuture<List<Booking>> addAll(List<Booking> group) throws IOException {
+        super.addAll(group);
+        return journalService.recordBookings(group).thenApply(v -> group);
+    }
+
+    // Only cancellations and discards are logged; the log has no entry for other status changes
+    @Override
+    public CompletableFuture<Booking> update(Booking booking) {
+        if (isDiscarded(booking)) {
+            return journalService.recordDiscard(booking).thenApply(v -> booking);
+        }
+        if (!booking.getStatus().equals("CANCELLED")) {
+            return CompletableFuture.completedFuture(booking);
+        }
+        return journalService.recordCancellation(booking).thenApply(v -> booking);
+    }
+
+    @Override
+    public CompletableFuture<Booking> moveSeat(Booking booking, int seatNo) {
+        super.moveSeat(booking, seatNo);
+        return journalService.recordSeatMove(booking).thenApply(v -> booking);
+    }
+
+    @Override
+    public void close() throws IOException {
+        journalService.close();
+    }
+}
\ No newline at end of file
@@ -0,0 +1,139 @@
+package com.bus.service;
+
+import java.io.Closeable;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * BookingEventLoop Class
+ * Shards buses across a fixed set of single-writer threads. Every command for
+ * a bus runs on the same thread, in submission order, so bus state needs no lock.
+ * Every command accepted before close() runs; later ones are refused.
+ */
+public class BookingEventLoop implements Closeable {
+    private static final int SPINS_BEFORE_PARK = 200;
+    private static final long PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private final Shard[] shards;
+    // Producers between their closed check and their offer; close() waits for them
+    private final AtomicInteger submitting;
+    private volatile boolean closed;
+
+    public BookingEventLoop(int threads, int ringCapacity) {
+        this.submitting = new AtomicInteger();
+        this.shards = new Shard[Math.max(1, threads)];
+        for (int i = 0; i < shards.length; i++) {
+            shards[i] = new Shard(new CommandRing(ringCapacity), "booking-loop-" + i);
+            shards[i].thread.start();
+        }
+    }
+
+    public int getThreadCount() {
+        return shards.length;
+    }
+
+    // Run a command on the thread that owns the given bus; false if the engine is shut
+    // down, in which case the command will never run
+    public boolean execute(String busKey, Runnable command) {
+        submitting.incrementAndGet();
+        try {
+            if (closed) {
+                return false;
+            }
+            int hash = busKey.hashCode();
+            Shard shard = shards[((hash ^ (hash >>> 16)) & Integer.MAX_VALUE) % shards.length];
+
+            // A full ring pushes back on the producer rather than growing without bound
+            while (!shard.ring.offer(command)) {
+                Thread.yield();
+            }
+            if (shard.parked) {
+                LockSupport.unpark(shard.thread);
+            }
+            return true;
+        } finally {
+            submitting.decrementAndGet();
+        }
+    }
+
+    // Run every queued command, then stop the threads
+    @Override
+    public void close() {
+        closed = true;
+        // Producers that got past the closed check finish their offer before the shards may stop
+        while (submitting.get() > 0) {
+            Thread.yield();
+        }
+        for (Shard shard : shards) {
+            shard.running = false;
+            LockSupport.unpark(shard.thread);
+        }
+        boolean interrupted = false;
+        for (Shard shard : shards) {
+            while (true) {
+                try {
+                    shard.thread.join();
+                    break;
+                } catch (InterruptedException e) {
+                    // Keep joining: the queued commands still have callers waiting on them
+                    interrupted = true;
+                }
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static class Shard implements Runnable {
+        private final CommandRing ring;
+        private final Thread thread;
+        private volatile boolean running;
+        private volatile boolean parked;
+
+        Shard(CommandRing ring, String name) {
+            this.ring = ring;
+            this.running = true;
+            this.thread = new Thread(this, name);
+            this.thread.setDaemon(true);
+        }
+
+        @Override
+        public void run() {
+            try {
+                int idle = 0;
+                while (running || !ring.isEmpty()) {
+                    Runnable command = ring.poll();
+                    if (command != null) {
+                        idle = 0;
+                        runCommand(command);
+                    } else if (++idle < SPINS_BEFORE_PARK) {
+                        Thread.onSpinWait();
+                    } else {
+                        // Re-check after announcing the park so a concurrent offer is never missed
+                        parked = true;
+                        if (running && ring.isEmpty()) {
+                            LockSupport.parkNanos(this, PARK_NANOS);
+                        }
+                        parked = false;
+                    }
+                }
+            } finally {
+                // Even if the loop dies, nothing accepted is left behind with a caller waiting on it
+                Runnable command;
+                while ((command = ring.poll()) != null) {
+                    runCommand(command);
+                }
+            }
+        }
+
+        private static void runCommand(Runnable command) {
+            try {
+                command.run();
+            } catch (RuntimeException e) {
+                System.err.println("Booking command failed: " + e.getMessage());
+            }
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,116 @@
+package com.bus.service;
+
+import com.bus.model.Booking;
+
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+
+/**
+ * BookingFilter Class
+ * Which bookings a page or stream should contain: optionally one bus, one
+ * status and a range of booking dates. Filters are immutable; each with...
+ * method returns a narrowed copy. Repositories evaluate them while scanning,
+ * so bookings that do not match are never materialized.
+ */
+public class BookingFilter {
+    private static final BookingFilter ALL = new BookingFilter(null, null, null, null);
+
+    private final String busNo;
+    private final String status;
+    private final LocalDate bookedFrom;
+    private final LocalDate bookedTo;
+    // Booking dates are "yyyy-MM-dd HH:mm:ss", so a day prefix compares in date order
+    private final String fromKey;
+    private final String toKey;
+
+    private BookingFilter(String busNo, String status, LocalDate bookedFrom, LocalDate bookedTo) {
+        this.busNo = busNo;
+        this.status = status;
+        this.bookedFrom = bookedFrom;
+        this.bookedTo = bookedTo;
+        this.fromKey = bookedFrom == null ? null : bookedFrom.toString();
+        this.toKey = bookedTo == null ? null : bookedTo.plusDays(1).toString();
+    }
+
+    // Every booking
+    public static BookingFilter all() {
+        return ALL;
+    }
+
+    // Only bookings on a bus (case-insensitive); null for any bus
+    public BookingFilter withBus(String busNo) {
+        return new BookingFilter(blankToNull(busNo), status, bookedFrom, bookedTo);
+    }
+
+    // Only bookings with a status (CONFIRMED or CANCELLED); null for any status
+    public BookingFilter withStatus(String status) {
+        return new BookingFilter(busNo, blankToNull(status), bookedFrom, bookedTo);
+    }
+
+    // Only bookings made on or between two days (inclusive); null leaves that end open
+    public BookingFilter withBookingDates(LocalDate from, LocalDate to) {
+        return new BookingFilter(busNo, status, from, to);
+    }
+
+    public String getBusNo() {
+        return busNo;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public LocalDate getBookedFrom() {
+        return bookedFrom;
+    }
+
+    public LocalDate getBookedTo() {
+        return bookedTo;
+    }
+
+    // Check a booking against every condition; discarded bookings never match
+    public boolean matches(Booking booking) {
+        if ("DISCARDED".equals(booking.getStatus())) {
+            return false;
+        }
+        if (busNo != null && !busNo.equalsIgnoreCase(booking.getBusNo())) {
+            return false;
+        }
+        if (status != null && !status.equalsIgnoreCase(booking.getStatus())) {
+            return false;
+        }
+        if (fromKey == null && toKey == null) {
+            return true;
+        }
+        String date = booking.getBookingDate();
+        if (date == null || date.isEmpty()) {
+            return false;
+        }
+        return (fromKey == null || date.compareTo(fromKey) >= 0)
+                && (toKey == null || date.compareTo(toKey) < 0);
+    }
+
+    // First second of the range in the stores' epoch encoding (local time read as UTC)
+    long fromEpochSecond() {
+        return bookedFrom == null ? Long.MIN_VALUE : bookedFrom.atStartOfDay().toEpochSecond(ZoneOffset.UTC);
+    }
+
+    // First second after the range, in the same encoding
+    long toEpochSecond() {
+        return bookedTo == null ? Long.MAX_VALUE : bookedTo.plusDays(1).atStartOfDay().toEpochSecond(ZoneOffset.UTC);
+    }
+
+    boolean hasDateRange() {
+        return bookedFrom != null || bookedTo != null;
+    }
+
+    private static String blankToNull(String value) {
+        return value == null || value.trim().isEmpty() ? null : value.trim();
+    }
+
+    @Override
+    public String toString() {
+        return "BookingFilter{bus=" + busNo + ", status=" + status
+                + ", from=" + bookedFrom + ", to=" + bookedTo + "}";
+    }
+}
\ No newline at end of file
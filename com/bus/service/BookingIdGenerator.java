@@ -0,0 +1,163 @@
+package com.bus.service;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * BookingIdGenerator Class
+ * Snowflake-style 64-bit booking IDs: 41 bits of milliseconds since 2024-01-01,
+ * 10 bits of node ID and 12 bits of per-millisecond sequence. IDs are unique
+ * across nodes without any existence check and are rendered as "BK" followed
+ * by 13 Crockford base-32 characters, which sort in creation order.
+ */
+public class BookingIdGenerator {
+    public static final String PREFIX = "BK";
+    private static final long EPOCH = 1704067200000L; // 2024-01-01T00:00:00Z
+    private static final int NODE_BITS = 10;
+    private static final int SEQUENCE_BITS = 12;
+    private static final long MAX_NODE = (1L << NODE_BITS) - 1;
+    private static final long SEQUENCE_MASK = (1L << SEQUENCE_BITS) - 1;
+    private static final int ENCODED_LENGTH = 13;
+    private static final char[] ALPHABET = "0123456789ABCDEFGHJKMNPQRSTVWXYZ".toCharArray();
+    private static final byte[] DECODE = new byte[128];
+
+    static {
+        Arrays.fill(DECODE, (byte) -1);
+        for (int i = 0; i < ALPHABET.length; i++) {
+            DECODE[ALPHABET[i]] = (byte) i;
+            DECODE[Character.toLowerCase(ALPHABET[i])] = (byte) i;
+        }
+        // Crockford aliases for characters that are easy to misread
+        DECODE['O'] = DECODE['o'] = 0;
+        DECODE['I'] = DECODE['i'] = DECODE['L'] = DECODE['l'] = 1;
+    }
+
+    private final long node;
+    // Last issued (timestamp << SEQUENCE_BITS | sequence), advanced with CAS only
+    private final AtomicLong lastState;
+
+    public BookingIdGenerator(long node) {
+        if (node < 0 || node > MAX_NODE) {
+            throw new IllegalArgumentException("Node ID must be between 0 and " + MAX_NODE + ": " + node);
+        }
+        this.node = node;
+        this.lastState = new AtomicLong();
+    }
+
+    // Generate the next ID; lock-free, strictly increasing even if the clock steps back
+    public long nextId() {
+        while (true) {
+            long last = lastState.get();
+            long lastTimestamp = last >>> SEQUENCE_BITS;
+            long now = System.currentTimeMillis() - EPOCH;
+
+            long next;
+            if (now > lastTimestamp) {
+                next = now << SEQUENCE_BITS;
+            } else if ((last & SEQUENCE_MASK) < SEQUENCE_MASK) {
+                next = last + 1;
+            } else {
+                // Sequence exhausted for this millisecond; borrow the next one
+                next = (lastTimestamp + 1) << SEQUENCE_BITS;
+            }
+
+            if (lastState.compareAndSet(last, next)) {
+                long timestamp = next >>> SEQUENCE_BITS;
+                return (timestamp << (NODE_BITS + SEQUENCE_BITS)) | (node << SEQUENCE_BITS) | (next & SEQUENCE_MASK);
+            }
+        }
+    }
+
+    // Generate the next ID in its string form
+    public String nextBookingId() {
+        return format(nextId());
+    }
+
+    // Render an ID as "BK" + 13 base-32 characters
+    public static String format(long id) {
+        char[] chars = new char[PREFIX.length() + ENCODED_LENGTH];
+        chars[0] = 'B';
+        chars[1] = 'K';
+        for (int i = chars.length - 1; i >= PREFIX.length(); i--) {
+            chars[i] = ALPHABET[(int) (id & 31)];
+            id >>>= 5;
+        }
+        return new String(chars);
+    }
+
+    // Parse a booking ID; accepts both this format and the older "BK" + digits form
+    public static long parse(String bookingId) {
+        if (isEncoded(bookingId)) {
+            long id = 0;
+            for (int i = PREFIX.length(); i < bookingId.length(); i++) {
+                id = (id << 5) | DECODE[bookingId.charAt(i)];
+            }
+            return id;
+        }
+        if (isLegacy(bookingId)) {
+            return Long.parseLong(bookingId.substring(PREFIX.length()));
+        }
+        throw new IllegalArgumentException("Invalid booking ID: " + bookingId);
+    }
+
+    // Check if a string is a booking ID in either format
+    public static boolean isValid(String bookingId) {
+        return isEncoded(bookingId) || isLegacy(bookingId);
+    }
+
+    // Check if a booking ID uses the older "BK" + timestamp + random digits form
+    public static boolean isLegacy(String bookingId) {
+        if (bookingId == null || !bookingId.startsWith(PREFIX)) {
+            return false;
+        }
+        int digits = bookingId.length() - PREFIX.length();
+        if (digits == ENCODED_LENGTH || digits < 1 || digits > 18) {
+            return false;
+        }
+        for (int i = PREFIX.length(); i < bookingId.length(); i++) {
+            char c = bookingId.charAt(i);
+            if (c < '0' || c > '9') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Canonical spelling of a typed-in ID (case and Crockford aliases); others are returned as-is
+    public static String normalize(String bookingId) {
+        if (bookingId == null) {
+            return null;
+        }
+        String trimmed = bookingId.trim();
+        if (trimmed.length() > PREFIX.length() && trimmed.regionMatches(true, 0, PREFIX, 0, PREFIX.length())) {
+            String prefixed = PREFIX + trimmed.substring(PREFIX.length());
+            if (isEncoded(prefixed)) {
+                return format(parse(prefixed));
+            }
+            if (isLegacy(prefixed)) {
+                return prefixed;
+            }
+        }
+        return trimmed;
+    }
+
+    // Milliseconds since the Unix epoch at which an ID in the current format was issued
+    public static long timestampOf(long id) {
+        return (id >>> (NODE_BITS + SEQUENCE_BITS)) + EPOCH;
+    }
+
+    private static boolean isEncoded(String bookingId) {
+        if (bookingId == null || bookingId.length() != PREFIX.length() + ENCODED_LENGTH
+                || !bookingId.startsWith(PREFIX)) {
+            return false;
+        }
+        for (int i = PREFIX.length(); i < bookingId.length(); i++) {
+            char c = bookingId.charAt(i);
+            if (c >= DECODE.length || DECODE[c] < 0) {
+                return false;
+            }
+        }
+        // 13 characters carry 65 bits; the leading one may only use its low 4
+        return DECODE[bookingId.charAt(PREFIX.length())] < 16;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,35 @@
+package com.bus.service;
+
+import com.bus.model.Booking;
+
+import java.util.List;
+
+/**
+ * BookingPage Class
+ * One page of bookings in storage order, plus the cursor for the next page.
+ * Cursors are booking IDs; since bookings are only appended, a cursor stays
+ * valid and pages never skip or repeat a booking while new ones arrive.
+ */
+public class BookingPage {
+    private final List<Booking> bookings;
+    private final String nextCursor;
+
+    BookingPage(List<Booking> bookings, String nextCursor) {
+        this.bookings = bookings;
+        this.nextCursor = nextCursor;
+    }
+
+    // Bookings on this page, oldest first
+    public List<Booking> getBookings() {
+        return bookings;
+    }
+
+    // Pass to getBookingPage for the following page; null on the last page
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public boolean hasMore() {
+        return nextCursor != null;
+    }
+}
\ No newline at end of file
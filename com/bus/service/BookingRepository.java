@@ -0,0 +1,71 @@
+package com.bus.service;
+
+import com.bus.model.Booking;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * BookingRepository Interface
+ * Storage backend for bookings. BusService serializes writes per bus and
+ * leaves indexing and persistence to the repository; returned futures
+ * complete once the change has reached the backend's durability level.
+ */
+public interface BookingRepository extends Closeable {
+    /**
+     * Receives the seat and revenue fields of each stored booking during scanSeats
+     */
+    interface SeatVisitor {
+        void visit(int position, String busNo, int seatNo, double fare, String status);
+    }
+
+    // Load stored bookings; called once before any other method
+    void open() throws IOException;
+
+    // Get booking by ID, or null if unknown or discarded
+    Booking findById(String bookingId);
+
+    // Get all bookings (any status but discarded) made on a bus
+    List<Booking> findByBus(String busNo);
+
+    // Get all bookings but discarded ones; the list is safe to iterate while bookings change
+    List<Booking> findAll();
+
+    // Number of stored bookings (any status). Bookings are only ever appended,
+    // so positions below this count stay valid and keep their booking.
+    int count();
+
+    // Get the booking at a position in storage order, without copying the others
+    Booking get(int position);
+
+    // Passenger phone number of the booking at a position, without building the rest of it
+    String getPhoneNumber(int position);
+
+    // Visit every stored booking in storage order with just the fields seat occupancy and
+    // revenue totals need; stores may read them from their records without building Bookings
+    void scanSeats(SeatVisitor visitor);
+
+    // Position of a booking in storage order, or -1 if unknown
+    int positionOf(String bookingId);
+
+    // First position in [from, to) whose booking matches the filter, or -1.
+    // The filter is applied inside the repository, so skipped bookings are never materialized.
+    int findNext(BookingFilter filter, int from, int to);
+
+    // Store a new booking; completes with the stored instance.
+    // Throws right away if the booking cannot be stored (e.g. its ID is taken).
+    CompletableFuture<Booking> add(Booking booking) throws IOException;
+
+    // Store several new bookings as one unit: after a crash either all of them are there or none.
+    // Completes with the stored instances, in order; throws right away (storing nothing) on failure.
+    CompletableFuture<List<Booking>> addAll(List<Booking> bookings) throws IOException;
+
+    // Persist a status change made to a stored booking. A DISCARDED booking (its write failed)
+    // keeps its position but is left out of lookups, filters and snapshots, and is gone after a restart.
+    CompletableFuture<Booking> update(Booking booking);
+
+    // Move a stored booking to another seat and persist the move (repairs of seats sold twice)
+    CompletableFuture<Booking> moveSeat(Booking booking, int seatNo);
+}
\ No newline at end of file
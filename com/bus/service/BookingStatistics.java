@@ -0,0 +1,211 @@
+package com.bus.service;
+
+import com.bus.model.Booking;
+import com.bus.model.Bus;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * BookingStatistics Class
+ * Running revenue and occupancy totals per bus, per route and overall.
+ * BusService updates them in O(1) on every booking and cancellation, so
+ * reports read precomputed figures instead of scanning the booking history.
+ * Revenue is kept in paise to avoid drift from repeated double additions.
+ */
+public class BookingStatistics {
+    private Map<String, Totals> byBus;
+    private Map<String, Totals> byRoute;
+    private Totals global;
+
+    public BookingStatistics() {
+        this.byBus = new ConcurrentHashMap<>();
+        this.byRoute = new ConcurrentHashMap<>();
+        this.global = new Totals();
+    }
+
+    // Start from empty totals for the loaded fleet; done at startup before any updates,
+    // followed by restore for each stored booking
+    public void reset(List<Bus> buses) {
+        Map<String, Totals> busTotals = new ConcurrentHashMap<>();
+        Map<String, Totals> routeTotals = new ConcurrentHashMap<>();
+        Totals overall = new Totals();
+
+        for (Bus bus : buses) {
+            Totals totals = new Totals();
+            totals.routeKey = RouteIndex.routeKey(bus.getSource(), bus.getDestination());
+            totals.addBus(bus.getTotalSeats());
+            busTotals.putIfAbsent(key(bus.getBusNo()), totals);
+            routeTotals.computeIfAbsent(totals.routeKey, k -> new Totals()).addBus(bus.getTotalSeats());
+            overall.addBus(bus.getTotalSeats());
+        }
+
+        byBus = busTotals;
+        byRoute = routeTotals;
+        global = overall;
+    }
+
+    // Count a stored booking from its fields, during the startup pass over bookings
+    public void restore(String busNo, double fare, String status) {
+        if ("CONFIRMED".equals(status)) {
+            apply(busNo, fare, 1, 0);
+        } else if ("CANCELLED".equals(status)) {
+            apply(busNo, fare, 0, 1);
+        }
+    }
+
+    // Start counting for a bus added after the fleet was loaded
+    public void addBus(Bus bus) {
+        Totals totals = new Totals();
+        totals.routeKey = RouteIndex.routeKey(bus.getSource(), bus.getDestination());
+        totals.addBus(bus.getTotalSeats());
+        if (byBus.putIfAbsent(key(bus.getBusNo()), totals) == null) {
+            byRoute.computeIfAbsent(totals.routeKey, k -> new Totals()).addBus(bus.getTotalSeats());
+            global.addBus(bus.getTotalSeats());
+        }
+    }
+
+    // Count a new confirmed booking
+    public void recordBooking(Booking booking) {
+        apply(booking, 1, 0);
+    }
+
+    // Take back a booking that could not be stored
+    public void undoBooking(Booking booking) {
+        apply(booking, -1, 0);
+    }
+
+    // Move a confirmed booking to cancelled
+    public void recordCancellation(Booking booking) {
+        apply(booking, -1, 1);
+    }
+
+    // Take back a cancellation that could not be stored
+    public void undoCancellation(Booking booking) {
+        apply(booking, 1, -1);
+    }
+
+    // Totals over all buses
+    public Summary getGlobal() {
+        return global.summary();
+    }
+
+    // Totals for one bus; empty if the bus is unknown
+    public Summary getForBus(String busNo) {
+        Totals totals = busNo == null ? null : byBus.get(key(busNo));
+        return totals == null ? Summary.EMPTY : totals.summary();
+    }
+
+    // Totals for all buses on a route; empty if no bus runs it
+    public Summary getForRoute(String source, String destination) {
+        Totals totals = source == null || destination == null ? null : byRoute.get(RouteIndex.routeKey(source, destination));
+        return totals == null ? Summary.EMPTY : totals.summary();
+    }
+
+    private void apply(Booking booking, int confirmed, int cancelled) {
+        apply(booking.getBusNo(), booking.getFare(), confirmed, cancelled);
+    }
+
+    private void apply(String busNo, double fare, int confirmed, int cancelled) {
+        long paise = confirmed * Math.round(fare * 100);
+        Totals busTotals = byBus.get(key(busNo));
+        if (busTotals != null) {
+            busTotals.add(paise, confirmed, cancelled);
+            Totals routeTotals = byRoute.get(busTotals.routeKey);
+            if (routeTotals != null) {
+                routeTotals.add(paise, confirmed, cancelled);
+            }
+        }
+        global.add(paise, confirmed, cancelled);
+    }
+
+    private static String key(String busNo) {
+        return busNo.toUpperCase(Locale.ROOT);
+    }
+
+    /**
+     * Live counters for one bus, route or the whole fleet.
+     */
+    private static class Totals {
+        private LongAdder revenuePaise = new LongAdder();
+        private LongAdder confirmed = new LongAdder();
+        private LongAdder cancelled = new LongAdder();
+        // Change only when a bus joins the fleet
+        private volatile int buses;
+        private volatile long capacity;
+        private String routeKey;
+
+        synchronized void addBus(int seats) {
+            buses++;
+            capacity += seats;
+        }
+
+        void add(long paise, int confirmedDelta, int cancelledDelta) {
+            revenuePaise.add(paise);
+            confirmed.add(confirmedDelta);
+            cancelled.add(cancelledDelta);
+        }
+
+        Summary summary() {
+            return new Summary(revenuePaise.sum(), confirmed.sum(), cancelled.sum(), buses, capacity);
+        }
+    }
+
+    /**
+     * Point-in-time figures read from the running totals.
+     */
+    public static class Summary {
+        static final Summary EMPTY = new Summary(0, 0, 0, 0, 0);
+
+        private long revenuePaise;
+        private long confirmedBookings;
+        private long cancelledBookings;
+        private int buses;
+        private long seatCapacity;
+
+        Summary(long revenuePaise, long confirmedBookings, long cancelledBookings, int buses, long seatCapacity) {
+            this.revenuePaise = revenuePaise;
+            this.confirmedBookings = confirmedBookings;
+            this.cancelledBookings = cancelledBookings;
+            this.buses = buses;
+            this.seatCapacity = seatCapacity;
+        }
+
+        public double getRevenue() {
+            return revenuePaise / 100.0;
+        }
+
+        public long getConfirmedBookings() {
+            return confirmedBookings;
+        }
+
+        public long getCancelledBookings() {
+            return cancelledBookings;
+        }
+
+        public long getTotalBookings() {
+            return confirmedBookings + cancelledBookings;
+        }
+
+        // Every confirmed booking holds one seat
+        public long getSeatsSold() {
+            return confirmedBookings;
+        }
+
+        public int getBuses() {
+            return buses;
+        }
+
+        public long getSeatCapacity() {
+            return seatCapacity;
+        }
+
+        // Seats sold as a percentage of capacity
+        public double getOccupancyRate() {
+            return seatCapacity > 0 ? getSeatsSold() * 100.0 / seatCapacity : 0;
+        }
+    }
+}
\ No newline at end of file
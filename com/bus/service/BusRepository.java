@@ -0,0 +1,27 @@
+package com.bus.service;
+
+import com.bus.model.Bus;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * BusRepository Interface
+ * Storage backend for the bus fleet
+ */
+public interface BusRepository {
+    // Load the stored fleet; called once before any lookups
+    void load() throws IOException;
+
+    // Get all buses
+    List<Bus> findAll();
+
+    // Get bus by (case-insensitive) bus number, or null if unknown
+    Bus findByNumber(String busNo);
+
+    // Add a new bus to the fleet; fails if its number is already taken
+    void add(Bus bus);
+
+    // Persist the current bus details
+    void save() throws IOException;
+}
\ No newline at end of file
@@ -2,35 +2,172 @@ package com.bus.service;
 
 import com.bus.model.Bus;
 import com.bus.model.Booking;
+import com.bus.model.Journey;
 import com.bus.model.Passenger;
+import com.bus.model.SeatHold;
+import com.bus.model.WaitlistEntry;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
-import java.util.Random;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * BusService Class
- * Handles business logic for bus booking operations
+ * Handles business logic for bus booking operations.
+ * Thread-safe: by default each bus is its own lock, so bookings on different
+ * buses never contend. With -Dbus.eventLoops=N every mutation for a bus is
+ * instead handed to the single thread that owns it. Storage is left to a
+ * BusRepository and a BookingRepository, chosen with -Dbus.storage
+ * (csv, memory, log or mapped; see StorageEngine).
  */
 public class BusService {
-    private FileService fileService;
-    private List<Bus> buses;
-    private List<Booking> bookings;
-    private Random random;
+    public static final int ANY_SEAT = 0;
+    public static final String HOLD_PREFIX = "HD";
+    public static final String WAITLIST_PREFIX = "WL";
+    private static final int EVENT_LOOP_RING_SIZE = 4096;
+    private static final long HOLD_TICK_MILLIS = 100;
+    private static final int HOLD_WHEEL_SIZE = 4096;
+
+    private BusRepository busRepository;
+    private BookingRepository bookingRepository;
+    private Waitlist waitlist;
+    private BookingIdGenerator idGenerator;
+    private BookingStatistics statistics;
+    private PhoneIndex phoneIndex;
+    private RouteIndex routeIndex;
+    private JourneyPlanner journeyPlanner;
+    private CityDirectory cityDirectory;
+    private Map<String, TimingWheel.Timeout<SeatHold>> holds;
+    private TimingWheel<SeatHold> holdWheel;
+    private ChangeEventBus changeEvents;
+    private BookingEventLoop eventLoop;
+    // Runs the follow-ups of writes that complete later, off the storage thread that completed them
+    private ExecutorService writeCallbacks;
+    // Closes the service if the JVM exits first; removed again by close
+    private Thread shutdownHook;
+    // Held for the whole of close, so a second caller waits until storage is released
+    private Object closeLock;
+    private boolean closed;
 
     public BusService() {
-        this.fileService = new FileService();
-        this.random = new Random();
-        loadData();
+        this(DurabilityMode.parse(System.getProperty("bus.durability"), DurabilityMode.GROUP_COMMIT),
+                Integer.getInteger("bus.eventLoops", 0));
+    }
+
+    public BusService(DurabilityMode durabilityMode) {
+        this(durabilityMode, 0);
+    }
+
+    // eventLoops > 0 selects the single-writer engine with that many threads
+    public BusService(DurabilityMode durabilityMode, int eventLoops) {
+        this(StorageEngine.parse(System.getProperty("bus.storage"), StorageEngine.CSV), durabilityMode, eventLoops);
+    }
+
+    public BusService(StorageEngine storageEngine, DurabilityMode durabilityMode, int eventLoops) {
+        this(createBusRepository(storageEngine),
+                storageEngine.createBookingRepository(new FileService(), durabilityMode),
+                storageEngine.createWaitlist(new FileService(), durabilityMode), eventLoops);
+    }
+
+    // Run on explicitly supplied repositories (e.g. in-memory ones), with an in-memory waitlist
+    public BusService(BusRepository busRepository, BookingRepository bookingRepository, int eventLoops) {
+        this(busRepository, bookingRepository, new Waitlist(), eventLoops);
+    }
+
+    public BusService(BusRepository busRepository, BookingRepository bookingRepository, Waitlist waitlist,
+                      int eventLoops) {
+        this.busRepository = busRepository;
+        this.bookingRepository = bookingRepository;
+        this.waitlist = waitlist;
+        this.idGenerator = new BookingIdGenerator(Long.getLong("bus.nodeId", 0L));
+        this.statistics = new BookingStatistics();
+        this.phoneIndex = new PhoneIndex(bookingRepository);
+        this.routeIndex = new RouteIndex();
+        this.journeyPlanner = new JourneyPlanner();
+        this.cityDirectory = new CityDirectory();
+        this.holds = new ConcurrentHashMap<>();
+        this.holdWheel = new TimingWheel<>(HOLD_TICK_MILLIS, HOLD_WHEEL_SIZE, this::expireHold, "seat-hold-timer");
+        this.changeEvents = new ChangeEventBus();
+        this.writeCallbacks = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "write-callbacks");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.closeLock = new Object();
+        try {
+            loadData();
+        } catch (RuntimeException e) {
+            // Nothing will close a service that failed to start; stop its threads here
+            holdWheel.close();
+            writeCallbacks.shutdownNow();
+            throw e;
+        }
+        if (eventLoops > 0) {
+            this.eventLoop = new BookingEventLoop(eventLoops, EVENT_LOOP_RING_SIZE);
+        }
+        this.shutdownHook = new Thread(this::closeQuietly, "storage-shutdown");
+        Runtime.getRuntime().addShutdownHook(shutdownHook);
     }
 
-    // Load data from files
+    // Load data from the repositories
     private void loadData() {
         try {
-            fileService.initializeFiles();
-            buses = fileService.loadBuses();
-            bookings = fileService.loadBookings();
+            busRepository.load();
+            bookingRepository.open();
+            waitlist.open(entry -> bookingRepository.findById(entry.getBookingId() != null
+                    ? entry.getBookingId() : promotedBookingId(entry)) != null);
+            restoreFromBookings();
+            promoteWaiting();
+            routeIndex.rebuild(busRepository.findAll());
+            journeyPlanner.rebuild(busRepository.findAll());
+            for (Bus bus : busRepository.findAll()) {
+                cityDirectory.addBus(bus);
+                bus.setAvailabilityListener(this::availabilityChanged);
+            }
+        } catch (IOException e) {
+            System.err.println("Error loading data: " + e.getMessage());
+            throw new RuntimeException("Failed to initialize system");
+        }
+    }
+
+    // Hand seats that are free while passengers wait (a promotion whose booking was lost
+    // in a crash) to the heads of the waitlists
+    private void promoteWaiting() throws IOException {
+        for (Bus bus : busRepository.findAll()) {
+            WaitlistEntry next;
+            while (bus.getSeatsAvailable() > 0 && (next = waitlist.peek(bus.getBusNo())) != null) {
+                try {
+                    releaseSeat(bus, bus.bookSeat()).join();
+                } catch (CompletionException e) {
+                    throw new IOException("Could not promote " + next.getEntryId() + ": " + e.getCause().getMessage(),
+                            e.getCause());
+                }
+                if (next.isWaiting()) {
+                    // Not stored; releaseSeat has said why and given the seat back
+                    break;
+                }
+            }
+        }
+    }
+
+    private static BusRepository createBusRepository(StorageEngine storageEngine) {
+        try {
+            return storageEngine.createBusRepository(new FileService());
         } catch (IOException e) {
             System.err.println("Error loading data: " + e.getMessage());
             throw new RuntimeException("Failed to initialize system");
@@ -39,109 +176,800 @@ public class BusService {
 
     // Get all available buses
     public List<Bus> getAllBuses() {
-        return buses;
+        return busRepository.findAll();
     }
 
-    // Search buses by source and destination
+    // Add a bus to the fleet and to every index, without reloading the rest
+    public synchronized void addBus(Bus bus) throws Exception {
+        if (busRepository.findByNumber(bus.getBusNo()) != null) {
+            throw new Exception("Bus already exists: " + bus.getBusNo());
+        }
+
+        // Index it before it can be found by number, so no booking goes unseen
+        bus.setAvailabilityListener(this::availabilityChanged);
+        statistics.addBus(bus);
+        routeIndex.addBus(bus);
+        journeyPlanner.addBus(bus);
+        cityDirectory.addBus(bus);
+        busRepository.add(bus);
+        busRepository.save();
+        publishSeatsChanged(bus);
+    }
+
+    // Known cities starting with the typed prefix, for autocomplete
+    public List<String> suggestCities(String prefix, int limit) {
+        return cityDirectory.suggest(prefix, limit);
+    }
+
+    // Known cities within a small edit distance of a name the user typed
+    public List<String> findSimilarCities(String name) {
+        return cityDirectory.findSimilar(name);
+    }
+
+    // The fleet's spelling of a typed city name (case, typos and unique prefixes of
+    // three or more letters are resolved); anything else comes back trimmed
+    public String canonicalCity(String name) {
+        return cityDirectory.canonicalize(name);
+    }
+
+    // Search buses with free seats by source and destination (read-only list)
     public List<Bus> searchBuses(String source, String destination) {
-        return buses.stream()
-                .filter(bus -> bus.getSource().equalsIgnoreCase(source) &&
-                        bus.getDestination().equalsIgnoreCase(destination) &&
-                        bus.getSeatsAvailable() > 0)
-                .collect(Collectors.toList());
+        return routeIndex.findBookable(source, destination);
+    }
+
+    // Hit, miss and eviction counts for searchBuses
+    public RouteIndex getRouteIndex() {
+        return routeIndex;
+    }
+
+    // Connecting itineraries over buses with free seats: the cheapest and the one with fewest changes
+    public List<Journey> planJourney(String source, String destination) {
+        return journeyPlanner.plan(source, destination);
     }
 
     // Get bus by bus number
     public Bus getBusByNumber(String busNo) throws Exception {
-        return buses.stream()
-                .filter(bus -> bus.getBusNo().equalsIgnoreCase(busNo))
-                .findFirst()
-                .orElseThrow(() -> new Exception("Bus not found: " + busNo));
+        Bus bus = busRepository.findByNumber(busNo);
+        if (bus == null) {
+            throw new Exception("Bus not found: " + busNo);
+        }
+        return bus;
     }
 
-    // Book a seat
+    // Book the first free seat
     public Booking bookSeat(String busNo, Passenger passenger) throws Exception {
-        Bus bus = getBusByNumber(busNo);
+        return bookSeat(busNo, passenger, ANY_SEAT);
+    }
+
+    // Book a specific seat, or the first free one when seatNo is ANY_SEAT
+    public Booking bookSeat(String busNo, Passenger passenger, int seatNo) throws Exception {
+        return await(bookSeatAsync(busNo, passenger, seatNo));
+    }
+
+    // Book the first free seat; completes once the booking is persisted
+    public CompletableFuture<Booking> bookSeatAsync(String busNo, Passenger passenger) {
+        return bookSeatAsync(busNo, passenger, ANY_SEAT);
+    }
+
+    // Book a specific seat, or the first free one; completes once the booking is persisted
+    public CompletableFuture<Booking> bookSeatAsync(String busNo, Passenger passenger, int seatNo) {
+        Bus bus = busRepository.findByNumber(busNo);
+        if (bus == null) {
+            return CompletableFuture.failedFuture(new Exception("Bus not found: " + busNo));
+        }
+        return mutate(bus, () -> applyBooking(bus, busNo, passenger, seatNo));
+    }
+
+    // Book seats for a whole group in one step: every passenger gets a seat or nobody does
+    public List<Booking> bookGroup(String busNo, List<Passenger> passengers, SeatPreference seatPreference)
+            throws Exception {
+        return await(bookGroupAsync(busNo, passengers, seatPreference));
+    }
+
+    // Book a group; completes with one booking per passenger, in order, once they are persisted together
+    public CompletableFuture<List<Booking>> bookGroupAsync(String busNo, List<Passenger> passengers,
+                                                          SeatPreference seatPreference) {
+        Bus bus = busRepository.findByNumber(busNo);
+        if (bus == null) {
+            return CompletableFuture.failedFuture(new Exception("Bus not found: " + busNo));
+        }
+        if (passengers.isEmpty()) {
+            return CompletableFuture.failedFuture(new Exception("No passengers to book"));
+        }
+        return mutate(bus, () -> applyGroupBooking(bus, busNo, passengers, seatPreference));
+    }
 
-        if (bus.getSeatsAvailable() <= 0) {
-            throw new Exception("No seats available on this bus");
+    // Cancel a booking
+    public void cancelBooking(String bookingId) throws Exception {
+        await(cancelBookingAsync(bookingId));
+    }
+
+    // Cancel a booking; completes with the cancelled booking once it is persisted
+    public CompletableFuture<Booking> cancelBookingAsync(String bookingId) {
+        Booking booking = bookingRepository.findById(BookingIdGenerator.normalize(bookingId));
+        Bus bus = booking == null ? null : busRepository.findByNumber(booking.getBusNo());
+        if (bus == null) {
+            return CompletableFuture.failedFuture(
+                    new Exception("Booking not found or already cancelled: " + bookingId));
         }
+        return mutate(bus, () -> applyCancellation(bus, booking));
+    }
 
-        // Book the seat
-        bus.bookSeat();
+    // Run a mutation with exclusive access to its bus: on the bus's event loop if
+    // one is configured, otherwise under the bus's monitor on the calling thread
+    private <T> CompletableFuture<T> mutate(Bus bus, Mutation<T> mutation) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        Runnable command = () -> {
+            int seatsBefore = bus.getSeatsAvailable();
+            try {
+                mutation.apply().whenComplete((value, error) -> {
+                    if (error != null) {
+                        result.completeExceptionally(error);
+                    } else {
+                        result.complete(value);
+                    }
+                });
+            } catch (Exception e) {
+                result.completeExceptionally(e);
+            }
+            if (bus.getSeatsAvailable() != seatsBefore) {
+                publishSeatsChanged(bus);
+            }
+        };
 
-        // Generate booking ID
-        String bookingId = generateBookingId();
+        if (eventLoop != null) {
+            if (!eventLoop.execute(bus.getBusNo(), command)) {
+                result.completeExceptionally(new IllegalStateException("Booking engine is shut down"));
+            }
+        } else {
+            synchronized (bus) {
+                command.run();
+            }
+        }
+        return result;
+    }
 
-        // Calculate seat number
-        int seatNo = bus.getTotalSeats() - bus.getSeatsAvailable();
+    // Take a seat and record the booking; caller has exclusive access to the bus
+    private CompletableFuture<Booking> applyBooking(Bus bus, String busNo, Passenger passenger, int seatNo)
+            throws Exception {
+        seatNo = takeSeat(bus, seatNo);
 
-        // Create booking
-        Booking booking = new Booking(bookingId, passenger, busNo, seatNo, bus.getFarePerSeat());
-        bookings.add(booking);
+        // Create booking; generated IDs are unique by construction
+        Booking booking = new Booking(idGenerator.nextBookingId(), passenger, busNo, seatNo,
+                bus.getFarePerSeat());
+        return storeBooking(bus, booking);
+    }
 
-        // Save changes
-        saveData();
+    // Take seats for a group and store its bookings as one record; caller has exclusive access to the bus
+    private CompletableFuture<List<Booking>> applyGroupBooking(Bus bus, String busNo, List<Passenger> passengers,
+                                                               SeatPreference seatPreference) throws Exception {
+        int[] seatNos = chooseSeats(bus, passengers.size(), seatPreference);
+        if (!bus.bookSeats(seatNos)) {
+            throw new Exception("Seats are no longer available on this bus");
+        }
 
-        return booking;
+        List<Booking> group = new ArrayList<>(passengers.size());
+        for (int i = 0; i < seatNos.length; i++) {
+            group.add(new Booking(idGenerator.nextBookingId(), passengers.get(i), busNo, seatNos[i],
+                    bus.getFarePerSeat()));
+        }
+        CompletableFuture<List<Booking>> stored;
+        try {
+            stored = bookingRepository.addAll(group);
+        } catch (Exception e) {
+            for (int seatNo : seatNos) {
+                freeSeat(bus, seatNo, false);
+            }
+            throw e;
+        }
+        int[] positions = new int[group.size()];
+        for (int i = 0; i < positions.length; i++) {
+            positions[i] = recordStored(group.get(i));
+        }
+        return onWriteFailure(bus, stored, () -> {
+            for (int i = 0; i < positions.length; i++) {
+                discardBooking(bus, group.get(i), positions[i], false);
+            }
+        }).thenApply(bookings -> {
+            bookings.forEach(this::publishCreated);
+            return bookings;
+        });
     }
 
-    // Cancel a booking
-    public void cancelBooking(String bookingId) throws Exception {
-        Booking booking = bookings.stream()
-                .filter(b -> b.getBookingId().equals(bookingId) && 
-                        b.getStatus().equals("CONFIRMED"))
-                .findFirst()
-                .orElseThrow(() -> new Exception("Booking not found or already cancelled: " + bookingId));
+    // Pick seats for a group according to its preference
+    private static int[] chooseSeats(Bus bus, int count, SeatPreference seatPreference) throws Exception {
+        if (count > bus.getSeatsAvailable()) {
+            throw new Exception("Only " + bus.getSeatsAvailable() + " seats available on this bus");
+        }
+        if (seatPreference != SeatPreference.ANY) {
+            int first = bus.findFreeRun(count);
+            if (first > 0) {
+                int[] seatNos = new int[count];
+                for (int i = 0; i < count; i++) {
+                    seatNos[i] = first + i;
+                }
+                return seatNos;
+            }
+            if (seatPreference == SeatPreference.TOGETHER) {
+                throw new Exception("No " + count + " seats together on this bus");
+            }
+        }
+        int[] seatNos = bus.findFreeSeats(count);
+        if (seatNos == null) {
+            throw new Exception("Only " + bus.getSeatsAvailable() + " seats available on this bus");
+        }
+        return seatNos;
+    }
+
+    // Take a specific seat or the first free one; the check and the update happen under the same owner
+    private static int takeSeat(Bus bus, int seatNo) throws Exception {
+        if (seatNo == ANY_SEAT) {
+            seatNo = bus.bookSeat();
+            if (seatNo < 0) {
+                throw new Exception("No seats available on this bus");
+            }
+        } else if (!bus.bookSeat(seatNo)) {
+            throw new Exception("Seat " + seatNo + " is not available on this bus");
+        }
+        return seatNo;
+    }
+
+    // Record a booking whose seat is already taken, giving the seat back if it cannot be stored
+    private CompletableFuture<Booking> storeBooking(Bus bus, Booking booking) throws Exception {
+        return storeBooking(bus, booking, false);
+    }
+
+    // As storeBooking; a promotion that cannot be stored gives its seat to the bus, not the waitlist
+    private CompletableFuture<Booking> storeBooking(Bus bus, Booking booking, boolean promotion) throws Exception {
+        CompletableFuture<Booking> stored;
+        try {
+            // Store it while still ordered with other mutations on this bus
+            stored = bookingRepository.add(booking);
+        } catch (Exception e) {
+            freeSeat(bus, booking.getSeatNo(), promotion);
+            throw e;
+        }
+        int position = recordStored(booking);
+        return onWriteFailure(bus, stored, () -> discardBooking(bus, booking, position, promotion))
+                .thenApply(created -> {
+                    publishCreated(created);
+                    return created;
+                });
+    }
+
+    // Count a booking handed to storage and index its position; returns the position
+    private int recordStored(Booking booking) {
+        statistics.recordBooking(booking);
+        int position = bookingRepository.positionOf(booking.getBookingId());
+        phoneIndex.add(position, booking.getPassenger().getPhoneNumber());
+        return position;
+    }
+
+    // Undo recordStored and free the seat of a booking whose write failed. The repository's
+    // copy is marked discarded and the discard stored: the booking keeps its position but is
+    // left out of lookups, totals and snapshots, and its record is skipped on the next start.
+    // Caller has exclusive access to the bus.
+    private void discardBooking(Bus bus, Booking booking, int position, boolean promotion) {
+        Booking kept = bookingRepository.findById(booking.getBookingId());
+        if (kept == null || !kept.getStatus().equals("CONFIRMED")) {
+            // Cancelled meanwhile; the cancellation has dealt with the seat and totals
+            return;
+        }
+        kept.discardBooking();
+        bookingRepository.update(kept).whenComplete((b, error) -> {
+            if (error != null) {
+                System.err.println("Could not store the discard of " + kept.getBookingId() + ": " + error.getMessage());
+            }
+        });
+        statistics.undoBooking(booking);
+        phoneIndex.remove(position, booking.getPassenger().getPhoneNumber());
+        freeSeat(bus, booking.getSeatNo(), promotion);
+    }
+
+    // Give back the seat of a booking that was not stored, to the waitlist first like any freed
+    // seat. A failed promotion goes straight to the bus: promoting again would retry the same
+    // passenger against the same failing storage. Caller has exclusive access to the bus.
+    private void freeSeat(Bus bus, int seatNo, boolean promotion) {
+        if (promotion) {
+            bus.cancelSeat(seatNo);
+        } else {
+            releaseSeat(bus, seatNo);
+        }
+    }
+
+    // Announce a stored booking; the stored copy is the one later status changes are made on
+    private void publishCreated(Booking stored) {
+        if (changeEvents.hasSubscribers()) {
+            changeEvents.publish(new ChangeEvent.BookingCreated(stored));
+        }
+    }
+
+    // Pass on a write's result; if it fails, first run undo with exclusive access to the bus
+    // so memory goes back to matching storage. A write that already failed is undone at once,
+    // since the caller still owns the bus.
+    private <T> CompletableFuture<T> onWriteFailure(Bus bus, CompletableFuture<T> write, Runnable undo) {
+        if (write.isDone()) {
+            if (write.isCompletedExceptionally()) {
+                undo.run();
+            }
+            return write;
+        }
+        return write.exceptionallyComposeAsync(error -> mutate(bus, () -> {
+            undo.run();
+            return write;
+        }), writeCallbacks);
+    }
+
+    // Run next with exclusive access to the bus once a write has been stored; fails with the
+    // write's error otherwise. A write that is already stored continues at once, since the
+    // caller still owns the bus. Later completions are handed off the storage thread, which
+    // compaction may be waiting on while a mutation of this bus waits for compaction.
+    private <T, U> CompletableFuture<U> whenStored(Bus bus, CompletableFuture<T> write, Mutation<U> next) {
+        if (write.isDone() && !write.isCompletedExceptionally()) {
+            try {
+                return next.apply();
+            } catch (Exception e) {
+                return CompletableFuture.failedFuture(e);
+            }
+        }
+        return write.thenComposeAsync(stored -> mutate(bus, next), writeCallbacks);
+    }
+
+    // Tell subscribers a bus's free seat count changed; costs nothing when nobody listens
+    private void publishSeatsChanged(Bus bus) {
+        if (changeEvents.hasSubscribers()) {
+            changeEvents.publish(new ChangeEvent.SeatsChanged(bus.getBusNo(), bus.getSeatsAvailable(),
+                    bus.getTotalSeats()));
+        }
+    }
+
+    // Hold a seat (or the first free one when seatNo is ANY_SEAT) for ttlMillis without booking it
+    public SeatHold holdSeat(String busNo, int seatNo, long ttlMillis) throws Exception {
+        return await(holdSeatAsync(busNo, seatNo, ttlMillis));
+    }
+
+    // Hold a seat for ttlMillis; the seat is returned to sale if the hold is not confirmed in time
+    public CompletableFuture<SeatHold> holdSeatAsync(String busNo, int seatNo, long ttlMillis) {
+        Bus bus = busRepository.findByNumber(busNo);
+        if (bus == null) {
+            return CompletableFuture.failedFuture(new Exception("Bus not found: " + busNo));
+        }
+        if (ttlMillis <= 0) {
+            return CompletableFuture.failedFuture(new Exception("Hold time must be positive: " + ttlMillis));
+        }
+        return mutate(bus, () -> applyHold(bus, seatNo, ttlMillis));
+    }
+
+    // Turn a hold into a confirmed booking for the passenger
+    public Booking confirmHold(String holdId, Passenger passenger) throws Exception {
+        return await(confirmHoldAsync(holdId, passenger));
+    }
+
+    // Turn a hold into a booking; completes once the booking is persisted
+    public CompletableFuture<Booking> confirmHoldAsync(String holdId, Passenger passenger) {
+        TimingWheel.Timeout<SeatHold> timeout = findHold(holdId);
+        Bus bus = timeout == null ? null : busRepository.findByNumber(timeout.getItem().getBusNo());
+        if (bus == null) {
+            return CompletableFuture.failedFuture(new Exception("Hold not found or expired: " + holdId));
+        }
+        return mutate(bus, () -> applyConfirmHold(bus, timeout, passenger));
+    }
+
+    // Give a held seat back before its hold runs out
+    public void releaseHold(String holdId) throws Exception {
+        TimingWheel.Timeout<SeatHold> timeout = findHold(holdId);
+        Bus bus = timeout == null ? null : busRepository.findByNumber(timeout.getItem().getBusNo());
+        if (bus == null) {
+            throw new Exception("Hold not found or expired: " + holdId);
+        }
+        await(mutate(bus, () -> applyRelease(bus, timeout, "RELEASED")));
+    }
+
+    // Get an outstanding hold by ID
+    public SeatHold getHold(String holdId) throws Exception {
+        TimingWheel.Timeout<SeatHold> timeout = findHold(holdId);
+        if (timeout == null) {
+            throw new Exception("Hold not found or expired: " + holdId);
+        }
+        return timeout.getItem();
+    }
+
+    // Number of seats currently held
+    public int getHeldSeatCount() {
+        return holds.size();
+    }
+
+    // Take a seat and start its hold timer; caller has exclusive access to the bus
+    private CompletableFuture<SeatHold> applyHold(Bus bus, int seatNo, long ttlMillis) throws Exception {
+        seatNo = takeSeat(bus, seatNo);
+        String holdId = HOLD_PREFIX + BookingIdGenerator.format(idGenerator.nextId()).substring(HOLD_PREFIX.length());
+        SeatHold hold = new SeatHold(holdId, bus.getBusNo(), seatNo, System.currentTimeMillis() + ttlMillis);
+        holds.put(holdId, holdWheel.schedule(hold, ttlMillis));
+        return CompletableFuture.completedFuture(hold);
+    }
+
+    // Book a held seat; caller has exclusive access to the bus
+    private CompletableFuture<Booking> applyConfirmHold(Bus bus, TimingWheel.Timeout<SeatHold> timeout,
+                                                        Passenger passenger) throws Exception {
+        SeatHold hold = timeout.getItem();
+        if (hold.isHeld() && System.currentTimeMillis() > hold.getExpiresAt()) {
+            // Out of time but the wheel has not reached it yet
+            applyRelease(bus, timeout, "EXPIRED");
+        }
+        if (!hold.isHeld()) {
+            throw new Exception("Hold not found or expired: " + hold.getHoldId());
+        }
+
+        holdWheel.cancel(timeout);
+        holds.remove(hold.getHoldId());
+        Booking booking = new Booking(idGenerator.nextBookingId(), passenger, hold.getBusNo(), hold.getSeatNo(),
+                bus.getFarePerSeat());
+        try {
+            CompletableFuture<Booking> stored = storeBooking(bus, booking);
+            hold.setStatus("CONFIRMED");
+            return stored;
+        } catch (Exception e) {
+            // storeBooking has given the seat back
+            hold.setStatus("RELEASED");
+            throw e;
+        }
+    }
+
+    // End a hold and give its seat back; caller has exclusive access to the bus
+    private CompletableFuture<SeatHold> applyRelease(Bus bus, TimingWheel.Timeout<SeatHold> timeout, String status)
+            throws Exception {
+        SeatHold hold = timeout.getItem();
+        if (!hold.isHeld()) {
+            throw new Exception("Hold not found or expired: " + hold.getHoldId());
+        }
+        holdWheel.cancel(timeout);
+        holds.remove(hold.getHoldId());
+        hold.setStatus(status);
+        return releaseSeat(bus, hold.getSeatNo()).thenApply(v -> hold);
+    }
+
+    // Called by the hold timer; the hold may have been confirmed or released meanwhile
+    private void expireHold(SeatHold hold) {
+        TimingWheel.Timeout<SeatHold> timeout = holds.get(hold.getHoldId());
+        Bus bus = busRepository.findByNumber(hold.getBusNo());
+        if (timeout != null && bus != null && hold.isHeld()) {
+            mutate(bus, () -> applyRelease(bus, timeout, "EXPIRED"));
+        }
+    }
+
+    private TimingWheel.Timeout<SeatHold> findHold(String holdId) {
+        return holdId == null ? null : holds.get(holdId.trim().toUpperCase(Locale.ROOT));
+    }
+
+    // Cancel a booking and release its seat; caller has exclusive access to the bus
+    private CompletableFuture<Booking> applyCancellation(Bus bus, Booking booking) throws Exception {
+        if (!booking.getStatus().equals("CONFIRMED")) {
+            throw new Exception("Booking not found or already cancelled: " + booking.getBookingId());
+        }
 
-        // Cancel the booking
         booking.cancelBooking();
+        statistics.recordCancellation(booking);
+        CompletableFuture<Booking> cancelled;
+        try {
+            cancelled = bookingRepository.update(booking);
+        } catch (RuntimeException e) {
+            cancelled = CompletableFuture.failedFuture(e);
+        }
+
+        // The seat stays taken until the cancellation is stored. If it is not, the status and
+        // totals go back to matching storage and there is no seat to take back from anyone.
+        cancelled = onWriteFailure(bus, cancelled, () -> {
+            booking.setStatus("CONFIRMED");
+            statistics.undoCancellation(booking);
+        });
+        return whenStored(bus, cancelled, () -> {
+            if (changeEvents.hasSubscribers()) {
+                changeEvents.publish(new ChangeEvent.BookingCancelled(booking));
+            }
+            return releaseSeat(bus, booking.getSeatNo()).thenApply(promoted -> booking);
+        });
+    }
+
+    // Hand a freed seat straight to the head of the waitlist, so it never shows as free
+    // while someone is waiting, or give it back to the bus; caller has exclusive access to the bus
+    private CompletableFuture<Void> releaseSeat(Bus bus, int seatNo) {
+        WaitlistEntry next = waitlist.peek(bus.getBusNo());
+        if (next == null) {
+            bus.cancelSeat(seatNo);
+            return CompletableFuture.completedFuture(null);
+        }
+        Booking promoted = new Booking(promotedBookingId(next), next.getPassenger(), bus.getBusNo(), seatNo,
+                bus.getFarePerSeat());
+        CompletableFuture<Booking> stored;
+        try {
+            stored = storeBooking(bus, promoted, true);
+        } catch (Exception e) {
+            // storeBooking has released the seat; the passenger stays first in line
+            System.err.println("Could not promote " + next.getEntryId() + ": " + e.getMessage());
+            return CompletableFuture.completedFuture(null);
+        }
+        CompletableFuture<Void> dequeued = waitlist.promote(next, promoted.getBookingId(), stored);
+        return CompletableFuture.allOf(stored, dequeued);
+    }
+
+    // The booking a waitlist entry is promoted to shares its ID, so after a crash the
+    // waitlist can tell from the bookings alone whether the promotion was stored
+    private static String promotedBookingId(WaitlistEntry entry) {
+        return BookingIdGenerator.PREFIX + entry.getEntryId().substring(WAITLIST_PREFIX.length());
+    }
+
+    // Queue a passenger for a sold-out bus; they get the next seat that is cancelled
+    public WaitlistEntry joinWaitlist(String busNo, Passenger passenger) throws Exception {
+        Bus bus = getBusByNumber(busNo);
+        return await(mutate(bus, () -> applyJoinWaitlist(bus, passenger)));
+    }
+
+    // Take a passenger off a waitlist before they are promoted
+    public void leaveWaitlist(String entryId) throws Exception {
+        WaitlistEntry entry = waitlist.find(entryId);
+        Bus bus = entry == null ? null : busRepository.findByNumber(entry.getBusNo());
+        if (bus == null) {
+            throw new Exception("Waitlist entry not found or no longer waiting: " + entryId);
+        }
+        await(mutate(bus, () -> {
+            if (!entry.isWaiting()) {
+                throw new Exception("Waitlist entry not found or no longer waiting: " + entryId);
+            }
+            return waitlist.remove(entry).thenApply(v -> entry);
+        }));
+    }
 
-        // Release the seat
-        Bus bus = getBusByNumber(booking.getBusNo());
-        bus.cancelSeat();
+    // Passengers waiting for a bus, first in line first
+    public List<WaitlistEntry> getWaitlist(String busNo) {
+        return waitlist.findByBus(busNo);
+    }
 
-        // Save changes
-        saveData();
+    // Get a waiting entry by ID
+    public WaitlistEntry getWaitlistEntry(String entryId) throws Exception {
+        WaitlistEntry entry = waitlist.find(entryId);
+        if (entry == null) {
+            throw new Exception("Waitlist entry not found or no longer waiting: " + entryId);
+        }
+        return entry;
+    }
+
+    // Add a passenger to the back of the bus's queue; caller has exclusive access to the bus
+    private CompletableFuture<WaitlistEntry> applyJoinWaitlist(Bus bus, Passenger passenger) throws Exception {
+        if (bus.getSeatsAvailable() > 0) {
+            throw new Exception("Seats are still available on this bus; book one instead");
+        }
+        String entryId = WAITLIST_PREFIX
+                + BookingIdGenerator.format(idGenerator.nextId()).substring(WAITLIST_PREFIX.length());
+        WaitlistEntry entry = new WaitlistEntry(entryId, passenger, bus.getBusNo());
+        return waitlist.add(entry).thenApply(v -> entry);
     }
 
     // Get booking by ID
     public Booking getBookingById(String bookingId) throws Exception {
-        return bookings.stream()
-                .filter(b -> b.getBookingId().equals(bookingId))
-                .findFirst()
-                .orElseThrow(() -> new Exception("Booking not found: " + bookingId));
+        Booking booking = bookingRepository.findById(BookingIdGenerator.normalize(bookingId));
+        if (booking == null) {
+            throw new Exception("Booking not found: " + bookingId);
+        }
+        return booking;
     }
 
-    // Get all bookings
+    // Get all bookings made on a bus
+    public List<Booking> getBookingsForBus(String busNo) {
+        return bookingRepository.findByBus(busNo);
+    }
+
+    // Get a passenger's bookings (any status, oldest first) by phone number, in any common format
+    public List<Booking> findBookingsByPhone(String phoneNumber) {
+        return phoneIndex.find(phoneNumber);
+    }
+
+    // Get all bookings (safe to iterate while bookings change). Holds the whole history;
+    // prefer getBookingPage or streamBookings when it may be large.
     public List<Booking> getAllBookings() {
-        return bookings;
+        return bookingRepository.findAll();
+    }
+
+    // First page of bookings in storage order
+    public BookingPage getBookingPage(String afterBookingId, int limit) throws Exception {
+        return getBookingPage(BookingFilter.all(), afterBookingId, limit);
+    }
+
+    // Page of matching bookings after a cursor (null for the first page); pass the page's
+    // next cursor to continue. Only the bookings on the page are materialized.
+    public BookingPage getBookingPage(BookingFilter filter, String afterBookingId, int limit) throws Exception {
+        if (limit <= 0) {
+            throw new Exception("Page size must be positive");
+        }
+        int from = 0;
+        if (afterBookingId != null) {
+            int cursor = bookingRepository.positionOf(BookingIdGenerator.normalize(afterBookingId));
+            if (cursor < 0) {
+                throw new Exception("Unknown page cursor: " + afterBookingId);
+            }
+            from = cursor + 1;
+        }
+
+        int count = bookingRepository.count();
+        List<Booking> page = new ArrayList<>(Math.min(limit, 256));
+        int position = bookingRepository.findNext(filter, from, count);
+        while (position >= 0 && page.size() < limit) {
+            page.add(bookingRepository.get(position));
+            position = bookingRepository.findNext(filter, position + 1, count);
+        }
+        // position now points at the first match after the page, if there is one
+        String nextCursor = position >= 0 ? page.get(page.size() - 1).getBookingId() : null;
+        return new BookingPage(page, nextCursor);
+    }
+
+    // Matching bookings stored when the stream starts, oldest first, read lazily in constant memory
+    public Stream<Booking> streamBookings(BookingFilter filter) {
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterateBookings(filter),
+                Spliterator.ORDERED | Spliterator.NONNULL), false);
+    }
+
+    // Iterator form of streamBookings
+    public Iterator<Booking> iterateBookings(BookingFilter filter) {
+        int count = bookingRepository.count();
+        return new Iterator<Booking>() {
+            private int next = bookingRepository.findNext(filter, 0, count);
+
+            @Override
+            public boolean hasNext() {
+                return next >= 0;
+            }
+
+            @Override
+            public Booking next() {
+                if (next < 0) {
+                    throw new NoSuchElementException();
+                }
+                Booking booking = bookingRepository.get(next);
+                next = bookingRepository.findNext(filter, next + 1, count);
+                return booking;
+            }
+        };
+    }
+
+    // Number of stored bookings (any status); positions below it stay valid
+    public int getBookingCount() {
+        return bookingRepository.count();
+    }
+
+    // Get the booking at a position in storage order (0 is the oldest)
+    public Booking getBookingAt(int position) {
+        return bookingRepository.get(position);
+    }
+
+    // First position in [from, to) whose booking matches the filter, or -1. The filter is
+    // applied inside the repository, so skipped bookings are never materialized.
+    public int findNextBooking(BookingFilter filter, int from, int to) {
+        return bookingRepository.findNext(filter, from, to);
+    }
+
+    // Position of a booking in storage order, or -1 if unknown
+    public int getBookingPosition(String bookingId) {
+        return bookingRepository.positionOf(BookingIdGenerator.normalize(bookingId));
+    }
+
+    // Live BookingCreated, BookingCancelled and SeatsChanged events, published as changes are made
+    public ChangeEventBus getChangeEvents() {
+        return changeEvents;
+    }
+
+    // Running revenue and occupancy totals (per bus, per route and overall)
+    public BookingStatistics getStatistics() {
+        return statistics;
     }
 
     // Get active bookings
     public List<Booking> getActiveBookings() {
-        return bookings.stream()
-                .filter(b -> b.getStatus().equals("CONFIRMED"))
+        return streamBookings(BookingFilter.all().withStatus("CONFIRMED"))
                 .collect(Collectors.toList());
     }
 
-    // Generate unique booking ID
-    private String generateBookingId() {
-        String id;
-        do {
-            id = "BK" + System.currentTimeMillis() + random.nextInt(1000);
-        } while (bookingExists(id));
-        return id;
+    // A bus sold its last seat or got one back; runs while the bus is still owned
+    private void availabilityChanged(Bus bus, boolean hasSeats) {
+        routeIndex.availabilityChanged(bus, hasSeats);
+        journeyPlanner.availabilityChanged(bus, hasSeats);
+    }
+
+    // Mark the seats of all confirmed bookings as taken and restore the revenue totals, in one
+    // pass over just the fields they need (the mapped store reads them from its records).
+    // The phone index is built on first use instead.
+    private void restoreFromBookings() throws IOException {
+        List<Bus> fleet = busRepository.findAll();
+        for (Bus bus : fleet) {
+            bus.clearSeats();
+        }
+        statistics.reset(fleet);
+
+        List<Integer> duplicates = new ArrayList<>();
+        bookingRepository.scanSeats((position, busNo, seatNo, fare, status) -> {
+            statistics.restore(busNo, fare, status);
+            if (status.equals("CONFIRMED")) {
+                Bus bus = busRepository.findByNumber(busNo);
+                if (bus != null && !bus.bookSeat(seatNo)) {
+                    duplicates.add(position);
+                }
+            }
+        });
+
+        // Older data could hand out a seat twice; move the later booking to a free seat and store the move
+        for (int position : duplicates) {
+            Booking booking = bookingRepository.get(position);
+            Bus bus = busRepository.findByNumber(booking.getBusNo());
+            int seatNo = bus.bookSeat();
+            if (seatNo < 0) {
+                System.err.println("No seat left for booking " + booking.getBookingId() + " on " + bus.getBusNo());
+                continue;
+            }
+            System.err.println("Moved booking " + booking.getBookingId() + " from duplicate seat "
+                    + booking.getSeatNo() + " to seat " + seatNo);
+            try {
+                bookingRepository.moveSeat(booking, seatNo).join();
+            } catch (CompletionException e) {
+                throw new IOException("Could not store the seat move of " + booking.getBookingId(), e.getCause());
+            }
+        }
+    }
+
+    // Wait for an async operation, rethrowing its original failure
+    private static <T> T await(CompletableFuture<T> future) throws Exception {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof Exception) {
+                throw (Exception) cause;
+            }
+            throw e;
+        }
     }
 
-    // Check if booking ID exists
-    private boolean bookingExists(String bookingId) {
-        return bookings.stream().anyMatch(b -> b.getBookingId().equals(bookingId));
+    // Drain queued commands, flush pending writes and release the storage files, stop the
+    // hold timer and drop the shutdown hook. Only the first call does this; later ones wait for it.
+    public void close() throws IOException {
+        synchronized (closeLock) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            if (Thread.currentThread() != shutdownHook) {
+                try {
+                    Runtime.getRuntime().removeShutdownHook(shutdownHook);
+                } catch (IllegalStateException e) {
+                    // The JVM is already shutting down; the hook will find the service closed
+                }
+            }
+            holdWheel.close();
+            if (eventLoop != null) {
+                eventLoop.close();
+            }
+            bookingRepository.close();
+            // The last writes have completed; let their follow-ups (promotions included) finish
+            writeCallbacks.shutdown();
+            try {
+                writeCallbacks.awaitTermination(1, TimeUnit.MINUTES);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            waitlist.close();
+            busRepository.save();
+        }
+    }
+
+    /**
+     * A state change that must run with exclusive access to one bus.
+     */
+    private interface Mutation<T> {
+        CompletableFuture<T> apply() throws Exception;
     }
 
-    // Save data to files
-    private void saveData() throws IOException {
-        fileService.saveBuses(buses);
-        fileService.saveBookings(bookings);
+    private void closeQuietly() {
+        try {
+            close();
+        } catch (IOException e) {
+            System.err.println("Error closing storage: " + e.getMessage());
+        }
     }
 }
\ No newline at end of file
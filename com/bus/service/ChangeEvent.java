@@ -0,0 +1,90 @@
+package com.bus.service;
+
+import com.bus.model.Booking;
+
+/**
+ * ChangeEvent Class
+ * Something that changed in BusService, as delivered by ChangeEventBus.
+ * Events for one bus are published in the order the changes were made.
+ */
+public abstract class ChangeEvent {
+    private final String busNo;
+
+    ChangeEvent(String busNo) {
+        this.busNo = busNo;
+    }
+
+    // Bus the change was made on
+    public String getBusNo() {
+        return busNo;
+    }
+
+    /**
+     * A booking was stored (including a waitlisted passenger's promotion)
+     */
+    public static final class BookingCreated extends ChangeEvent {
+        private final Booking booking;
+
+        BookingCreated(Booking booking) {
+            super(booking.getBusNo());
+            this.booking = booking;
+        }
+
+        public Booking getBooking() {
+            return booking;
+        }
+
+        @Override
+        public String toString() {
+            return "BookingCreated " + booking.getBookingId() + " on " + getBusNo();
+        }
+    }
+
+    /**
+     * A confirmed booking was cancelled
+     */
+    public static final class BookingCancelled extends ChangeEvent {
+        private final Booking booking;
+
+        BookingCancelled(Booking booking) {
+            super(booking.getBusNo());
+            this.booking = booking;
+        }
+
+        public Booking getBooking() {
+            return booking;
+        }
+
+        @Override
+        public String toString() {
+            return "BookingCancelled " + booking.getBookingId() + " on " + getBusNo();
+        }
+    }
+
+    /**
+     * A bus's free seat count changed, or the bus was added; carries the count after the change
+     */
+    public static final class SeatsChanged extends ChangeEvent {
+        private final int seatsAvailable;
+        private final int totalSeats;
+
+        SeatsChanged(String busNo, int seatsAvailable, int totalSeats) {
+            super(busNo);
+            this.seatsAvailable = seatsAvailable;
+            this.totalSeats = totalSeats;
+        }
+
+        public int getSeatsAvailable() {
+            return seatsAvailable;
+        }
+
+        public int getTotalSeats() {
+            return totalSeats;
+        }
+
+        @Override
+        public String toString() {
+            return "SeatsChanged " + getBusNo() + " " + seatsAvailable + "/" + totalSeats;
+        }
+    }
+}
\ No newline at end of file
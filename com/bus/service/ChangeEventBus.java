@@ -0,0 +1,119 @@
+package com.bus.service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+
+/**
+ * ChangeEventBus Class
+ * In-process publish/subscribe for ChangeEvents. Publishing appends the
+ * event to each subscriber's pending batch under a short lock and schedules
+ * a delivery on the subscriber's executor only if none is queued yet.
+ * Events published before that delivery runs join the same batch, and
+ * repeated SeatsChanged events for a bus collapse into the latest one, which
+ * takes its place at the end of the batch so it never comes ahead of events
+ * published before it. A slow subscriber gets fewer, larger batches rather
+ * than a growing backlog, and never holds up the thread that made the change.
+ */
+public class ChangeEventBus {
+    private final List<Subscription> subscriptions;
+
+    /**
+     * Receives batches of events, oldest first, on the executor it subscribed with
+     */
+    public interface Listener {
+        void onEvents(List<ChangeEvent> batch);
+    }
+
+    public ChangeEventBus() {
+        this.subscriptions = new CopyOnWriteArrayList<>();
+    }
+
+    // Whether anyone is listening; publishers check this before building an event
+    public boolean hasSubscribers() {
+        return !subscriptions.isEmpty();
+    }
+
+    // Deliver batches to a listener on an executor (e.g. SwingUtilities::invokeLater)
+    public Subscription subscribe(Executor executor, Listener listener) {
+        Subscription subscription = new Subscription(executor, listener);
+        subscriptions.add(subscription);
+        return subscription;
+    }
+
+    // Queue an event for every subscriber
+    public void publish(ChangeEvent event) {
+        for (Subscription subscription : subscriptions) {
+            subscription.offer(event);
+        }
+    }
+
+    /**
+     * One listener's pending batch; at most one delivery is queued on its executor at a time
+     */
+    public class Subscription implements AutoCloseable {
+        private final Executor executor;
+        private final Listener listener;
+        private List<ChangeEvent> pending;
+        // Index in pending of the SeatsChanged event for each bus; a replaced one leaves a null
+        private Map<String, Integer> seatEvents;
+        private boolean scheduled;
+        private volatile boolean closed;
+
+        Subscription(Executor executor, Listener listener) {
+            this.executor = executor;
+            this.listener = listener;
+            this.pending = new ArrayList<>();
+            this.seatEvents = new HashMap<>();
+        }
+
+        private void offer(ChangeEvent event) {
+            synchronized (this) {
+                if (event instanceof ChangeEvent.SeatsChanged) {
+                    String key = event.getBusNo().toUpperCase(Locale.ROOT);
+                    Integer index = seatEvents.put(key, pending.size());
+                    if (index != null) {
+                        pending.set(index, null);
+                    }
+                }
+                pending.add(event);
+                if (scheduled) {
+                    return;
+                }
+                scheduled = true;
+            }
+            executor.execute(this::deliver);
+        }
+
+        private void deliver() {
+            List<ChangeEvent> batch;
+            synchronized (this) {
+                batch = pending;
+                pending = new ArrayList<>();
+                seatEvents.clear();
+                scheduled = false;
+            }
+            batch.removeIf(Objects::isNull);
+            if (closed || batch.isEmpty()) {
+                return;
+            }
+            try {
+                listener.onEvents(batch);
+            } catch (RuntimeException e) {
+                System.err.println("Change listener failed: " + e.getMessage());
+            }
+        }
+
+        // Stop deliveries; a batch already being delivered still completes
+        @Override
+        public void close() {
+            closed = true;
+            subscriptions.remove(this);
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,271 @@
+package com.bus.service;
+
+import com.bus.model.Bus;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * CityDirectory Class
+ * Dictionary of the city names served by the fleet, for autocomplete and for
+ * turning typed-in names into the spelling the buses use. Names live in a
+ * prefix trie stored as parallel primitive arrays (label, first child, next
+ * sibling), keyed case-insensitively; typos are matched by walking the trie
+ * with one banded edit-distance row per depth (a swap of neighbouring letters
+ * counts as one edit) and pruning branches already over the distance bound.
+ * Cities are added incrementally as buses are added.
+ */
+public class CityDirectory {
+    private static final int ROOT = 0;
+    private static final int NONE = -1;
+    // Shorter prefixes are too likely to be a different city begun, so they are never completed
+    private static final int MIN_PREFIX_LENGTH = 3;
+
+    // Trie nodes; children of a node are a sibling list sorted by label
+    private char[] label;
+    private int[] firstChild;
+    private int[] nextSibling;
+    private int[] cityAt;
+    private int nodeCount;
+
+    // Canonical spellings, indexed by cityAt
+    private List<String> cities;
+
+    public CityDirectory() {
+        this.label = new char[64];
+        this.firstChild = new int[64];
+        this.nextSibling = new int[64];
+        this.cityAt = new int[64];
+        this.cities = new ArrayList<>();
+        newNode('\0');
+    }
+
+    // Add the cities of a bus's route
+    public synchronized void addBus(Bus bus) {
+        addCity(bus.getSource());
+        addCity(bus.getDestination());
+    }
+
+    // Add a city; the first spelling seen becomes the canonical one
+    public synchronized void addCity(String city) {
+        String key = normalize(city);
+        if (key.isEmpty()) {
+            return;
+        }
+        int node = ROOT;
+        for (int i = 0; i < key.length(); i++) {
+            node = childFor(node, key.charAt(i), true);
+        }
+        if (cityAt[node] == NONE) {
+            cityAt[node] = cities.size();
+            cities.add(city.trim());
+        }
+    }
+
+    // Number of known cities
+    public synchronized int size() {
+        return cities.size();
+    }
+
+    // Cities starting with the typed prefix, alphabetically, at most limit of them
+    public synchronized List<String> suggest(String prefix, int limit) {
+        List<String> matches = new ArrayList<>();
+        int node = find(normalize(prefix));
+        if (node != NONE) {
+            collect(node, matches, limit);
+        }
+        return matches;
+    }
+
+    // Likely typos of the name: longer names may be further off
+    public List<String> findSimilar(String name) {
+        return findSimilar(name, typoBound(normalize(name)));
+    }
+
+    // Cities within an edit distance (adjacent swaps count as one edit) of the typed name, closest first
+    public synchronized List<String> findSimilar(String name, int maxDistance) {
+        String key = normalize(name);
+        List<int[]> hits = new ArrayList<>();
+        // One distance row per trie depth, reused across branches
+        int[][] rows = new int[key.length() + maxDistance + 2][key.length() + 1];
+        char[] path = new char[rows.length];
+        for (int i = 0; i <= key.length(); i++) {
+            rows[0][i] = Math.min(i, maxDistance + 1);
+        }
+        for (int child = firstChild[ROOT]; child != NONE; child = nextSibling[child]) {
+            searchSimilar(child, 1, key, rows, path, maxDistance, hits);
+        }
+
+        hits.sort((a, b) -> a[1] != b[1] ? Integer.compare(a[1], b[1]) : cities.get(a[0]).compareTo(cities.get(b[0])));
+        List<String> similar = new ArrayList<>(hits.size());
+        for (int[] hit : hits) {
+            similar.add(cities.get(hit[0]));
+        }
+        return similar;
+    }
+
+    // The canonical spelling for a typed name: exact match, else the only city it
+    // is a prefix of (for prefixes of at least three letters), else the single
+    // closest city within a small edit distance. Input that matches none of these
+    // is returned trimmed but otherwise unchanged, for callers to offer suggestions.
+    public synchronized String canonicalize(String name) {
+        if (name == null) {
+            return null;
+        }
+        String key = normalize(name);
+        int node = find(key);
+        if (node != NONE && cityAt[node] != NONE) {
+            return cities.get(cityAt[node]);
+        }
+
+        if (key.length() >= MIN_PREFIX_LENGTH) {
+            List<String> completions = suggest(key, 2);
+            if (completions.size() == 1) {
+                return completions.get(0);
+            }
+        }
+
+        int maxDistance = typoBound(key);
+        if (maxDistance > 0) {
+            List<String> similar = findSimilar(key, maxDistance);
+            if (similar.size() == 1
+                    || (similar.size() > 1 && distance(key, similar.get(0)) < distance(key, similar.get(1)))) {
+                return similar.get(0);
+            }
+        }
+        return name.trim();
+    }
+
+    private void searchSimilar(int node, int depth, String key, int[][] rows, char[] path, int maxDistance,
+                               List<int[]> hits) {
+        char c = label[node];
+        path[depth] = c;
+        int[] parentRow = rows[depth - 1];
+        int[] row = rows[depth];
+        // Only cells within maxDistance of the diagonal can stay under the bound;
+        // everything else is pinned at maxDistance + 1
+        int over = maxDistance + 1;
+        int from = Math.max(1, depth - maxDistance);
+        int to = Math.min(row.length - 1, depth + maxDistance);
+        row[0] = Math.min(depth, over);
+        if (from > 1) {
+            row[from - 1] = over;
+        }
+        int best = row[0];
+        for (int i = from; i <= to; i++) {
+            char k = key.charAt(i - 1);
+            int cell = Math.min(parentRow[i - 1] + (k == c ? 0 : 1), Math.min(row[i - 1] + 1, parentRow[i] + 1));
+            if (i > 1 && depth > 1 && k == path[depth - 1] && key.charAt(i - 2) == c) {
+                cell = Math.min(cell, rows[depth - 2][i - 2] + 1);
+            }
+            row[i] = Math.min(cell, over);
+            best = Math.min(best, row[i]);
+        }
+        if (to + 1 < row.length) {
+            row[to + 1] = over;
+        }
+
+        int edits = to == row.length - 1 ? row[to] : over;
+        if (cityAt[node] != NONE && edits <= maxDistance) {
+            hits.add(new int[] {cityAt[node], edits});
+        }
+        // No longer word down this branch can get back under the bound
+        if (best > maxDistance || depth + 1 == rows.length) {
+            return;
+        }
+        for (int child = firstChild[node]; child != NONE; child = nextSibling[child]) {
+            searchSimilar(child, depth + 1, key, rows, path, maxDistance, hits);
+        }
+    }
+
+    private void collect(int node, List<String> matches, int limit) {
+        if (matches.size() >= limit) {
+            return;
+        }
+        if (cityAt[node] != NONE) {
+            matches.add(cities.get(cityAt[node]));
+        }
+        for (int child = firstChild[node]; child != NONE && matches.size() < limit; child = nextSibling[child]) {
+            collect(child, matches, limit);
+        }
+    }
+
+    private int find(String key) {
+        int node = ROOT;
+        for (int i = 0; i < key.length() && node != NONE; i++) {
+            node = childFor(node, key.charAt(i), false);
+        }
+        return node;
+    }
+
+    // Find (or insert, keeping siblings sorted) the child of node with the given label
+    private int childFor(int node, char c, boolean create) {
+        int previous = NONE;
+        int child = firstChild[node];
+        while (child != NONE && label[child] < c) {
+            previous = child;
+            child = nextSibling[child];
+        }
+        if (child != NONE && label[child] == c) {
+            return child;
+        }
+        if (!create) {
+            return NONE;
+        }
+
+        int added = newNode(c);
+        nextSibling[added] = child;
+        if (previous == NONE) {
+            firstChild[node] = added;
+        } else {
+            nextSibling[previous] = added;
+        }
+        return added;
+    }
+
+    private int newNode(char c) {
+        if (nodeCount == label.length) {
+            int capacity = nodeCount * 2;
+            label = Arrays.copyOf(label, capacity);
+            firstChild = Arrays.copyOf(firstChild, capacity);
+            nextSibling = Arrays.copyOf(nextSibling, capacity);
+            cityAt = Arrays.copyOf(cityAt, capacity);
+        }
+        label[nodeCount] = c;
+        firstChild[nodeCount] = NONE;
+        nextSibling[nodeCount] = NONE;
+        cityAt[nodeCount] = NONE;
+        return nodeCount++;
+    }
+
+    private static int typoBound(String key) {
+        return key.length() <= 3 ? 0 : key.length() <= 6 ? 1 : 2;
+    }
+
+    private static int distance(String key, String city) {
+        String other = normalize(city);
+        int[][] d = new int[key.length() + 1][other.length() + 1];
+        for (int i = 0; i <= key.length(); i++) {
+            d[i][0] = i;
+        }
+        for (int j = 0; j <= other.length(); j++) {
+            d[0][j] = j;
+        }
+        for (int i = 1; i <= key.length(); i++) {
+            for (int j = 1; j <= other.length(); j++) {
+                char k = key.charAt(i - 1);
+                char c = other.charAt(j - 1);
+                d[i][j] = Math.min(d[i - 1][j - 1] + (k == c ? 0 : 1), Math.min(d[i][j - 1] + 1, d[i - 1][j] + 1));
+                if (i > 1 && j > 1 && k == other.charAt(j - 2) && key.charAt(i - 2) == c) {
+                    d[i][j] = Math.min(d[i][j], d[i - 2][j - 2] + 1);
+                }
+            }
+        }
+        return d[key.length()][other.length()];
+    }
+
+    private static String normalize(String name) {
+        return name == null ? "" : RouteIndex.normalizeCity(name);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,70 @@
+package com.bus.service;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * CommandRing Class
+ * Bounded lock-free ring buffer with many producers and a single consumer.
+ * Each slot carries a sequence number: producers claim a position with one CAS
+ * and publish by advancing the slot's sequence; the consumer never contends.
+ */
+public class CommandRing {
+    private final Runnable[] slots;
+    private final AtomicLongArray sequences;
+    private final int mask;
+    private final AtomicLong tail;
+    private long head;
+
+    public CommandRing(int capacity) {
+        int size = Integer.highestOneBit(Math.max(2, capacity) - 1) << 1;
+        this.slots = new Runnable[size];
+        this.sequences = new AtomicLongArray(size);
+        this.mask = size - 1;
+        this.tail = new AtomicLong();
+        for (int i = 0; i < size; i++) {
+            sequences.set(i, i);
+        }
+    }
+
+    // Publish a command; false if the ring is full (safe from any thread)
+    public boolean offer(Runnable command) {
+        long position = tail.get();
+        while (true) {
+            int index = (int) position & mask;
+            long sequence = sequences.get(index);
+            long difference = sequence - position;
+
+            if (difference == 0) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    slots[index] = command;
+                    sequences.set(index, position + 1);
+                    return true;
+                }
+                position = tail.get();
+            } else if (difference < 0) {
+                return false;
+            } else {
+                position = tail.get();
+            }
+        }
+    }
+
+    // Take the next command, or null if none is published (consumer thread only)
+    public Runnable poll() {
+        int index = (int) head & mask;
+        if (sequences.get(index) != head + 1) {
+            return null;
+        }
+        Runnable command = slots[index];
+        slots[index] = null;
+        sequences.set(index, head + slots.length);
+        head++;
+        return command;
+    }
+
+    // Check if no published command is waiting (consumer thread only)
+    public boolean isEmpty() {
+        return sequences.get((int) head & mask) != head + 1;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,170 @@
+package com.bus.service;
+
+import com.bus.model.Booking;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * CsvBookingRepository Class
+ * Bookings stored as a bookings.csv snapshot plus a journal of changes made
+ * since. The journal is folded into a fresh snapshot once it is as long as the
+ * snapshot. A read/write lock keeps compaction from seeing a half-recorded
+ * change, but is held only to copy the booking list and to trim the journal;
+ * the snapshot itself is written while bookings go on.
+ */
+public class CsvBookingRepository extends InMemoryBookingRepository {
+    private FileService fileService;
+    private JournalService journalService;
+    private ReadWriteLock stateLock;
+    private ExecutorService compactionExecutor;
+    private AtomicBoolean compactionScheduled;
+
+    public CsvBookingRepository(FileService fileService, DurabilityMode durabilityMode) {
+        this.fileService = fileService;
+        this.journalService = new JournalService(fileService, durabilityMode);
+        this.stateLock = new ReentrantReadWriteLock();
+        this.compactionScheduled = new AtomicBoolean();
+        this.compactionExecutor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "journal-compaction");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    // Load the snapshot, then replay the journal on top of it
+    @Override
+    public void open() throws IOException {
+        fileService.initializeFiles();
+        List<Booking> snapshot = fileService.loadBookings();
+        for (Booking booking : snapshot) {
+            restore(booking);
+        }
+        journalService.setSnapshotSize(snapshot.size());
+        int journaled = replay(journalService);
+        journalService.open();
+
+        // Start from a clean journal so nothing is appended after a torn entry
+        if (journaled > 0) {
+            journalService.compact(findAll());
+        }
+    }
+
+    @Override
+    public CompletableFuture<Booking> add(Booking booking) throws IOException {
+        stateLock.readLock().lock();
+        try {
+            super.add(booking);
+            return journalService.recordBooking(booking)
+                    .thenApply(v -> booking)
+                    .whenComplete((b, error) -> scheduleCompactionIfNeeded());
+        } finally {
+            stateLock.readLock().unlock();
+        }
+    }
+
+    // The group is journaled as a single entry
+    @Override
+    public CompletableFuture<List<Booking>> addAll(List<Booking> group) throws IOException {
+        stateLock.readLock().lock();
+        try {
+            super.addAll(group);
+            return journalService.recordBookings(group)
+                    .thenApply(v -> group)
+                    .whenComplete((b, error) -> scheduleCompactionIfNeeded());
+        } finally {
+            stateLock.readLock().unlock();
+        }
+    }
+
+    // Only cancellations and discards are journaled; any other status change is kept by the next snapshot
+    @Override
+    public CompletableFuture<Booking> update(Booking booking) {
+        boolean discarded = isDiscarded(booking);
+        if (!discarded && !booking.getStatus().equals("CANCELLED")) {
+            return CompletableFuture.completedFuture(booking);
+        }
+        stateLock.readLock().lock();
+        try {
+            return (discarded ? journalService.recordDiscard(booking) : journalService.recordCancellation(booking))
+                    .thenApply(v -> booking)
+                    .whenComplete((b, error) -> scheduleCompactionIfNeeded());
+        } finally {
+            stateLock.readLock().unlock();
+        }
+    }
+
+    // Seat moves are journaled; the next snapshot carries the new seat
+    @Override
+    public CompletableFuture<Booking> moveSeat(Booking booking, int seatNo) {
+        stateLock.readLock().lock();
+        try {
+            super.moveSeat(booking, seatNo);
+            return journalService.recordSeatMove(booking)
+                    .thenApply(v -> booking)
+                    .whenComplete((b, error) -> scheduleCompactionIfNeeded());
+        } finally {
+            stateLock.readLock().unlock();
+        }
+    }
+
+    // Drain any running compaction, flush pending journal writes and release the journal file
+    @Override
+    public void close() throws IOException {
+        compactionExecutor.shutdown();
+        try {
+            compactionExecutor.awaitTermination(1, TimeUnit.MINUTES);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        journalService.close();
+    }
+
+    // Fold the journal into a fresh snapshot once it has grown to the snapshot's size.
+    // Runs on its own thread: write futures complete on the journal writer,
+    // which compaction itself has to wait for.
+    private void scheduleCompactionIfNeeded() {
+        if (journalService.needsCompaction() && compactionScheduled.compareAndSet(false, true)) {
+            compactionExecutor.execute(() -> {
+                try {
+                    compact();
+                } catch (IOException e) {
+                    System.err.println("Error compacting journal: " + e.getMessage());
+                } finally {
+                    compactionScheduled.set(false);
+                }
+            });
+        }
+    }
+
+    // Copy the booking list under the lock, write the snapshot outside it, and take the lock
+    // again only to drop the journal entries the snapshot covers
+    private void compact() throws IOException {
+        JournalService.Snapshot snapshot;
+        stateLock.writeLock().lock();
+        try {
+            if (!journalService.needsCompaction()) {
+                return;
+            }
+            snapshot = journalService.beginSnapshot(findAll());
+        } finally {
+            stateLock.writeLock().unlock();
+        }
+
+        journalService.writeSnapshot(snapshot);
+
+        stateLock.writeLock().lock();
+        try {
+            journalService.endSnapshot(snapshot);
+        } finally {
+            stateLock.writeLock().unlock();
+        }
+    }
+}
\ No newline at end of file
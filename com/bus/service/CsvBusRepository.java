@@ -0,0 +1,26 @@
+package com.bus.service;
+
+import java.io.IOException;
+
+/**
+ * CsvBusRepository Class
+ * Fleet stored in buses.csv through FileService
+ */
+public class CsvBusRepository extends InMemoryBusRepository {
+    private FileService fileService;
+
+    public CsvBusRepository(FileService fileService) {
+        this.fileService = fileService;
+    }
+
+    @Override
+    public void load() throws IOException {
+        fileService.initializeFiles();
+        replaceAll(fileService.loadBuses());
+    }
+
+    @Override
+    public void save() throws IOException {
+        fileService.saveBuses(findAll());
+    }
+}
\ No newline at end of file
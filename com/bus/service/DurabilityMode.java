@@ -0,0 +1,27 @@
+package com.bus.service;
+
+/**
+ * DurabilityMode Enum
+ * Controls when a journaled mutation is reported as persisted
+ */
+public enum DurabilityMode {
+    // Every entry is written and forced to disk on its own
+    FSYNC,
+    // Entries queued while the previous force runs (plus an optional window) share one write and one force
+    GROUP_COMMIT,
+    // Entries are acknowledged immediately and written behind without forcing
+    ASYNC;
+
+    // Resolve a mode name, falling back to the default for unknown values
+    public static DurabilityMode parse(String name, DurabilityMode defaultMode) {
+        if (name == null || name.trim().isEmpty()) {
+            return defaultMode;
+        }
+        try {
+            return valueOf(name.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            System.err.println("Unknown durability mode '" + name + "', using " + defaultMode);
+            return defaultMode;
+        }
+    }
+}
\ No newline at end of file
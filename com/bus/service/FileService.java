@@ -2,10 +2,20 @@ package com.bus.service;
 
 import com.bus.model.Bus;
 import com.bus.model.Booking;
+import com.bus.util.CsvReader;
 
 import java.io.*;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Function;
 
 /**
  * FileService Class
@@ -14,18 +24,34 @@ import java.util.List;
 public class FileService {
     private static final String BUSES_FILE = "buses.csv";
     private static final String BOOKINGS_FILE = "bookings.csv";
+    public static final String JOURNAL_FILE = "bookings.journal";
+    public static final String WAITLIST_FILE = "waitlist.journal";
+
+    private Path directory;
+    private String busesFile;
+    private String bookingsFile;
+
+    public FileService() {
+        this(".");
+    }
+
+    // Keep the data files in another directory than the working directory
+    public FileService(String directory) {
+        this.directory = Paths.get(directory);
+        this.busesFile = resolve(BUSES_FILE);
+        this.bookingsFile = resolve(BOOKINGS_FILE);
+    }
 
     // Initialize CSV files if they don't exist
     public void initializeFiles() {
         try {
-            File busesFile = new File(BUSES_FILE);
-            if (!busesFile.exists()) {
+            if (!new File(busesFile).exists()) {
                 createBusesFile();
             }
 
-            File bookingsFile = new File(BOOKINGS_FILE);
-            if (!bookingsFile.exists()) {
-                bookingsFile.createNewFile();
+            File file = new File(bookingsFile);
+            if (!file.exists()) {
+                file.createNewFile();
             }
         } catch (IOException e) {
             System.err.println("Error initializing files: " + e.getMessage());
@@ -34,7 +60,7 @@ public class FileService {
 
     // Create buses.csv with sample data
     private void createBusesFile() throws IOException {
-        try (BufferedWriter writer = new BufferedWriter(new FileWriter(BUSES_FILE))) {
+        try (BufferedWriter writer = new BufferedWriter(new FileWriter(busesFile))) {
             // Sample bus data
             writer.write("BUS101,Delhi,Mumbai,40,40,1200.00\n");
             writer.write("BUS102,Mumbai,Bangalore,35,35,1500.00\n");
@@ -47,18 +73,15 @@ public class FileService {
     // Load all buses from CSV
     public List<Bus> loadBuses() throws IOException {
         List<Bus> buses = new ArrayList<>();
-        File file = new File(BUSES_FILE);
+        File file = new File(busesFile);
 
         if (!file.exists()) {
             return buses;
         }
 
-        try (BufferedReader reader = new BufferedReader(new FileReader(BUSES_FILE))) {
-            String line;
-            while ((line = reader.readLine()) != null) {
-                if (!line.trim().isEmpty()) {
-                    buses.add(Bus.fromCSV(line));
-                }
+        try (CsvReader csv = new CsvReader(new FileReader(busesFile))) {
+            while (csv.nextRecord()) {
+                buses.add(Bus.fromCSV(csv));
             }
         }
         return buses;
@@ -66,49 +89,138 @@ public class FileService {
 
     // Save all buses to CSV
     public void saveBuses(List<Bus> buses) throws IOException {
-        try (BufferedWriter writer = new BufferedWriter(new FileWriter(BUSES_FILE))) {
-            for (Bus bus : buses) {
-                writer.write(bus.toCSV());
-                writer.newLine();
-            }
-        }
+        writeCsv(buses, Bus::toCSV, busesFile);
     }
 
     // Load all bookings from CSV
     public List<Booking> loadBookings() throws IOException {
         List<Booking> bookings = new ArrayList<>();
-        File file = new File(BOOKINGS_FILE);
+        File file = new File(bookingsFile);
 
         if (!file.exists()) {
             return bookings;
         }
 
-        try (BufferedReader reader = new BufferedReader(new FileReader(BOOKINGS_FILE))) {
-            String line;
-            while ((line = reader.readLine()) != null) {
-                if (!line.trim().isEmpty()) {
-                    bookings.add(Booking.fromCSV(line));
-                }
+        try (CsvReader csv = new CsvReader(new FileReader(bookingsFile))) {
+            while (csv.nextRecord()) {
+                bookings.add(Booking.fromCSV(csv));
             }
         }
         return bookings;
     }
 
-    // Save all bookings to CSV
+    // Save all bookings to CSV; the new file is on disk when this returns
     public void saveBookings(List<Booking> bookings) throws IOException {
-        try (BufferedWriter writer = new BufferedWriter(new FileWriter(BOOKINGS_FILE))) {
-            for (Booking booking : bookings) {
-                writer.write(booking.toCSV());
-                writer.newLine();
-            }
-        }
+        writeCsv(bookings, Booking::toCSV, bookingsFile);
     }
 
     // Append a single booking to CSV
     public void appendBooking(Booking booking) throws IOException {
-        try (BufferedWriter writer = new BufferedWriter(new FileWriter(BOOKINGS_FILE, true))) {
+        try (BufferedWriter writer = new BufferedWriter(new FileWriter(bookingsFile, true))) {
             writer.write(booking.toCSV());
             writer.newLine();
         }
     }
+
+    // Open the booking journal for appending, creating it if needed
+    public FileChannel openJournalChannel() throws IOException {
+        return openJournalChannel(JOURNAL_FILE);
+    }
+
+    // Open a journal file for appending, creating it if needed
+    public FileChannel openJournalChannel(String fileName) throws IOException {
+        return FileChannel.open(Paths.get(resolve(fileName)),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    }
+
+    // Open the booking journal for record-by-record reading
+    public CsvReader openJournalReader() throws IOException {
+        return openJournalReader(JOURNAL_FILE);
+    }
+
+    // Open a journal file for record-by-record reading; empty if it does not exist yet
+    public CsvReader openJournalReader(String fileName) throws IOException {
+        File file = new File(resolve(fileName));
+
+        if (!file.exists()) {
+            return new CsvReader(new StringReader(""));
+        }
+        return new CsvReader(new FileReader(file));
+    }
+
+    // Durably replace a journal with what follows its first length bytes; entries appended after
+    // those are kept in order. A crash leaves the old journal or the trimmed one.
+    public void trimJournal(String fileName, long length) throws IOException {
+        String tempFileName = fileName + ".tmp";
+        try (FileChannel in = FileChannel.open(getPath(fileName), StandardOpenOption.READ);
+             FileChannel out = FileChannel.open(getPath(tempFileName), StandardOpenOption.CREATE,
+                     StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            long size = in.size();
+            for (long position = length; position < size; ) {
+                position += in.transferTo(position, size - position, out);
+            }
+        }
+        moveIntoPlace(tempFileName, fileName);
+    }
+
+    // Path of a data file inside the data directory
+    public Path getPath(String fileName) {
+        return directory.resolve(fileName);
+    }
+
+    // Check if a data file exists in the data directory
+    public boolean exists(String fileName) {
+        return Files.exists(getPath(fileName));
+    }
+
+    // Atomically and durably replace a data file with a fully written temp file from the same directory
+    public void moveIntoPlace(String tempFileName, String fileName) throws IOException {
+        Path temp = getPath(tempFileName);
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+            channel.force(true);
+        }
+        replaceFile(temp, resolve(fileName));
+    }
+
+    private String resolve(String fileName) {
+        return getPath(fileName).toString();
+    }
+
+    // Write one line per record to a temp file, force it to disk and swap it in,
+    // so a crash leaves either the old file or the complete new one
+    private <T> void writeCsv(List<T> records, Function<T, String> toCsv, String fileName) throws IOException {
+        Path temp = Paths.get(fileName + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            BufferedWriter writer = new BufferedWriter(Channels.newWriter(channel, Charset.defaultCharset()));
+            for (T record : records) {
+                writer.write(toCsv.apply(record));
+                writer.newLine();
+            }
+            writer.flush();
+            channel.force(true);
+        }
+        replaceFile(temp, fileName);
+    }
+
+    // Atomically swap a temp file that is already forced to disk into place, then force the
+    // directory so the rename itself survives a power loss
+    private void replaceFile(Path temp, String fileName) throws IOException {
+        Files.move(temp, Paths.get(fileName),
+                StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        forceDirectory();
+    }
+
+    private void forceDirectory() throws IOException {
+        FileChannel channel;
+        try {
+            channel = FileChannel.open(directory, StandardOpenOption.READ);
+        } catch (IOException e) {
+            // Windows cannot open a directory; there the rename is as durable as the OS makes it
+            return;
+        }
+        try (channel) {
+            channel.force(true);
+        }
+    }
 }
\ No newline at end of file
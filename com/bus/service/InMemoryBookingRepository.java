@@ -0,0 +1,270 @@
+package com.bus.service;
+
+import com.bus.model.Booking;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * InMemoryBookingRepository Class
+ * Keeps bookings in memory only, indexed by ID and by bus.
+ * Also the base for the file-backed repositories that log changes on top.
+ * The storage-order list is guarded by its own monitor, taken once per call,
+ * so a scan does not lock and unlock for every booking it reads.
+ */
+public class InMemoryBookingRepository implements BookingRepository {
+    private IndexService indexService;
+    private List<Booking> bookings;
+    private Map<String, Integer> positions;
+
+    public InMemoryBookingRepository() {
+        this(Collections.emptyList());
+    }
+
+    public InMemoryBookingRepository(List<Booking> bookings) {
+        this.indexService = new IndexService();
+        this.bookings = new ArrayList<>();
+        this.positions = new ConcurrentHashMap<>();
+        for (Booking booking : bookings) {
+            restore(booking);
+        }
+    }
+
+    @Override
+    public void open() throws IOException {
+        // Nothing stored; bookings are whatever was passed in
+    }
+
+    @Override
+    public Booking findById(String bookingId) {
+        Booking booking = indexService.getBooking(bookingId);
+        return booking == null || isDiscarded(booking) ? null : booking;
+    }
+
+    // Read through the bus's position index; only the bus's own bookings are touched
+    @Override
+    public List<Booking> findByBus(String busNo) {
+        PositionList onBus = indexService.getPositionsForBus(busNo);
+        if (onBus == null) {
+            return new ArrayList<>();
+        }
+        synchronized (bookings) {
+            int size = onBus.size();
+            List<Booking> found = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                Booking booking = bookings.get(onBus.get(i));
+                if (!isDiscarded(booking)) {
+                    found.add(booking);
+                }
+            }
+            return found;
+        }
+    }
+
+    @Override
+    public List<Booking> findAll() {
+        synchronized (bookings) {
+            List<Booking> all = new ArrayList<>(bookings.size());
+            for (Booking booking : bookings) {
+                if (!isDiscarded(booking)) {
+                    all.add(booking);
+                }
+            }
+            return all;
+        }
+    }
+
+    @Override
+    public int count() {
+        synchronized (bookings) {
+            return bookings.size();
+        }
+    }
+
+    @Override
+    public Booking get(int position) {
+        synchronized (bookings) {
+            return bookings.get(position);
+        }
+    }
+
+    @Override
+    public String getPhoneNumber(int position) {
+        return get(position).getPassenger().getPhoneNumber();
+    }
+
+    @Override
+    public void scanSeats(SeatVisitor visitor) {
+        synchronized (bookings) {
+            for (int position = 0; position < bookings.size(); position++) {
+                Booking booking = bookings.get(position);
+                visitor.visit(position, booking.getBusNo(), booking.getSeatNo(), booking.getFare(), booking.getStatus());
+            }
+        }
+    }
+
+    @Override
+    public int positionOf(String bookingId) {
+        Integer position = bookingId == null ? null : positions.get(bookingId);
+        return position == null ? -1 : position;
+    }
+
+    // With a bus in the filter only that bus's positions are visited
+    @Override
+    public int findNext(BookingFilter filter, int from, int to) {
+        from = Math.max(from, 0);
+        synchronized (bookings) {
+            int end = Math.min(to, bookings.size());
+            if (filter.getBusNo() == null) {
+                for (int position = from; position < end; position++) {
+                    if (filter.matches(bookings.get(position))) {
+                        return position;
+                    }
+                }
+                return -1;
+            }
+
+            PositionList onBus = indexService.getPositionsForBus(filter.getBusNo());
+            if (onBus == null) {
+                return -1;
+            }
+            int size = onBus.size();
+            for (int i = onBus.lowerBound(from, size); i < size; i++) {
+                int position = onBus.get(i);
+                if (position >= end) {
+                    return -1;
+                }
+                if (filter.matches(bookings.get(position))) {
+                    return position;
+                }
+            }
+            return -1;
+        }
+    }
+
+    @Override
+    public CompletableFuture<Booking> add(Booking booking) throws IOException {
+        if (!indexService.addBooking(booking)) {
+            throw new IllegalStateException("Duplicate booking ID " + booking.getBookingId()
+                    + "; check that every node has its own bus.nodeId");
+        }
+        append(booking);
+        return CompletableFuture.completedFuture(booking);
+    }
+
+    @Override
+    public CompletableFuture<List<Booking>> addAll(List<Booking> group) throws IOException {
+        // Check every ID before indexing any, so a clash stores nothing
+        Set<String> ids = new HashSet<>();
+        for (Booking booking : group) {
+            if (!ids.add(booking.getBookingId()) || indexService.containsBooking(booking.getBookingId())) {
+                throw new IllegalStateException("Duplicate booking ID " + booking.getBookingId()
+                        + "; check that every node has its own bus.nodeId");
+            }
+        }
+        for (Booking booking : group) {
+            indexService.addBooking(booking);
+        }
+        synchronized (bookings) {
+            for (Booking booking : group) {
+                append(booking);
+            }
+        }
+        return CompletableFuture.completedFuture(group);
+    }
+
+    @Override
+    public CompletableFuture<Booking> update(Booking booking) {
+        return CompletableFuture.completedFuture(booking);
+    }
+
+    @Override
+    public CompletableFuture<Booking> moveSeat(Booking booking, int seatNo) {
+        booking.setSeatNo(seatNo);
+        return CompletableFuture.completedFuture(booking);
+    }
+
+    @Override
+    public void close() throws IOException {
+        // Nothing to release
+    }
+
+    // Add a previously stored booking; false if its ID is already present or it was discarded
+    protected boolean restore(Booking booking) {
+        if (isDiscarded(booking) || !indexService.addBooking(booking)) {
+            return false;
+        }
+        append(booking);
+        return true;
+    }
+
+    // Add an indexed booking at the end of the storage order
+    private void append(Booking booking) {
+        synchronized (bookings) {
+            int position = bookings.size();
+            positions.put(booking.getBookingId(), position);
+            indexService.addPosition(booking.getBusNo(), position);
+            bookings.add(booking);
+        }
+    }
+
+    // Apply a previously stored cancellation; unknown IDs are ignored
+    protected void restoreCancellation(String bookingId) {
+        Booking booking = indexService.getBooking(bookingId);
+        if (booking != null) {
+            booking.cancelBooking();
+        }
+    }
+
+    // Apply a previously stored seat move; unknown IDs are ignored
+    protected void restoreSeatMove(String bookingId, int seatNo) {
+        Booking booking = indexService.getBooking(bookingId);
+        if (booking != null) {
+            booking.setSeatNo(seatNo);
+        }
+    }
+
+    // Apply a previously stored discard; the booking stays out of everything but its position
+    protected void restoreDiscard(String bookingId) {
+        Booking booking = indexService.getBooking(bookingId);
+        if (booking != null) {
+            booking.discardBooking();
+        }
+    }
+
+    protected static boolean isDiscarded(Booking booking) {
+        return "DISCARDED".equals(booking.getStatus());
+    }
+
+    // Replay a journal into this repository; returns the number of entries read
+    protected int replay(JournalService journalService) throws IOException {
+        return journalService.replay(new JournalService.ReplayHandler() {
+            @Override
+            public void onBook(Booking booking) {
+                restore(booking);
+            }
+
+            @Override
+            public void onCancel(String bookingId) {
+                restoreCancellation(bookingId);
+            }
+
+            @Override
+            public void onSeatMove(String bookingId, int seatNo) {
+                restoreSeatMove(bookingId, seatNo);
+            }
+
+            @Override
+            public void onDiscard(String bookingId) {
+                restoreDiscard(bookingId);
+            }
+        });
+    }
+}
\ No newline at end of file
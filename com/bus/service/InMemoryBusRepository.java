@@ -0,0 +1,73 @@
+package com.bus.service;
+
+import com.bus.model.Bus;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * InMemoryBusRepository Class
+ * Keeps the fleet in memory only, indexed by bus number
+ */
+public class InMemoryBusRepository implements BusRepository {
+    private volatile List<Bus> buses;
+    private volatile Map<String, Bus> busesByNumber;
+
+    public InMemoryBusRepository() {
+        this(Collections.emptyList());
+    }
+
+    public InMemoryBusRepository(List<Bus> buses) {
+        replaceAll(buses);
+    }
+
+    @Override
+    public void load() throws IOException {
+        // Nothing stored; the fleet is whatever was passed in
+    }
+
+    @Override
+    public List<Bus> findAll() {
+        return buses;
+    }
+
+    @Override
+    public Bus findByNumber(String busNo) {
+        return busNo == null ? null : busesByNumber.get(key(busNo));
+    }
+
+    @Override
+    public synchronized void add(Bus bus) {
+        if (busesByNumber.putIfAbsent(key(bus.getBusNo()), bus) != null) {
+            throw new IllegalStateException("Duplicate bus number: " + bus.getBusNo());
+        }
+        // Copy-on-write so readers iterating the old list are unaffected
+        List<Bus> fleet = new ArrayList<>(buses);
+        fleet.add(bus);
+        buses = Collections.unmodifiableList(fleet);
+    }
+
+    @Override
+    public void save() throws IOException {
+        // Nothing to persist
+    }
+
+    // Swap in a new fleet and index it
+    protected void replaceAll(List<Bus> fleet) {
+        Map<String, Bus> index = new ConcurrentHashMap<>();
+        for (Bus bus : fleet) {
+            index.putIfAbsent(key(bus.getBusNo()), bus);
+        }
+        buses = Collections.unmodifiableList(new ArrayList<>(fleet));
+        busesByNumber = index;
+    }
+
+    private static String key(String busNo) {
+        return busNo.toUpperCase(Locale.ROOT);
+    }
+}
\ No newline at end of file
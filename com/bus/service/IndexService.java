@@ -0,0 +1,69 @@
+package com.bus.service;
+
+import com.bus.model.Booking;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * IndexService Class
+ * Maintains in-memory hash indexes over bookings for constant-time lookups.
+ * Safe for concurrent readers and writers.
+ */
+public class IndexService {
+    private Map<String, Booking> bookingsById;
+    // Storage positions of each bus's bookings, oldest first
+    private Map<String, PositionList> positionsByBus;
+
+    public IndexService() {
+        this.bookingsById = new ConcurrentHashMap<>();
+        this.positionsByBus = new ConcurrentHashMap<>();
+    }
+
+    // Rebuild all indexes from freshly loaded data, stored in list order
+    public void rebuild(List<Booking> bookings) {
+        bookingsById = new ConcurrentHashMap<>(capacityFor(bookings.size()));
+        positionsByBus = new ConcurrentHashMap<>();
+
+        for (int position = 0; position < bookings.size(); position++) {
+            addBooking(bookings.get(position));
+            addPosition(bookings.get(position).getBusNo(), position);
+        }
+    }
+
+    // Index a booking by ID; false if the ID is already taken
+    public boolean addBooking(Booking booking) {
+        return bookingsById.putIfAbsent(booking.getBookingId(), booking) == null;
+    }
+
+    // Index the storage position of a bus's booking; positions must be added in increasing
+    // order, one thread at a time
+    public void addPosition(String busNo, int position) {
+        positionsByBus.computeIfAbsent(key(busNo), k -> new PositionList()).add(position);
+    }
+
+    // Get booking by ID, or null if unknown
+    public Booking getBooking(String bookingId) {
+        return bookingId == null ? null : bookingsById.get(bookingId);
+    }
+
+    // Check if booking ID exists
+    public boolean containsBooking(String bookingId) {
+        return bookingsById.containsKey(bookingId);
+    }
+
+    // Storage positions of a bus's bookings (any status), oldest first; null if it has none
+    public PositionList getPositionsForBus(String busNo) {
+        return busNo == null ? null : positionsByBus.get(key(busNo));
+    }
+
+    private static String key(String busNo) {
+        return busNo.toUpperCase(Locale.ROOT);
+    }
+
+    private static int capacityFor(int size) {
+        return Math.max(16, (int) (size / 0.75f) + 1);
+    }
+}
\ No newline at end of file
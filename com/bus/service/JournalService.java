@@ -0,0 +1,256 @@
+package com.bus.service;
+
+import com.bus.model.Booking;
+import com.bus.util.CsvReader;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * JournalService Class
+ * Write-ahead journal of BOOK/GROUP/CANCEL/SEAT/DISCARD events. Layered over the CSV snapshots
+ * each mutation appends one line and the snapshot is rewritten only on
+ * compaction; on its own the journal is a complete append-only booking log.
+ * Compaction waits until the journal has as many entries as the snapshot has
+ * rows, so each mutation pays for a constant share of the rewrite at any history size.
+ * Appends go through a JournalWriter so concurrent mutations share writes and forces.
+ */
+public class JournalService {
+    private static final String BOOK = "BOOK";
+    private static final String GROUP = "GROUP";
+    private static final String CANCEL = "CANCEL";
+    private static final String SEAT = "SEAT";
+    private static final String DISCARD = "DISCARD";
+    private static final int MIN_COMPACTION_ENTRIES = 1000;
+    private static final int GROUP_COMMIT_MILLIS = Integer.getInteger("bus.groupCommitMillis", 0);
+    private static final int GROUP_COMMIT_SIZE = Integer.getInteger("bus.groupCommitSize", 512);
+
+    private FileService fileService;
+    private DurabilityMode durabilityMode;
+    private String journalFile;
+    private volatile JournalWriter writer;
+    private AtomicInteger entriesSinceSnapshot;
+    // Rows in the snapshot the journal is layered over
+    private volatile int snapshotSize;
+
+    /**
+     * Receives journal events in the order they were recorded.
+     */
+    public interface ReplayHandler {
+        void onBook(Booking booking);
+
+        void onCancel(String bookingId);
+
+        void onSeatMove(String bookingId, int seatNo);
+
+        void onDiscard(String bookingId);
+    }
+
+    public JournalService(FileService fileService, DurabilityMode durabilityMode) {
+        this(fileService, durabilityMode, FileService.JOURNAL_FILE);
+    }
+
+    public JournalService(FileService fileService, DurabilityMode durabilityMode, String journalFile) {
+        this.fileService = fileService;
+        this.durabilityMode = durabilityMode;
+        this.journalFile = journalFile;
+        this.entriesSinceSnapshot = new AtomicInteger();
+    }
+
+    // Open the journal for writing; called once replay has finished
+    public void open() throws IOException {
+        writer = new JournalWriter(fileService.openJournalChannel(journalFile), durabilityMode,
+                GROUP_COMMIT_MILLIS, GROUP_COMMIT_SIZE);
+    }
+
+    public DurabilityMode getDurabilityMode() {
+        return durabilityMode;
+    }
+
+    // Record a new booking
+    public CompletableFuture<Void> recordBooking(Booking booking) {
+        return append(BOOK + "," + booking.toCSV());
+    }
+
+    // Record bookings that must be stored together, as one entry (a torn entry drops them all)
+    public CompletableFuture<Void> recordBookings(List<Booking> bookings) {
+        if (bookings.size() == 1) {
+            return recordBooking(bookings.get(0));
+        }
+        StringBuilder entry = new StringBuilder(GROUP).append(',').append(bookings.size());
+        for (Booking booking : bookings) {
+            entry.append(',').append(booking.toCSV());
+        }
+        return append(entry.toString());
+    }
+
+    // Record a cancellation
+    public CompletableFuture<Void> recordCancellation(Booking booking) {
+        return append(CANCEL + "," + booking.getBookingId());
+    }
+
+    // Record a booking whose write failed, so a snapshot that caught it does not bring it back
+    public CompletableFuture<Void> recordDiscard(Booking booking) {
+        return append(DISCARD + "," + booking.getBookingId());
+    }
+
+    // Record a booking moved to another seat
+    public CompletableFuture<Void> recordSeatMove(Booking booking) {
+        return append(SEAT + "," + booking.getBookingId() + "," + booking.getSeatNo());
+    }
+
+    // Replay all journal entries written since the last snapshot; returns the number of entries read
+    public int replay(ReplayHandler handler) throws IOException {
+        int read = 0;
+        int replayed = 0;
+
+        try (CsvReader csv = fileService.openJournalReader(journalFile)) {
+            while (csv.nextRecord()) {
+                read++;
+                try {
+                    String type = csv.nextString();
+                    if (type.equals(BOOK)) {
+                        handler.onBook(Booking.fromCSV(csv));
+                    } else if (type.equals(GROUP)) {
+                        // Parse the whole group before applying any of it
+                        int size = csv.nextInt();
+                        List<Booking> group = new ArrayList<>(size);
+                        for (int i = 0; i < size; i++) {
+                            group.add(Booking.fromCSV(csv));
+                        }
+                        for (Booking booking : group) {
+                            handler.onBook(booking);
+                        }
+                    } else if (type.equals(CANCEL)) {
+                        handler.onCancel(csv.nextString());
+                    } else if (type.equals(SEAT)) {
+                        handler.onSeatMove(csv.nextString(), csv.nextInt());
+                    } else if (type.equals(DISCARD)) {
+                        handler.onDiscard(csv.nextString());
+                    } else {
+                        throw new IllegalArgumentException("Unknown journal entry type: " + type);
+                    }
+                    replayed++;
+                } catch (RuntimeException e) {
+                    // A torn final write is expected after a crash; nothing after it is trustworthy
+                    System.err.println("Stopping journal replay at malformed entry " + read + ": " + e.getMessage());
+                    break;
+                }
+            }
+        }
+
+        entriesSinceSnapshot.set(replayed);
+        return read;
+    }
+
+    // Entries recorded since the last snapshot; right after replay, the entries that were applied
+    public int getEntriesSinceSnapshot() {
+        return entriesSinceSnapshot.get();
+    }
+
+    // Set the number of rows in the snapshot the journal was replayed over
+    public void setSnapshotSize(int rows) {
+        snapshotSize = rows;
+    }
+
+    // Check if the journal has grown to the size of the snapshot (and past a minimum), so
+    // rewriting the snapshot costs each entry a constant share
+    public boolean needsCompaction() {
+        return entriesSinceSnapshot.get() >= Math.max(MIN_COMPACTION_ENTRIES, snapshotSize);
+    }
+
+    // Write a full snapshot and truncate the journal it now covers. saveBookings has forced the
+    // snapshot and its rename to disk before the truncation, so a crash keeps one or the other.
+    // Callers must ensure no mutations are recorded while this runs.
+    public void compact(List<Booking> bookings) throws IOException {
+        await(writer.flush());
+        fileService.saveBookings(bookings);
+        await(writer.truncate());
+        entriesSinceSnapshot.set(0);
+        snapshotSize = bookings.size();
+    }
+
+    // Start a snapshot of the bookings as they are now: the returned Snapshot completes with
+    // the journal length it covers once every entry recorded so far is written. Callers must
+    // ensure no mutations are recorded while this runs; the snapshot itself is written later,
+    // while mutations go on.
+    public Snapshot beginSnapshot(List<Booking> bookings) {
+        return new Snapshot(bookings, entriesSinceSnapshot.get(), writer.mark());
+    }
+
+    // Write a snapshot begun by beginSnapshot; mutations may be recorded meanwhile
+    public void writeSnapshot(Snapshot snapshot) throws IOException {
+        snapshot.covered = await(snapshot.mark);
+        fileService.saveBookings(snapshot.bookings);
+    }
+
+    // Drop the journal entries a written snapshot covers and keep the ones recorded since.
+    // A crash before the trim replays covered entries over the snapshot, which applies
+    // none of them twice. Callers must ensure no mutations are recorded while this runs.
+    public void endSnapshot(Snapshot snapshot) throws IOException {
+        writer.close();
+        try {
+            fileService.trimJournal(journalFile, snapshot.covered);
+        } finally {
+            open();
+        }
+        entriesSinceSnapshot.addAndGet(-snapshot.entries);
+        snapshotSize = snapshot.bookings.size();
+    }
+
+    // Replace the journal's contents with one BOOK entry per booking (statuses included).
+    // Callers must ensure no mutations are recorded while this runs.
+    public void rewrite(List<Booking> bookings) throws IOException {
+        await(writer.truncate());
+        entriesSinceSnapshot.set(0);
+        for (Booking booking : bookings) {
+            recordBooking(booking);
+        }
+        await(writer.flush());
+    }
+
+    // Flush outstanding entries and close the journal
+    public void close() throws IOException {
+        if (writer != null) {
+            writer.close();
+        }
+    }
+
+    // Block until a journal write reaches its durability level
+    public static <T> T await(CompletableFuture<T> future) throws IOException {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            throw new IOException("Journal write failed", e.getCause());
+        }
+    }
+
+    private CompletableFuture<Void> append(String entry) {
+        entriesSinceSnapshot.incrementAndGet();
+        return writer.append(entry);
+    }
+
+    /**
+     * A snapshot in progress: the bookings as of its start, the journal entries
+     * counted by then and the journal length that covers them
+     */
+    public static class Snapshot {
+        private final List<Booking> bookings;
+        private final int entries;
+        private final CompletableFuture<Long> mark;
+        private long covered;
+
+        Snapshot(List<Booking> bookings, int entries, CompletableFuture<Long> mark) {
+            this.bookings = bookings;
+            this.entries = entries;
+            this.mark = mark;
+        }
+    }
+}
\ No newline at end of file
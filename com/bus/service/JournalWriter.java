@@ -0,0 +1,295 @@
+package com.bus.service;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JournalWriter Class
+ * Background writer that batches journal entries from concurrent callers into
+ * a single write and a single force, according to the configured DurabilityMode.
+ * A write or force that fails is cut back off the file, so the journal holds
+ * exactly the entries whose callers were told they were stored; if even that
+ * fails the writer stops and every later write fails.
+ */
+public class JournalWriter implements Closeable {
+    private static final int ENTRY = 0;
+    private static final int FLUSH = 1;
+    private static final int TRUNCATE = 2;
+    private static final int CLOSE = 3;
+
+    private final FileChannel channel;
+    private final DurabilityMode mode;
+    private final long groupWindowNanos;
+    private final int maxBatchSize;
+    private final Charset charset;
+    private final BlockingQueue<PendingWrite> queue;
+    private final Thread writerThread;
+    // Guards closed and the queue's CLOSE marker, so no entry can be queued behind it
+    private final Object submitLock;
+    private boolean closed;
+    // Why the writer stopped before being closed; later writes fail with it
+    private IOException failure;
+    // End of the entries whose writes succeeded; written by the writer thread only
+    private long stored;
+
+    public JournalWriter(FileChannel channel, DurabilityMode mode, long groupWindowMillis, int maxBatchSize)
+            throws IOException {
+        this.channel = channel;
+        this.stored = channel.size();
+        this.mode = mode;
+        this.groupWindowNanos = TimeUnit.MILLISECONDS.toNanos(groupWindowMillis);
+        this.maxBatchSize = Math.max(1, maxBatchSize);
+        this.charset = Charset.defaultCharset();
+        this.queue = new LinkedBlockingQueue<>();
+        this.submitLock = new Object();
+        this.writerThread = new Thread(this::run, "journal-writer");
+        this.writerThread.setDaemon(true);
+        this.writerThread.start();
+    }
+
+    public DurabilityMode getMode() {
+        return mode;
+    }
+
+    // Queue an entry; the future completes once the mode's durability level is reached
+    public CompletableFuture<Void> append(String entry) {
+        byte[] data = (entry + System.lineSeparator()).getBytes(charset);
+        PendingWrite write = new PendingWrite(ENTRY, data);
+        if (mode == DurabilityMode.ASYNC) {
+            write.future.complete(null);
+        }
+        return submit(write);
+    }
+
+    // Complete once every previously queued entry is written and forced
+    public CompletableFuture<Void> flush() {
+        return submit(new PendingWrite(FLUSH, null));
+    }
+
+    // Complete, once every previously queued entry is written and forced, with the journal's length then
+    public CompletableFuture<Long> mark() {
+        PendingWrite write = new PendingWrite(FLUSH, null);
+        return submit(write).thenApply(v -> write.length);
+    }
+
+    // Discard the journal contents after every previously queued entry is written
+    public CompletableFuture<Void> truncate() {
+        return submit(new PendingWrite(TRUNCATE, null));
+    }
+
+    // Drain outstanding entries, force them to disk and release the file
+    @Override
+    public void close() throws IOException {
+        PendingWrite write = new PendingWrite(CLOSE, null);
+        synchronized (submitLock) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            if (failure == null) {
+                queue.add(write);
+            } else {
+                write.future.completeExceptionally(failure);
+            }
+        }
+        try {
+            write.future.join();
+        } catch (CompletionException e) {
+            throw new IOException("Error closing journal: " + e.getCause().getMessage(), e.getCause());
+        } finally {
+            channel.close();
+        }
+    }
+
+    private CompletableFuture<Void> submit(PendingWrite write) {
+        IOException error;
+        synchronized (submitLock) {
+            if (!closed && failure == null) {
+                queue.add(write);
+                return write.future;
+            }
+            error = failure != null ? failure : new IOException("Journal is closed");
+        }
+        CompletableFuture<Void> failed = new CompletableFuture<>();
+        failed.completeExceptionally(error);
+        return failed;
+    }
+
+    private void run() {
+        List<PendingWrite> batch = new ArrayList<>();
+        boolean running = true;
+        IOException stop = null;
+
+        while (running) {
+            try {
+                batch.add(queue.take());
+                collectBatch(batch);
+                running = writeBatch(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                stop = new IOException("Journal writer interrupted");
+                fail(batch, stop);
+                running = false;
+            } catch (IOException e) {
+                System.err.println("Error writing journal: " + e.getMessage());
+                if (cutBack()) {
+                    // A failed CLOSE still ends the writer; close() reports the error
+                    running = !fail(batch, e);
+                } else {
+                    stop = new IOException("Journal stopped: a failed write could not be removed", e);
+                    fail(batch, stop);
+                    running = false;
+                }
+            }
+            batch.clear();
+        }
+
+        // Only a stopped writer can leave entries behind; never leave their callers waiting
+        synchronized (submitLock) {
+            failure = stop;
+        }
+        List<PendingWrite> rest = new ArrayList<>();
+        queue.drainTo(rest);
+        fail(rest, stop != null ? stop : new IOException("Journal is closed"));
+    }
+
+    // Drop whatever a failed write left after the last stored entry, so later entries are
+    // not appended behind torn bytes (replay stops there) and entries whose callers were
+    // told they failed are not replayed; false if the file could not be cut back
+    private boolean cutBack() {
+        try {
+            if (channel.size() > stored) {
+                channel.truncate(stored);
+                channel.force(true);
+            }
+            channel.position(stored);
+            return true;
+        } catch (IOException e) {
+            System.err.println("Error removing failed journal write: " + e.getMessage());
+            return false;
+        }
+    }
+
+    // Fail every write in the list; true if one of them was the CLOSE marker
+    private static boolean fail(List<PendingWrite> writes, IOException error) {
+        boolean closing = false;
+        for (PendingWrite write : writes) {
+            write.future.completeExceptionally(error);
+            closing |= write.kind == CLOSE;
+        }
+        return closing;
+    }
+
+    // Gather further entries into the batch according to the durability mode
+    private void collectBatch(List<PendingWrite> batch) throws InterruptedException {
+        if (mode == DurabilityMode.FSYNC || batch.get(0).kind != ENTRY) {
+            return;
+        }
+
+        queue.drainTo(batch, maxBatchSize - batch.size());
+        if (mode != DurabilityMode.GROUP_COMMIT) {
+            return;
+        }
+
+        long deadline = System.nanoTime() + groupWindowNanos;
+        while (batch.size() < maxBatchSize) {
+            long remaining = deadline - System.nanoTime();
+            PendingWrite next = remaining > 0 ? queue.poll(remaining, TimeUnit.NANOSECONDS) : null;
+            if (next == null) {
+                return;
+            }
+            batch.add(next);
+            if (next.kind != ENTRY) {
+                return;
+            }
+            queue.drainTo(batch, maxBatchSize - batch.size());
+        }
+    }
+
+    // Write the batch with one write call and at most one force per control marker. Each
+    // stretch up to a marker is completed as soon as it is stored, so a later failure in the
+    // batch only fails (and cuts back) what comes after it.
+    private boolean writeBatch(List<PendingWrite> batch) throws IOException {
+        boolean running = true;
+        int start = 0;
+
+        for (int i = 0; i < batch.size(); i++) {
+            PendingWrite write = batch.get(i);
+            if (write.kind == ENTRY) {
+                continue;
+            }
+            writeEntries(batch, start, i);
+            channel.force(false);
+            if (write.kind == TRUNCATE) {
+                channel.truncate(0);
+            } else if (write.kind == CLOSE) {
+                running = false;
+            }
+            complete(batch, start, i + 1);
+            start = i + 1;
+        }
+        if (writeEntries(batch, start, batch.size()) && mode != DurabilityMode.ASYNC) {
+            channel.force(false);
+        }
+        complete(batch, start, batch.size());
+        return running;
+    }
+
+    // Mark the writes in [from, to) as stored. Nothing is read once a CLOSE is complete,
+    // since close() may already have released the channel.
+    private void complete(List<PendingWrite> batch, int from, int to) throws IOException {
+        if (from == to) {
+            return;
+        }
+        stored = channel.size();
+        for (int i = from; i < to; i++) {
+            batch.get(i).length = stored;
+            batch.get(i).future.complete(null);
+        }
+    }
+
+    // Write the entries in [from, to) with a single channel write; false if there were none
+    private boolean writeEntries(List<PendingWrite> batch, int from, int to) throws IOException {
+        int size = 0;
+        for (int i = from; i < to; i++) {
+            size += batch.get(i).data.length;
+        }
+        if (size == 0) {
+            return false;
+        }
+
+        ByteBuffer buffer = ByteBuffer.allocate(size);
+        for (int i = from; i < to; i++) {
+            buffer.put(batch.get(i).data);
+        }
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        return true;
+    }
+
+    private static class PendingWrite {
+        private final int kind;
+        private final byte[] data;
+        private final CompletableFuture<Void> future;
+        // Journal length once this write was stored
+        private long length;
+
+        PendingWrite(int kind, byte[] data) {
+            this.kind = kind;
+            this.data = data;
+            this.future = new CompletableFuture<>();
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,521 @@
+package com.bus.service;
+
+import com.bus.model.Bus;
+import com.bus.model.Journey;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * JourneyPlanner Class
+ * Finds connecting itineraries over the route graph: cities are nodes and
+ * each bus is a directed edge weighted by its fare. Edges live in primitive
+ * arrays with one row of edge numbers per source city, so searches touch no
+ * per-edge objects. Buses without free seats are skipped.
+ *
+ * The graph is published as an immutable Graph snapshot in a volatile field;
+ * a query reads it once and works on that snapshot alone. Adding a bus or a
+ * change in seat availability publishes a new snapshot that shares the
+ * unchanged arrays, and shortest-path trees are memoized per origin within a
+ * snapshot and reused (and, for fares, extended) for every later destination.
+ * A change in availability is only recorded where it happens, on the
+ * booking path, in a lock-free queue that holds each bus at most once; the
+ * next query applies the recorded changes and publishes the new snapshot.
+ * Each tree is carried over to it unless it used the closed bus or the
+ * opened one would improve a route it has already fixed, so only the
+ * origins the change affects are searched again.
+ */
+public class JourneyPlanner implements Bus.AvailabilityListener {
+    private static final int NONE = -1;
+    private static final int[] NO_EDGES = new int[0];
+
+    private volatile Graph graph;
+    // Edge of each bus, for availability changes; replaced and added to under the lock only
+    private volatile Map<Bus, BusEdge> edgesByBus;
+    // Edges whose bus changed availability since the last query
+    private final Queue<BusEdge> pending;
+
+    public JourneyPlanner() {
+        this.pending = new ConcurrentLinkedQueue<>();
+        rebuild(Collections.emptyList());
+    }
+
+    // Rebuild the graph from the fleet's routes and current seat availability
+    public synchronized void rebuild(List<Bus> buses) {
+        Map<String, Integer> ids = new ConcurrentHashMap<>();
+        int edges = buses.size();
+        int[] sources = new int[edges];
+        int[] targets = new int[edges];
+        double[] fares = new double[edges];
+        Bus[] edgeBuses = buses.toArray(new Bus[0]);
+        long[] open = new long[words(edges)];
+        int[] rowSize = new int[2 * edges];
+
+        // Publish the edges before reading availability, so a change made meanwhile is recorded
+        Map<Bus, BusEdge> byBus = new ConcurrentHashMap<>();
+        for (int e = 0; e < edges; e++) {
+            byBus.put(edgeBuses[e], new BusEdge(edgeBuses[e], e));
+        }
+        this.edgesByBus = byBus;
+
+        for (int e = 0; e < edges; e++) {
+            Bus bus = edgeBuses[e];
+            sources[e] = ids.computeIfAbsent(key(bus.getSource()), k -> ids.size());
+            targets[e] = ids.computeIfAbsent(key(bus.getDestination()), k -> ids.size());
+            fares[e] = bus.getFarePerSeat();
+            if (bus.getSeatsAvailable() > 0) {
+                open[e >>> 6] |= 1L << e;
+            }
+            rowSize[sources[e]]++;
+        }
+
+        int cities = ids.size();
+        int[][] rows = new int[cities][];
+        for (int c = 0; c < cities; c++) {
+            rows[c] = rowSize[c] == 0 ? NO_EDGES : new int[rowSize[c]];
+            rowSize[c] = 0;
+        }
+        for (int e = 0; e < edges; e++) {
+            rows[sources[e]][rowSize[sources[e]]++] = e;
+        }
+
+        this.graph = new Graph(ids, cities, rows, edges, sources, targets, fares, edgeBuses, open);
+    }
+
+    // Add one bus as a new edge; the other cities' rows and the edge arrays are shared
+    public synchronized void addBus(Bus bus) {
+        Graph current = graph;
+        if (edgesByBus.containsKey(bus)) {
+            return;
+        }
+        Map<String, Integer> ids = current.cityIds;
+        int source = cityId(ids, bus.getSource());
+        int target = cityId(ids, bus.getDestination());
+        int cities = ids.size();
+
+        // Earlier snapshots never read past their own edge count, so the arrays can grow in place
+        int e = current.edgeCount;
+        int[] sources = current.edgeSource;
+        int[] targets = current.edgeTarget;
+        double[] fares = current.edgeFare;
+        Bus[] edgeBuses = current.edgeBus;
+        if (e == sources.length) {
+            int capacity = Math.max(16, e * 2);
+            sources = Arrays.copyOf(sources, capacity);
+            targets = Arrays.copyOf(targets, capacity);
+            fares = Arrays.copyOf(fares, capacity);
+            edgeBuses = Arrays.copyOf(edgeBuses, capacity);
+        }
+        sources[e] = source;
+        targets[e] = target;
+        fares[e] = bus.getFarePerSeat();
+        edgeBuses[e] = bus;
+
+        int[][] rows = Arrays.copyOf(current.cityEdges, cities);
+        for (int c = current.cityCount; c < cities; c++) {
+            rows[c] = NO_EDGES;
+        }
+        int[] row = Arrays.copyOf(rows[source], rows[source].length + 1);
+        row[row.length - 1] = e;
+        rows[source] = row;
+
+        edgesByBus.put(bus, new BusEdge(bus, e));
+        long[] open = Arrays.copyOf(current.open, words(e + 1));
+        if (bus.getSeatsAvailable() > 0) {
+            open[e >>> 6] |= 1L << e;
+        }
+        graph = new Graph(ids, cities, rows, e + 1, sources, targets, fares, edgeBuses, open);
+    }
+
+    // Cheapest itinerary by total fare, or null if the destination cannot be reached
+    public Journey findCheapest(String origin, String destination) {
+        reconcile();
+        return find(graph, origin, destination, true);
+    }
+
+    // Itinerary with the fewest changes (cheapest among those), or null if unreachable
+    public Journey findFewestTransfers(String origin, String destination) {
+        reconcile();
+        return find(graph, origin, destination, false);
+    }
+
+    // The cheapest and the fewest-transfer itineraries over one snapshot; one entry if they coincide
+    public List<Journey> plan(String origin, String destination) {
+        reconcile();
+        Graph snapshot = graph;
+        List<Journey> journeys = new ArrayList<>(2);
+        Journey cheapest = find(snapshot, origin, destination, true);
+        Journey fewest = find(snapshot, origin, destination, false);
+        if (cheapest != null) {
+            journeys.add(cheapest);
+        }
+        if (fewest != null && !fewest.equals(cheapest)) {
+            journeys.add(fewest);
+        }
+        return journeys;
+    }
+
+    // Record that the bus's edge has to be opened or closed. Called with the bus held for a
+    // booking, so it takes no lock and walks no trees; the next query applies the change
+    @Override
+    public void availabilityChanged(Bus bus, boolean hasSeats) {
+        BusEdge edge = edgesByBus.get(bus);
+        if (edge != null && edge.dirty.compareAndSet(false, true)) {
+            pending.add(edge);
+        }
+    }
+
+    // Apply the recorded availability changes, each bus as it is now; locked against addBus,
+    // rebuild and other queries doing the same, and free when nothing has changed
+    private void reconcile() {
+        if (pending.isEmpty()) {
+            return;
+        }
+        synchronized (this) {
+            BusEdge changed;
+            while ((changed = pending.poll()) != null) {
+                // Cleared before reading the seats, so a change after the read is recorded again
+                changed.dirty.set(false);
+                BusEdge edge = edgesByBus.get(changed.bus);
+                if (edge != null) {
+                    setOpen(edge.index, changed.bus.getSeatsAvailable() > 0);
+                }
+            }
+        }
+    }
+
+    // Publish a snapshot with an edge opened or closed, keeping the trees the change leaves correct
+    private void setOpen(int edge, boolean hasSeats) {
+        Graph current = graph;
+        if (current.isOpen(edge) == hasSeats) {
+            return;
+        }
+        long[] open = current.open.clone();
+        open[edge >>> 6] ^= 1L << edge;
+        Graph next = new Graph(current.cityIds, current.cityCount, current.cityEdges, current.edgeCount,
+                current.edgeSource, current.edgeTarget, current.edgeFare, current.edgeBus, open);
+        carryTrees(current.cheapestTrees, next.cheapestTrees, next, edge, hasSeats);
+        carryTrees(current.fewestTransferTrees, next.fewestTransferTrees, next, edge, hasSeats);
+        graph = next;
+    }
+
+    // Move the trees still correct after an edge was opened or closed into the next snapshot;
+    // trees a query adds to the old snapshot meanwhile are simply built again on demand
+    private static void carryTrees(Map<Integer, PathTree> from, Map<Integer, PathTree> to, Graph next,
+                                   int edge, boolean opened) {
+        for (Map.Entry<Integer, PathTree> entry : from.entrySet()) {
+            if (entry.getValue().moveTo(next, edge, opened)) {
+                to.put(entry.getKey(), entry.getValue());
+            }
+        }
+    }
+
+    private static Journey find(Graph graph, String origin, String destination, boolean cheapest) {
+        if (origin == null || destination == null) {
+            return null;
+        }
+        int from = graph.cityId(origin);
+        int to = graph.cityId(destination);
+        if (from == NONE || to == NONE || from == to) {
+            return null;
+        }
+
+        Map<Integer, PathTree> cache = cheapest ? graph.cheapestTrees : graph.fewestTransferTrees;
+        PathTree tree = cache.get(from);
+        if (tree == null) {
+            tree = cheapest ? cheapestTree(graph, from) : fewestTransferTree(graph, from);
+            PathTree raced = cache.putIfAbsent(from, tree);
+            if (raced != null) {
+                tree = raced;
+            }
+        }
+        return tree.journeyTo(to);
+    }
+
+    // Dijkstra over fares; the search itself runs lazily as destinations are asked for
+    private static PathTree cheapestTree(Graph graph, int origin) {
+        PathTree tree = new PathTree(graph);
+        tree.cost[origin] = 0;
+        tree.hops[origin] = 0;
+        tree.startSearch(origin);
+        return tree;
+    }
+
+    // Breadth-first by number of buses, keeping the cheapest way into each city per layer
+    private static PathTree fewestTransferTree(Graph graph, int origin) {
+        PathTree tree = new PathTree(graph);
+        tree.cost[origin] = 0;
+        tree.hops[origin] = 0;
+
+        int[] layer = {origin};
+        int layerSize = 1;
+        int[] nextLayer = new int[graph.cityCount];
+        while (layerSize > 0) {
+            int nextSize = 0;
+            for (int i = 0; i < layerSize; i++) {
+                int city = layer[i];
+                for (int e : graph.cityEdges[city]) {
+                    if (!graph.isOpen(e)) {
+                        continue;
+                    }
+                    int target = graph.edgeTarget[e];
+                    double candidate = tree.cost[city] + graph.edgeFare[e];
+                    if (tree.hops[target] == NONE) {
+                        tree.hops[target] = tree.hops[city] + 1;
+                        nextLayer[nextSize++] = target;
+                    } else if (tree.hops[target] != tree.hops[city] + 1 || candidate >= tree.cost[target]) {
+                        continue;
+                    }
+                    tree.cost[target] = candidate;
+                    tree.viaEdge[target] = e;
+                }
+            }
+            layer = Arrays.copyOf(nextLayer, nextSize);
+            layerSize = nextSize;
+        }
+        return tree;
+    }
+
+    // Id of the city, assigning the next one if it is new
+    private static int cityId(Map<String, Integer> ids, String city) {
+        return ids.computeIfAbsent(key(city), k -> ids.size());
+    }
+
+    private static int words(int edges) {
+        return (edges + 63) >>> 6;
+    }
+
+    private static String key(String city) {
+        return RouteIndex.normalizeCity(city);
+    }
+
+    /**
+     * One published state of the route graph. Nothing a reader can see is
+     * written after publication: the city map and the edge arrays only grow
+     * past this snapshot's cityCount and edgeCount, and a change to a row or
+     * to the open bits goes into a copy for the next snapshot. The path trees
+     * cached here are correct for this snapshot; reconciling an availability
+     * change moves the ones that stay correct on to the next.
+     */
+    private static class Graph {
+        private final Map<String, Integer> cityIds;
+        private final int cityCount;
+        // Edge numbers leaving each city
+        private final int[][] cityEdges;
+        private final int edgeCount;
+        private final int[] edgeSource;
+        private final int[] edgeTarget;
+        private final double[] edgeFare;
+        private final Bus[] edgeBus;
+        // Bit e is set while bus e has free seats
+        private final long[] open;
+        private final Map<Integer, PathTree> cheapestTrees;
+        private final Map<Integer, PathTree> fewestTransferTrees;
+
+        Graph(Map<String, Integer> cityIds, int cityCount, int[][] cityEdges, int edgeCount, int[] edgeSource,
+              int[] edgeTarget, double[] edgeFare, Bus[] edgeBus, long[] open) {
+            this.cityIds = cityIds;
+            this.cityCount = cityCount;
+            this.cityEdges = cityEdges;
+            this.edgeCount = edgeCount;
+            this.edgeSource = edgeSource;
+            this.edgeTarget = edgeTarget;
+            this.edgeFare = edgeFare;
+            this.edgeBus = edgeBus;
+            this.open = open;
+            this.cheapestTrees = new ConcurrentHashMap<>();
+            this.fewestTransferTrees = new ConcurrentHashMap<>();
+        }
+
+        // Id of a city in this snapshot, or NONE (cities added later are unknown here)
+        int cityId(String city) {
+            Integer id = cityIds.get(key(city));
+            return id == null || id >= cityCount ? NONE : id;
+        }
+
+        boolean isOpen(int edge) {
+            return (open[edge >>> 6] & 1L << edge) != 0;
+        }
+    }
+
+    /**
+     * A bus's edge, and whether a change in its availability is waiting to be applied
+     */
+    private static class BusEdge {
+        private final Bus bus;
+        private final int index;
+        private final AtomicBoolean dirty;
+
+        BusEdge(Bus bus, int index) {
+            this.bus = bus;
+            this.index = index;
+            this.dirty = new AtomicBoolean();
+        }
+    }
+
+    /**
+     * Single-origin shortest-path tree: for each city the cost, the number of
+     * buses taken and the last bus (edge) used to reach it. Cheapest-fare trees
+     * keep their Dijkstra frontier and only settle cities until the requested
+     * destination is final, resuming from there for the next destination.
+     * A tree answers for the latest snapshot it has been moved to.
+     */
+    private static class PathTree {
+        private Graph graph;
+        private final double[] cost;
+        private final int[] hops;
+        private final int[] viaEdge;
+
+        // Dijkstra state (cheapest trees only): settled cities and a binary min-heap of candidates
+        private boolean[] settled;
+        // Cost of the city settled last; no settled city costs more
+        private double reach;
+        private double[] heapCost;
+        private int[] heapCity;
+        private int heapSize;
+
+        PathTree(Graph graph) {
+            this.graph = graph;
+            this.cost = new double[graph.cityCount];
+            this.hops = new int[graph.cityCount];
+            this.viaEdge = new int[graph.cityCount];
+            Arrays.fill(cost, Double.POSITIVE_INFINITY);
+            Arrays.fill(hops, NONE);
+            Arrays.fill(viaEdge, NONE);
+        }
+
+        void startSearch(int origin) {
+            settled = new boolean[cost.length];
+            heapCost = new double[64];
+            heapCity = new int[64];
+            push(0, origin);
+        }
+
+        synchronized Journey journeyTo(int city) {
+            if (settled != null) {
+                settle(city);
+            }
+            if (viaEdge[city] == NONE) {
+                return null;
+            }
+            Bus[] legs = new Bus[hops[city]];
+            for (int i = legs.length - 1, c = city; i >= 0; i--) {
+                int e = viaEdge[c];
+                legs[i] = graph.edgeBus[e];
+                c = graph.edgeSource[e];
+            }
+            return new Journey(Arrays.asList(legs), cost[city]);
+        }
+
+        // Take over a snapshot that differs from this tree's only in one edge being opened or
+        // closed, if the tree stays correct there; false if it has to be searched again.
+        // Closing matters only if the tree reaches the edge's target through it. Opening
+        // matters only from a city already fixed: in a fare tree the edge then joins the
+        // frontier unless it undercuts a city settled already, and in a fewest-transfer tree
+        // it must not give its target fewer buses or, with as many, a lower fare.
+        synchronized boolean moveTo(Graph next, int edge, boolean opened) {
+            int source = graph.edgeSource[edge];
+            int target = graph.edgeTarget[edge];
+            if (!opened) {
+                if (viaEdge[target] == edge) {
+                    return false;
+                }
+            } else if (hops[source] != NONE) {
+                double candidate = cost[source] + graph.edgeFare[edge];
+                if (settled == null) {
+                    int via = hops[source] + 1;
+                    if (hops[target] == NONE || via < hops[target]
+                            || (via == hops[target] && candidate < cost[target])) {
+                        return false;
+                    }
+                } else if (settled[source] && candidate < cost[target]) {
+                    if (candidate < reach) {
+                        return false;
+                    }
+                    cost[target] = candidate;
+                    hops[target] = hops[source] + 1;
+                    viaEdge[target] = edge;
+                    push(candidate, target);
+                }
+                // A fare tree relaxes edges out of unsettled cities later, over the new snapshot
+            }
+            graph = next;
+            return true;
+        }
+
+        // Run Dijkstra until the target's cost is final or nothing is left to explore
+        private void settle(int target) {
+            while (!settled[target] && heapSize > 0) {
+                double current = heapCost[0];
+                int city = heapCity[0];
+                pop();
+                if (settled[city]) {
+                    continue;
+                }
+                settled[city] = true;
+                reach = current;
+
+                for (int e : graph.cityEdges[city]) {
+                    int next = graph.edgeTarget[e];
+                    double candidate = current + graph.edgeFare[e];
+                    if (graph.isOpen(e) && !settled[next] && candidate < cost[next]) {
+                        cost[next] = candidate;
+                        hops[next] = hops[city] + 1;
+                        viaEdge[next] = e;
+                        push(candidate, next);
+                    }
+                }
+            }
+        }
+
+        private void push(double value, int city) {
+            if (heapSize == heapCost.length) {
+                heapCost = Arrays.copyOf(heapCost, heapSize * 2);
+                heapCity = Arrays.copyOf(heapCity, heapSize * 2);
+            }
+            int i = heapSize++;
+            while (i > 0) {
+                int parent = (i - 1) >>> 1;
+                if (heapCost[parent] <= value) {
+                    break;
+                }
+                heapCost[i] = heapCost[parent];
+                heapCity[i] = heapCity[parent];
+                i = parent;
+            }
+            heapCost[i] = value;
+            heapCity[i] = city;
+        }
+
+        private void pop() {
+            heapSize--;
+            double value = heapCost[heapSize];
+            int city = heapCity[heapSize];
+            int i = 0;
+            while (true) {
+                int child = 2 * i + 1;
+                if (child >= heapSize) {
+                    break;
+                }
+                if (child + 1 < heapSize && heapCost[child + 1] < heapCost[child]) {
+                    child++;
+                }
+                if (heapCost[child] >= value) {
+                    break;
+                }
+                heapCost[i] = heapCost[child];
+                heapCity[i] = heapCity[child];
+                i = child;
+            }
+            heapCost[i] = value;
+            heapCity[i] = city;
+        }
+    }
+}
\ No newline at end of file
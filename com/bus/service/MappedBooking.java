@@ -0,0 +1,113 @@
+package com.bus.service;
+
+import com.bus.model.Booking;
+import com.bus.model.Passenger;
+
+/**
+ * MappedBooking Class
+ * Flyweight Booking that reads its fields straight from a MappedBookingStore
+ * record instead of holding copies. Only the status (and, for repairs, the
+ * seat number) can change once a booking is stored.
+ */
+public class MappedBooking extends Booking {
+    private final MappedBookingStore store;
+    private final int index;
+
+    MappedBooking(MappedBookingStore store, int index) {
+        super(null, null, null, 0, null, 0, null);
+        this.store = store;
+        this.index = index;
+    }
+
+    // Position of this booking's record in the store
+    public int getRecordIndex() {
+        return index;
+    }
+
+    @Override
+    public String getBookingId() {
+        return store.readId(index);
+    }
+
+    @Override
+    public Passenger getPassenger() {
+        return store.readPassenger(index);
+    }
+
+    @Override
+    public String getBusNo() {
+        return store.readBusNo(index);
+    }
+
+    @Override
+    public int getSeatNo() {
+        return store.readSeatNo(index);
+    }
+
+    @Override
+    public void setSeatNo(int seatNo) {
+        store.writeSeatNo(index, seatNo);
+    }
+
+    @Override
+    public String getBookingDate() {
+        return store.readBookingDate(index);
+    }
+
+    @Override
+    public double getFare() {
+        return store.readFare(index);
+    }
+
+    @Override
+    public String getStatus() {
+        return store.readStatus(index);
+    }
+
+    @Override
+    public void setStatus(String status) {
+        store.writeStatus(index, status);
+    }
+
+    @Override
+    public void setBookingId(String bookingId) {
+        throw readOnly();
+    }
+
+    @Override
+    public void setPassenger(Passenger passenger) {
+        throw readOnly();
+    }
+
+    @Override
+    public void setBusNo(String busNo) {
+        throw readOnly();
+    }
+
+    @Override
+    public void setBookingDate(String bookingDate) {
+        throw readOnly();
+    }
+
+    @Override
+    public void setFare(double fare) {
+        throw readOnly();
+    }
+
+    // Two flyweights over the same record are the same booking
+    @Override
+    public boolean equals(Object other) {
+        return other instanceof MappedBooking
+                && ((MappedBooking) other).store == store
+                && ((MappedBooking) other).index == index;
+    }
+
+    @Override
+    public int hashCode() {
+        return index;
+    }
+
+    private static UnsupportedOperationException readOnly() {
+        return new UnsupportedOperationException("Stored bookings can only change status");
+    }
+}
\ No newline at end of file
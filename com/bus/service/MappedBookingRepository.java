@@ -0,0 +1,233 @@
+package com.bus.service;
+
+import com.bus.model.Booking;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+
+/**
+ * MappedBookingRepository Class
+ * Bookings stored in a MappedBookingStore. On first use the CSV snapshot and
+ * journal are imported; after that they are no longer read or written.
+ * The import is written to temp files and renamed into place, so a crash
+ * part-way through leaves no store behind and the next start imports again.
+ *
+ * Writes are committed to disk according to the DurabilityMode: FSYNC commits
+ * each one before it completes; GROUP_COMMIT hands them to a background thread
+ * that commits everything queued during the previous commit at once; ASYNC
+ * completes at once and leaves the same thread to commit behind it.
+ */
+public class MappedBookingRepository implements BookingRepository {
+    private FileService fileService;
+    private DurabilityMode durabilityMode;
+    private MappedBookingStore store;
+    private BlockingQueue<CompletableFuture<Void>> pendingCommits;
+    private Thread committer;
+    // Guards closed and the queue's close marker, so no commit can be queued behind it
+    private final Object submitLock = new Object();
+    private boolean closed;
+    private final CompletableFuture<Void> closeMarker = new CompletableFuture<>();
+
+    public MappedBookingRepository(FileService fileService, DurabilityMode durabilityMode) {
+        this.fileService = fileService;
+        this.durabilityMode = durabilityMode;
+        this.store = new MappedBookingStore(fileService);
+    }
+
+    // Map the store, importing the CSV bookings if it does not exist yet
+    @Override
+    public void open() throws IOException {
+        if (!store.exists()) {
+            importCsv();
+        }
+        store.open();
+        if (durabilityMode != DurabilityMode.FSYNC) {
+            pendingCommits = new LinkedBlockingQueue<>();
+            committer = new Thread(this::runCommitter, "mapped-store-commit");
+            committer.setDaemon(true);
+            committer.start();
+        }
+    }
+
+    // Build the store in temp files and rename them in, record file last: its rename commits the import
+    private void importCsv() throws IOException {
+        String dataTemp = MappedBookingStore.DATA_FILE + ".tmp";
+        String heapTemp = MappedBookingStore.HEAP_FILE + ".tmp";
+        Files.deleteIfExists(fileService.getPath(dataTemp));
+        Files.deleteIfExists(fileService.getPath(heapTemp));
+
+        CsvBookingRepository csv = new CsvBookingRepository(fileService, durabilityMode);
+        csv.open();
+        try (MappedBookingStore seed = new MappedBookingStore(fileService.getPath(dataTemp),
+                fileService.getPath(heapTemp))) {
+            seed.open();
+            seed.appendAll(csv.findAll());
+        } finally {
+            csv.close();
+        }
+        fileService.moveIntoPlace(heapTemp, MappedBookingStore.HEAP_FILE);
+        fileService.moveIntoPlace(dataTemp, MappedBookingStore.DATA_FILE);
+    }
+
+    @Override
+    public Booking findById(String bookingId) {
+        return store.find(bookingId);
+    }
+
+    // Looked up in the store's per-bus index; only the bus's own records are touched
+    @Override
+    public List<Booking> findByBus(String busNo) {
+        int[] positions = store.findByBus(busNo);
+        List<Booking> bookings = new ArrayList<>(positions.length);
+        for (int position : positions) {
+            if (!store.isDiscarded(position)) {
+                bookings.add(store.get(position));
+            }
+        }
+        return bookings;
+    }
+
+    // Copied through findNext, which reads the raw records and skips discarded ones
+    @Override
+    public List<Booking> findAll() {
+        BookingFilter all = BookingFilter.all();
+        int size = store.size();
+        List<Booking> bookings = new ArrayList<>(size);
+        for (int position = store.findNext(all, 0, size); position >= 0; position = store.findNext(all, position + 1, size)) {
+            bookings.add(store.get(position));
+        }
+        return bookings;
+    }
+
+    @Override
+    public int count() {
+        return store.size();
+    }
+
+    @Override
+    public Booking get(int position) {
+        return store.get(position);
+    }
+
+    // Read from the record's heap reference; no flyweight or Passenger is built
+    @Override
+    public String getPhoneNumber(int position) {
+        return store.readPhoneNumber(position);
+    }
+
+    // Read from the raw records; only one string per distinct bus number is decoded
+    @Override
+    public void scanSeats(SeatVisitor visitor) {
+        store.scanSeats(visitor);
+    }
+
+    // Record indexes are the storage order
+    @Override
+    public int positionOf(String bookingId) {
+        MappedBooking booking = store.find(bookingId);
+        return booking == null ? -1 : booking.getRecordIndex();
+    }
+
+    // Compared on the raw records; no flyweights or strings are created for skipped bookings
+    @Override
+    public int findNext(BookingFilter filter, int from, int to) {
+        return store.findNext(filter, from, to);
+    }
+
+    @Override
+    public CompletableFuture<Booking> add(Booking booking) throws IOException {
+        return persisted(store.append(booking));
+    }
+
+    // The store publishes the group's records together
+    @Override
+    public CompletableFuture<List<Booking>> addAll(List<Booking> group) throws IOException {
+        return persisted(new ArrayList<Booking>(store.appendGroup(group)));
+    }
+
+    // Status changes are written straight through to the mapped record
+    @Override
+    public CompletableFuture<Booking> update(Booking booking) {
+        return persisted(booking);
+    }
+
+    // The flyweight writes the new seat straight to its record
+    @Override
+    public CompletableFuture<Booking> moveSeat(Booking booking, int seatNo) {
+        booking.setSeatNo(seatNo);
+        return persisted(booking);
+    }
+
+    // Commit what is still queued, stop the committer and release the files
+    @Override
+    public void close() throws IOException {
+        if (committer != null) {
+            synchronized (submitLock) {
+                if (!closed) {
+                    closed = true;
+                    pendingCommits.add(closeMarker);
+                }
+            }
+            try {
+                committer.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        store.close();
+    }
+
+    // Complete once the write is committed as far as the durability mode asks
+    private <T> CompletableFuture<T> persisted(T stored) {
+        if (durabilityMode == DurabilityMode.FSYNC) {
+            try {
+                store.commit();
+            } catch (RuntimeException e) {
+                return CompletableFuture.failedFuture(new IOException("Could not commit booking store", e));
+            }
+            return CompletableFuture.completedFuture(stored);
+        }
+
+        CompletableFuture<Void> committed = new CompletableFuture<>();
+        synchronized (submitLock) {
+            if (closed) {
+                return CompletableFuture.failedFuture(new IOException("Booking store is closed"));
+            }
+            pendingCommits.add(committed);
+        }
+        if (durabilityMode == DurabilityMode.ASYNC) {
+            return CompletableFuture.completedFuture(stored);
+        }
+        return committed.thenApply(v -> stored);
+    }
+
+    // Commit the store once for every batch of writes queued while the previous commit ran
+    private void runCommitter() {
+        List<CompletableFuture<Void>> batch = new ArrayList<>();
+        boolean running = true;
+        while (running) {
+            try {
+                batch.add(pendingCommits.take());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                running = false;
+            }
+            pendingCommits.drainTo(batch);
+            running &= !batch.contains(closeMarker);
+            try {
+                store.commit();
+                batch.forEach(committed -> committed.complete(null));
+            } catch (RuntimeException e) {
+                System.err.println("Error committing booking store: " + e.getMessage());
+                IOException error = new IOException("Could not commit booking store", e);
+                batch.forEach(committed -> committed.completeExceptionally(error));
+            }
+            batch.clear();
+        }
+    }
+}
\ No newline at end of file
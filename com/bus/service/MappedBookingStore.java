@@ -0,0 +1,601 @@
+package com.bus.service;
+
+import com.bus.model.Booking;
+import com.bus.model.Passenger;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * MappedBookingStore Class
+ * Binary booking storage in FileService's data directory. Bookings are fixed-width
+ * records in a memory-mapped file (bookings.dat); passenger strings live in an
+ * append-only side heap (bookings.strings) and records refer to them by offset. Opening the
+ * store maps the files instead of parsing them, and bookings are read through
+ * MappedBooking flyweights over the mapped buffers. Record indexes are also
+ * kept per bus, so one bus's bookings are found without scanning the rest.
+ *
+ * Appends are visible in memory at once, but the header's record count and
+ * heap size only move on commit(), after the records and strings are forced.
+ * A crash or power loss therefore keeps every committed group whole and
+ * drops anything appended after the last commit.
+ */
+public class MappedBookingStore implements Closeable {
+    public static final String DATA_FILE = "bookings.dat";
+    public static final String HEAP_FILE = "bookings.strings";
+
+    // Header: magic, version, record count, record size, heap size
+    private static final int MAGIC = 0x424B4442; // "BKDB"
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 64;
+    private static final int HEADER_COUNT = 8;
+    private static final int HEADER_RECORD_SIZE = 12;
+    private static final int HEADER_HEAP_SIZE = 16;
+
+    // Record layout
+    private static final int RECORD_SIZE = 72;
+    private static final int ID = 0;
+    private static final int ID_LENGTH = 24;
+    private static final int FARE = 24;
+    private static final int DATE = 32;
+    private static final int BUS = 40;
+    private static final int NAME = 44;
+    private static final int GENDER = 48;
+    private static final int PHONE = 52;
+    private static final int EMAIL = 56;
+    private static final int AGE = 60;
+    private static final int SEAT = 62;
+    private static final int STATUS = 64;
+
+    private static final byte CONFIRMED = 0;
+    private static final byte CANCELLED = 1;
+    private static final byte DISCARDED = 2;
+    private static final long NO_DATE = Long.MIN_VALUE;
+    private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+    private static final int INITIAL_RECORDS = 1024;
+    private static final int INITIAL_HEAP = 64 * 1024;
+    private static final int MAX_INTERNED = 1 << 16;
+
+    private final Path dataFile;
+    private final Path heapFile;
+    private FileChannel dataChannel;
+    private FileChannel heapChannel;
+    private volatile MappedByteBuffer data;
+    private volatile MappedByteBuffer heap;
+    private volatile int count;
+    private int heapSize;
+    // Serializes commits; the store's own monitor is only held for the header write
+    private final Object commitLock = new Object();
+
+    // Open-addressing index: bookingId hash -> record index + 1 (0 = empty slot)
+    private volatile int[] idTable;
+    // Upper-cased bus number -> record indexes of its bookings, ascending
+    private Map<String, PositionList> busPositions;
+    // Recently written strings, so repeated values share one heap entry
+    private Map<String, Integer> interned;
+
+    // Store in the data directory's bookings.dat and bookings.strings
+    public MappedBookingStore(FileService fileService) {
+        this(fileService.getPath(DATA_FILE), fileService.getPath(HEAP_FILE));
+    }
+
+    // Store in explicitly named files (e.g. temp files that are renamed into place)
+    public MappedBookingStore(Path dataFile, Path heapFile) {
+        this.dataFile = dataFile;
+        this.heapFile = heapFile;
+    }
+
+    // Check if the store's record file has been created
+    public boolean exists() {
+        return Files.exists(dataFile);
+    }
+
+    // Map the store files, creating them if needed, and index booking IDs
+    public synchronized void open() throws IOException {
+        dataChannel = FileChannel.open(dataFile,
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        heapChannel = FileChannel.open(heapFile,
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        interned = new HashMap<>();
+
+        boolean created = dataChannel.size() == 0;
+        data = map(dataChannel, Math.max(dataChannel.size(), HEADER_SIZE + (long) INITIAL_RECORDS * RECORD_SIZE));
+        if (created) {
+            data.putInt(0, MAGIC);
+            data.putInt(4, VERSION);
+            data.putInt(HEADER_COUNT, 0);
+            data.putInt(HEADER_RECORD_SIZE, RECORD_SIZE);
+            data.putInt(HEADER_HEAP_SIZE, 0);
+        } else if (data.getInt(0) != MAGIC || data.getInt(4) != VERSION
+                || data.getInt(HEADER_RECORD_SIZE) != RECORD_SIZE) {
+            throw new IOException("Unsupported booking store format: " + dataFile);
+        }
+
+        heapSize = data.getInt(HEADER_HEAP_SIZE);
+        heap = map(heapChannel, Math.max(heapChannel.size(), Math.max(heapSize, INITIAL_HEAP)));
+
+        int stored = data.getInt(HEADER_COUNT);
+        idTable = new int[tableSizeFor(stored)];
+        busPositions = new ConcurrentHashMap<>();
+        // Bus numbers repeat, so each heap string is decoded once
+        Map<Integer, String> busKeys = new HashMap<>();
+        for (int i = 0; i < stored; i++) {
+            insertId(idTable, hashId(i), i);
+            int reference = data.getInt(offset(i) + BUS);
+            String key = busKeys.computeIfAbsent(reference, r -> busKey(readString(r)));
+            busPositions.computeIfAbsent(key, k -> new PositionList()).add(i);
+        }
+        count = stored;
+    }
+
+    // Number of stored bookings
+    public int size() {
+        return count;
+    }
+
+    // Flyweight for the booking at a record index
+    public MappedBooking get(int index) {
+        if (index < 0 || index >= count) {
+            throw new IndexOutOfBoundsException("Booking record " + index + " of " + count);
+        }
+        return new MappedBooking(this, index);
+    }
+
+    // Find a booking by ID; null if unknown
+    public MappedBooking find(String bookingId) {
+        int stored = count;
+        int[] table = idTable;
+        if (bookingId == null || bookingId.length() > ID_LENGTH) {
+            return null;
+        }
+        int mask = table.length - 1;
+        for (int slot = hashId(bookingId) & mask; table[slot] != 0; slot = (slot + 1) & mask) {
+            int index = table[slot] - 1;
+            if (index < stored && idEquals(index, bookingId)) {
+                return isDiscarded(index) ? null : new MappedBooking(this, index);
+            }
+        }
+        return null;
+    }
+
+    // Record indexes of a bus's bookings (any status), oldest first
+    public int[] findByBus(String busNo) {
+        PositionList positions = busNo == null ? null : busPositions.get(busKey(busNo));
+        return positions == null ? new int[0] : positions.toArray();
+    }
+
+    // First record in [from, to) matching a filter, checked against the stored bytes.
+    // With a bus in the filter only that bus's records are visited; discarded ones never match.
+    public int findNext(BookingFilter filter, int from, int to) {
+        int end = Math.min(to, count);
+        from = Math.max(from, 0);
+        MappedByteBuffer buffer = data;
+
+        int status = -1;
+        if (filter.getStatus() != null) {
+            if ("CONFIRMED".equalsIgnoreCase(filter.getStatus())) {
+                status = CONFIRMED;
+            } else if ("CANCELLED".equalsIgnoreCase(filter.getStatus())) {
+                status = CANCELLED;
+            } else {
+                return -1;
+            }
+        }
+        boolean dated = filter.hasDateRange();
+        long fromSecond = filter.fromEpochSecond();
+        long toSecond = filter.toEpochSecond();
+
+        PositionList onBus = null;
+        int next = from;
+        int size = 0;
+        if (filter.getBusNo() != null) {
+            onBus = busPositions.get(busKey(filter.getBusNo()));
+            if (onBus == null) {
+                return -1;
+            }
+            size = onBus.size();
+            next = onBus.lowerBound(from, size);
+        }
+        while (true) {
+            int index = onBus == null ? next : next < size ? onBus.get(next) : end;
+            if (index >= end) {
+                return -1;
+            }
+            next++;
+            int base = offset(index);
+            byte stored = buffer.get(base + STATUS);
+            if (stored == DISCARDED || (status >= 0 && stored != status)) {
+                continue;
+            }
+            if (dated) {
+                long seconds = buffer.getLong(base + DATE);
+                if (seconds == NO_DATE || seconds < fromSecond || seconds >= toSecond) {
+                    continue;
+                }
+            }
+            return index;
+        }
+    }
+
+    // Visit each record's bus, seat, fare and status without building flyweights
+    public void scanSeats(BookingRepository.SeatVisitor visitor) {
+        int stored = count;
+        MappedByteBuffer buffer = data;
+        Map<Integer, String> busNos = new HashMap<>();
+        for (int index = 0; index < stored; index++) {
+            int base = offset(index);
+            String busNo = busNos.computeIfAbsent(buffer.getInt(base + BUS), this::readString);
+            visitor.visit(index, busNo, buffer.getShort(base + SEAT), buffer.getDouble(base + FARE),
+                    statusName(buffer.get(base + STATUS)));
+        }
+    }
+
+    // Store a booking and return the flyweight that now represents it
+    public synchronized MappedBooking append(Booking booking) throws IOException {
+        return appendGroup(Collections.singletonList(booking)).get(0);
+    }
+
+    // Store several bookings as one unit and return their flyweights. They reach
+    // the header together on the next commit, so a crash keeps all of them or none.
+    public synchronized List<MappedBooking> appendGroup(List<Booking> bookings) throws IOException {
+        Set<String> ids = new HashSet<>();
+        for (Booking booking : bookings) {
+            String bookingId = booking.getBookingId();
+            if (bookingId.length() > ID_LENGTH || !isAscii(bookingId)) {
+                throw new IOException("Booking ID cannot be stored: " + bookingId);
+            }
+            if (find(bookingId) != null || !ids.add(bookingId)) {
+                throw new IOException("Duplicate booking ID: " + bookingId);
+            }
+        }
+
+        int first = count;
+        ensureDataCapacity(first + bookings.size());
+        for (int i = 0; i < bookings.size(); i++) {
+            writeRecord(first + i, bookings.get(i));
+        }
+
+        List<MappedBooking> stored = new ArrayList<>(bookings.size());
+        for (int i = 0; i < bookings.size(); i++) {
+            addToIdTable(first + i);
+            stored.add(new MappedBooking(this, first + i));
+        }
+        count = first + bookings.size();
+        // Only after the count, so every indexed position can be read
+        for (int i = 0; i < bookings.size(); i++) {
+            busPositions.computeIfAbsent(busKey(bookings.get(i).getBusNo()), k -> new PositionList()).add(first + i);
+        }
+        return stored;
+    }
+
+    private void writeRecord(int index, Booking booking) throws IOException {
+        String bookingId = booking.getBookingId();
+        Passenger passenger = booking.getPassenger();
+        int busRef = intern(booking.getBusNo());
+        int nameRef = intern(passenger.getName());
+        int genderRef = intern(passenger.getGender());
+        int phoneRef = intern(passenger.getPhoneNumber());
+        int emailRef = intern(passenger.getEmail());
+
+        MappedByteBuffer buffer = data;
+        int base = offset(index);
+        for (int i = 0; i < ID_LENGTH; i++) {
+            buffer.put(base + ID + i, i < bookingId.length() ? (byte) bookingId.charAt(i) : 0);
+        }
+        buffer.putDouble(base + FARE, booking.getFare());
+        buffer.putLong(base + DATE, encodeDate(booking.getBookingDate()));
+        buffer.putInt(base + BUS, busRef);
+        buffer.putInt(base + NAME, nameRef);
+        buffer.putInt(base + GENDER, genderRef);
+        buffer.putInt(base + PHONE, phoneRef);
+        buffer.putInt(base + EMAIL, emailRef);
+        buffer.putShort(base + AGE, (short) passenger.getAge());
+        buffer.putShort(base + SEAT, (short) booking.getSeatNo());
+        buffer.put(base + STATUS, statusCode(booking.getStatus()));
+    }
+
+    // Copy a batch of bookings into the store (used to migrate from CSV)
+    public void appendAll(List<Booking> bookings) throws IOException {
+        for (Booking booking : bookings) {
+            append(booking);
+        }
+    }
+
+    // Make everything appended or updated so far durable: force the strings and records,
+    // then publish their count in the header and force that too. The header never
+    // reaches disk ahead of the records it counts.
+    public void commit() {
+        synchronized (commitLock) {
+            int committedCount;
+            int committedHeap;
+            MappedByteBuffer records;
+            MappedByteBuffer strings;
+            synchronized (this) {
+                committedCount = count;
+                committedHeap = heapSize;
+                records = data;
+                strings = heap;
+            }
+            // The captured mappings cover every record and string below the captured sizes
+            strings.force();
+            records.force();
+
+            MappedByteBuffer header;
+            synchronized (this) {
+                header = data;
+                header.putInt(HEADER_HEAP_SIZE, committedHeap);
+                header.putInt(HEADER_COUNT, committedCount);
+            }
+            header.force(0, HEADER_SIZE);
+        }
+    }
+
+    // Commit and release the files; commit() takes the store's monitor itself, so it runs outside it
+    @Override
+    public void close() throws IOException {
+        synchronized (this) {
+            if (dataChannel == null) {
+                return;
+            }
+        }
+        commit();
+        synchronized (this) {
+            if (dataChannel == null) {
+                return;
+            }
+            dataChannel.close();
+            heapChannel.close();
+            dataChannel = null;
+        }
+    }
+
+    // ---- Field access for MappedBooking ----
+
+    String readId(int index) {
+        MappedByteBuffer buffer = data;
+        int base = offset(index);
+        int length = 0;
+        while (length < ID_LENGTH && buffer.get(base + ID + length) != 0) {
+            length++;
+        }
+        char[] chars = new char[length];
+        for (int i = 0; i < length; i++) {
+            chars[i] = (char) buffer.get(base + ID + i);
+        }
+        return new String(chars);
+    }
+
+    String readBusNo(int index) {
+        return readString(data.getInt(offset(index) + BUS));
+    }
+
+    Passenger readPassenger(int index) {
+        MappedByteBuffer buffer = data;
+        int base = offset(index);
+        return new Passenger(
+                readString(buffer.getInt(base + NAME)),
+                buffer.getShort(base + AGE),
+                readString(buffer.getInt(base + GENDER)),
+                readString(buffer.getInt(base + PHONE)),
+                readString(buffer.getInt(base + EMAIL)));
+    }
+
+    public String readPhoneNumber(int index) {
+        if (index < 0 || index >= count) {
+            throw new IndexOutOfBoundsException("Booking record " + index + " of " + count);
+        }
+        return readString(data.getInt(offset(index) + PHONE));
+    }
+
+    int readSeatNo(int index) {
+        return data.getShort(offset(index) + SEAT);
+    }
+
+    void writeSeatNo(int index, int seatNo) {
+        data.putShort(offset(index) + SEAT, (short) seatNo);
+    }
+
+    double readFare(int index) {
+        return data.getDouble(offset(index) + FARE);
+    }
+
+    String readBookingDate(int index) {
+        long seconds = data.getLong(offset(index) + DATE);
+        if (seconds == NO_DATE) {
+            return "";
+        }
+        return LocalDateTime.ofEpochSecond(seconds, 0, ZoneOffset.UTC).format(DATE_FORMAT);
+    }
+
+    String readStatus(int index) {
+        return statusName(data.get(offset(index) + STATUS));
+    }
+
+    void writeStatus(int index, String status) {
+        data.put(offset(index) + STATUS, statusCode(status));
+    }
+
+    // Whether the record is of a booking whose write failed
+    boolean isDiscarded(int index) {
+        return data.get(offset(index) + STATUS) == DISCARDED;
+    }
+
+    // ---- Internals ----
+
+    private static byte statusCode(String status) {
+        return "CANCELLED".equals(status) ? CANCELLED : "DISCARDED".equals(status) ? DISCARDED : CONFIRMED;
+    }
+
+    private static String statusName(byte status) {
+        return status == CANCELLED ? "CANCELLED" : status == DISCARDED ? "DISCARDED" : "CONFIRMED";
+    }
+
+    private static int offset(int index) {
+        return HEADER_SIZE + index * RECORD_SIZE;
+    }
+
+    // Heap entries are [int length][UTF-8 bytes]; reference 0 is the empty string
+    private int intern(String value) throws IOException {
+        if (value == null || value.isEmpty()) {
+            return 0;
+        }
+        Integer existing = interned.get(value);
+        if (existing != null) {
+            return existing;
+        }
+
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        int position = Math.max(heapSize, 4);
+        ensureHeapCapacity((long) position + 4 + bytes.length);
+        MappedByteBuffer buffer = heap;
+        buffer.putInt(position, bytes.length);
+        buffer.put(position + 4, bytes);
+        heapSize = position + 4 + bytes.length;
+
+        if (interned.size() < MAX_INTERNED) {
+            interned.put(value, position);
+        }
+        return position;
+    }
+
+    private String readString(int reference) {
+        if (reference == 0) {
+            return "";
+        }
+        MappedByteBuffer buffer = heap;
+        byte[] bytes = new byte[buffer.getInt(reference)];
+        buffer.get(reference + 4, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static String busKey(String busNo) {
+        return busNo.toUpperCase(Locale.ROOT);
+    }
+
+    private void ensureDataCapacity(int records) throws IOException {
+        long needed = HEADER_SIZE + (long) records * RECORD_SIZE;
+        if (needed > data.capacity()) {
+            data = map(dataChannel, grow(data.capacity(), needed));
+        }
+    }
+
+    private void ensureHeapCapacity(long needed) throws IOException {
+        if (needed > heap.capacity()) {
+            heap = map(heapChannel, grow(heap.capacity(), needed));
+        }
+    }
+
+    private static long grow(long current, long needed) throws IOException {
+        if (needed > Integer.MAX_VALUE) {
+            throw new IOException("Booking store has reached its 2 GB mapping limit");
+        }
+        return Math.min(Integer.MAX_VALUE, Math.max(needed, current * 2));
+    }
+
+    private static MappedByteBuffer map(FileChannel channel, long size) throws IOException {
+        return channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+    }
+
+    private static long encodeDate(String bookingDate) {
+        if (bookingDate == null || bookingDate.isEmpty()) {
+            return NO_DATE;
+        }
+        try {
+            return LocalDateTime.parse(bookingDate, DATE_FORMAT).toEpochSecond(ZoneOffset.UTC);
+        } catch (RuntimeException e) {
+            return NO_DATE;
+        }
+    }
+
+    private void addToIdTable(int index) {
+        int[] table = idTable;
+        if ((index + 1) * 2 > table.length) {
+            int[] resized = new int[table.length * 2];
+            for (int i = 0; i < index; i++) {
+                insertId(resized, hashId(i), i);
+            }
+            table = resized;
+        }
+        insertId(table, hashId(index), index);
+        idTable = table;
+    }
+
+    private static void insertId(int[] table, int hash, int index) {
+        int mask = table.length - 1;
+        int slot = hash & mask;
+        while (table[slot] != 0) {
+            slot = (slot + 1) & mask;
+        }
+        table[slot] = index + 1;
+    }
+
+    private static int tableSizeFor(int records) {
+        int size = 1024;
+        while (size < records * 2) {
+            size <<= 1;
+        }
+        return size;
+    }
+
+    // The String and stored-bytes hashes agree because IDs are ASCII
+    private static int hashId(String bookingId) {
+        int hash = 0;
+        for (int i = 0; i < bookingId.length(); i++) {
+            hash = 31 * hash + bookingId.charAt(i);
+        }
+        return hash ^ (hash >>> 16);
+    }
+
+    private int hashId(int index) {
+        MappedByteBuffer buffer = data;
+        int base = offset(index) + ID;
+        int hash = 0;
+        for (int i = 0; i < ID_LENGTH; i++) {
+            byte b = buffer.get(base + i);
+            if (b == 0) {
+                break;
+            }
+            hash = 31 * hash + b;
+        }
+        return hash ^ (hash >>> 16);
+    }
+
+    private boolean idEquals(int index, String bookingId) {
+        MappedByteBuffer buffer = data;
+        int base = offset(index) + ID;
+        int length = bookingId.length();
+        for (int i = 0; i < length; i++) {
+            if (buffer.get(base + i) != bookingId.charAt(i)) {
+                return false;
+            }
+        }
+        return length == ID_LENGTH || buffer.get(base + length) == 0;
+    }
+
+    private static boolean isAscii(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            if (value.charAt(i) > 127 || value.charAt(i) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,264 @@
+package com.bus.service;
+
+import com.bus.model.Booking;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * PhoneIndex Class
+ * Finds a passenger's bookings by phone number. Numbers are normalized to a
+ * long key of their digits and digit count, with a trunk 0 or +91 in front of
+ * a 10-digit number dropped, so "+91 98765-43210" and "09876543210" are the
+ * same key while "0919392103" stays a 10-digit number. Entries are storage
+ * positions in the BookingRepository, resolved only when a lookup returns
+ * them, so no Booking is kept alive by the index.
+ * The index is built on the first lookup and kept current after that. Keys
+ * are spread over independently locked stripes, each an open-addressing long
+ * table whose keys point at chains of entries in parallel int arrays.
+ */
+public class PhoneIndex {
+    private static final long EMPTY = -1;
+    private static final int END = -1;
+    private static final int STRIPES = 16;
+    private static final int MAX_DIGITS = 15;
+
+    private final BookingRepository bookingRepository;
+    private final Stripe[] stripes;
+    private final Object buildLock;
+    // Set once a lookup has asked for the index; until then adds are left to the build
+    private volatile boolean requested;
+    // Positions below this were indexed by the build; -1 until it has finished
+    private volatile int builtCount;
+
+    public PhoneIndex(BookingRepository bookingRepository) {
+        this.bookingRepository = bookingRepository;
+        this.stripes = new Stripe[STRIPES];
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new Stripe();
+        }
+        this.buildLock = new Object();
+        this.builtCount = -1;
+    }
+
+    // Index a newly stored booking by its position; a no-op until the index is first used
+    public void add(int position, String phoneNumber) {
+        if (!requested || position < 0) {
+            return;
+        }
+        int covered = builtCount;
+        if (covered < 0) {
+            // A build is running; wait for it to learn which positions it covered
+            synchronized (buildLock) {
+                covered = builtCount;
+            }
+        }
+        long phone = normalize(phoneNumber);
+        if (position >= covered && phone != EMPTY) {
+            stripeFor(phone).add(phone, position);
+        }
+    }
+
+    // Drop a booking added with add, e.g. one that could not be stored after all
+    public void remove(int position, String phoneNumber) {
+        long phone = normalize(phoneNumber);
+        if (requested && position >= 0 && phone != EMPTY) {
+            stripeFor(phone).remove(phone, position);
+        }
+    }
+
+    // All bookings (any status) under the phone number, oldest first
+    public List<Booking> find(String phoneNumber) {
+        long phone = normalize(phoneNumber);
+        if (phone == EMPTY) {
+            return Collections.emptyList();
+        }
+        ensureBuilt();
+        int[] positions = stripeFor(phone).find(phone);
+        // Concurrent bookings may have been added slightly out of storage order
+        Arrays.sort(positions);
+        List<Booking> found = new ArrayList<>(positions.length);
+        for (int position : positions) {
+            found.add(bookingRepository.get(position));
+        }
+        return found;
+    }
+
+    // Number of distinct phone numbers indexed (0 until the first lookup)
+    public int size() {
+        int size = 0;
+        for (Stripe stripe : stripes) {
+            size += stripe.size();
+        }
+        return size;
+    }
+
+    // Key for a phone number: its digits and digit count, without a trunk 0 or +91
+    // in front of a 10-digit number; EMPTY if it has no digits or too many
+    public static long normalize(String phoneNumber) {
+        if (phoneNumber == null) {
+            return EMPTY;
+        }
+        long value = 0;
+        int digits = 0;
+        boolean leadingZero = false;
+        for (int i = 0; i < phoneNumber.length(); i++) {
+            char c = phoneNumber.charAt(i);
+            if (c < '0' || c > '9') {
+                continue;
+            }
+            if (digits == 0) {
+                leadingZero = c == '0';
+            }
+            if (++digits > MAX_DIGITS) {
+                return EMPTY;
+            }
+            value = value * 10 + (c - '0');
+        }
+        // Indian mobile numbers are 10 digits; drop a trunk prefix or a +91 country code
+        if (digits == 11 && leadingZero) {
+            digits = 10;
+        } else if (digits == 12 && value / 10_000_000_000L == 91) {
+            value %= 10_000_000_000L;
+            digits = 10;
+        }
+        return digits == 0 ? EMPTY : value << 4 | digits;
+    }
+
+    // Build from every stored booking the first time a lookup needs the index
+    private void ensureBuilt() {
+        if (builtCount >= 0) {
+            return;
+        }
+        synchronized (buildLock) {
+            if (builtCount >= 0) {
+                return;
+            }
+            // Announce first: an add that still sees no request stored its booking before this count is read
+            requested = true;
+            int count = bookingRepository.count();
+            for (int position = 0; position < count; position++) {
+                long phone = normalize(bookingRepository.getPhoneNumber(position));
+                if (phone != EMPTY) {
+                    stripeFor(phone).add(phone, position);
+                }
+            }
+            builtCount = count;
+        }
+    }
+
+    private Stripe stripeFor(long phone) {
+        return stripes[(int) (mix(phone) >>> 60) & (STRIPES - 1)];
+    }
+
+    private static long mix(long phone) {
+        long h = phone * 0x9E3779B97F4A7C15L;
+        return h ^ (h >>> 32);
+    }
+
+    /**
+     * One lock's share of the keys: phone number -> newest entry, entries chained to older ones
+     */
+    private static class Stripe {
+        private long[] keys;
+        private int[] newest;
+        private int keyCount;
+        private int[] positions;
+        private int[] previous;
+        private int entryCount;
+
+        Stripe() {
+            this.keys = new long[16];
+            this.newest = new int[16];
+            Arrays.fill(keys, EMPTY);
+            this.positions = new int[16];
+            this.previous = new int[16];
+        }
+
+        synchronized void add(long phone, int position) {
+            if (entryCount == positions.length) {
+                positions = Arrays.copyOf(positions, entryCount * 2);
+                previous = Arrays.copyOf(previous, entryCount * 2);
+            }
+            if ((keyCount + 1) * 2 > keys.length) {
+                resize(keys.length * 2);
+            }
+
+            int slot = slot(phone);
+            if (keys[slot] == EMPTY) {
+                keys[slot] = phone;
+                newest[slot] = END;
+                keyCount++;
+            }
+            positions[entryCount] = position;
+            previous[entryCount] = newest[slot];
+            newest[slot] = entryCount++;
+        }
+
+        // Unlink the entry for a position; its array slots are simply left unused
+        synchronized void remove(long phone, int position) {
+            int slot = slot(phone);
+            if (keys[slot] == EMPTY) {
+                return;
+            }
+            int later = END;
+            for (int entry = newest[slot]; entry != END; later = entry, entry = previous[entry]) {
+                if (positions[entry] == position) {
+                    if (later == END) {
+                        newest[slot] = previous[entry];
+                    } else {
+                        previous[later] = previous[entry];
+                    }
+                    return;
+                }
+            }
+        }
+
+        // Positions under the key, oldest entry first
+        synchronized int[] find(long phone) {
+            int slot = slot(phone);
+            if (keys[slot] == EMPTY) {
+                return new int[0];
+            }
+            int found = 0;
+            for (int entry = newest[slot]; entry != END; entry = previous[entry]) {
+                found++;
+            }
+            int[] result = new int[found];
+            for (int entry = newest[slot]; entry != END; entry = previous[entry]) {
+                result[--found] = positions[entry];
+            }
+            return result;
+        }
+
+        synchronized int size() {
+            return keyCount;
+        }
+
+        private int slot(long phone) {
+            int mask = keys.length - 1;
+            int slot = (int) (mix(phone) & mask);
+            while (keys[slot] != EMPTY && keys[slot] != phone) {
+                slot = (slot + 1) & mask;
+            }
+            return slot;
+        }
+
+        private void resize(int capacity) {
+            long[] oldKeys = keys;
+            int[] oldNewest = newest;
+            keys = new long[capacity];
+            newest = new int[capacity];
+            Arrays.fill(keys, EMPTY);
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldKeys[i] != EMPTY) {
+                    int slot = slot(oldKeys[i]);
+                    keys[slot] = oldKeys[i];
+                    newest[slot] = oldNewest[i];
+                }
+            }
+        }
+    }
+}
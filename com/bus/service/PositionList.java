@@ -0,0 +1,54 @@
+package com.bus.service;
+
+import java.util.Arrays;
+
+/**
+ * PositionList Class
+ * Append-only list of storage positions in increasing order, used to index
+ * one bus's bookings. Adds must come from one thread at a time; readers need
+ * no lock, since the size is published after the array holding the new entry.
+ */
+class PositionList {
+    private volatile int[] positions = new int[4];
+    private volatile int size;
+
+    void add(int position) {
+        int[] current = positions;
+        if (size == current.length) {
+            current = Arrays.copyOf(current, size * 2);
+        }
+        current[size] = position;
+        positions = current;
+        size = size + 1;
+    }
+
+    // Number of positions; read it before get, which is valid below it
+    int size() {
+        return size;
+    }
+
+    int get(int index) {
+        return positions[index];
+    }
+
+    // Index of the first of the first size positions that is at least from
+    int lowerBound(int from, int size) {
+        int[] current = positions;
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (current[middle] < from) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    int[] toArray() {
+        int length = size;
+        return Arrays.copyOf(positions, length);
+    }
+}
@@ -3,109 +3,170 @@ package com.bus.service;
 import com.bus.model.Bus;
 import com.bus.model.Booking;
 
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
 import java.util.List;
 
 /**
  * ReportService Class
- * Generates various reports and prints ticket details
+ * Generates various reports and prints ticket details.
+ * Each report is rendered through a ReportWriter to any Appendable, so the
+ * same code prints to the console or streams a large report to a file;
+ * the display methods write to System.out and flush once per report.
  */
 public class ReportService {
+    private static final String TICKET_RULE = "=".repeat(60);
+    private static final String TICKET_DIVIDER = "-".repeat(60);
+    private static final String BUSES_RULE = "=".repeat(80);
+    private static final String BUSES_DIVIDER = "-".repeat(80);
+    private static final String BOOKINGS_RULE = "=".repeat(90);
+    private static final String BOOKINGS_DIVIDER = "-".repeat(90);
+    private static final String REVENUE_RULE = "=".repeat(50);
 
     // Print ticket details
     public void printTicket(Booking booking, Bus bus) {
-        System.out.println("\n" + "=".repeat(60));
-        System.out.println("                    BUS TICKET");
-        System.out.println("=".repeat(60));
-        System.out.println("  Booking ID    : " + booking.getBookingId());
-        System.out.println("  Passenger Name: " + booking.getPassenger().getName());
-        System.out.println("  Age           : " + booking.getPassenger().getAge());
-        System.out.println("  Gender        : " + booking.getPassenger().getGender());
-        System.out.println("  Phone         : " + booking.getPassenger().getPhoneNumber());
-        System.out.println("-".repeat(60));
-        System.out.println("  Bus Number    : " + bus.getBusNo());
-        System.out.println("  Route         : " + bus.getSource() + " → " + bus.getDestination());
-        System.out.println("  Seat Number   : " + booking.getSeatNo());
-        System.out.println("  Fare          : ₹" + String.format("%.2f", booking.getFare()));
-        System.out.println("  Booking Date  : " + booking.getBookingDate());
-        System.out.println("  Status        : " + booking.getStatus());
-        System.out.println("=".repeat(60));
-        System.out.println("        Thank you for choosing our service!");
-        System.out.println("=".repeat(60) + "\n");
+        try {
+            writeTicket(System.out, booking, bus);
+        } catch (IOException e) {
+            System.err.println("Error printing ticket: " + e.getMessage());
+        }
+    }
+
+    // Write ticket details
+    public void writeTicket(Appendable out, Booking booking, Bus bus) throws IOException {
+        ReportWriter writer = new ReportWriter(out);
+        writer.text("\n").line(TICKET_RULE);
+        writer.line("                    BUS TICKET");
+        writer.line(TICKET_RULE);
+        writer.text("  Booking ID    : ").line(booking.getBookingId());
+        writer.text("  Passenger Name: ").line(booking.getPassenger().getName());
+        writer.text("  Age           : ").number(booking.getPassenger().getAge()).newLine();
+        writer.text("  Gender        : ").line(booking.getPassenger().getGender());
+        writer.text("  Phone         : ").line(booking.getPassenger().getPhoneNumber());
+        writer.line(TICKET_DIVIDER);
+        writer.text("  Bus Number    : ").line(bus.getBusNo());
+        writer.text("  Route         : ").text(bus.getSource()).text(" → ").line(bus.getDestination());
+        writer.text("  Seat Number   : ").number(booking.getSeatNo()).newLine();
+        writer.text("  Fare          : ₹").decimal(booking.getFare(), 2).newLine();
+        writer.text("  Booking Date  : ").line(booking.getBookingDate());
+        writer.text("  Status        : ").line(booking.getStatus());
+        writer.line(TICKET_RULE);
+        writer.line("        Thank you for choosing our service!");
+        writer.text(TICKET_RULE).text("\n").newLine();
+        writer.flush();
     }
 
     // Display available buses
     public void displayAvailableBuses(List<Bus> buses) {
+        try {
+            writeAvailableBuses(System.out, buses);
+        } catch (IOException e) {
+            System.err.println("Error printing buses: " + e.getMessage());
+        }
+    }
+
+    // Write the available buses table
+    public void writeAvailableBuses(Appendable out, List<Bus> buses) throws IOException {
+        ReportWriter writer = new ReportWriter(out);
         if (buses.isEmpty()) {
-            System.out.println("No buses available.");
+            writer.line("No buses available.").flush();
             return;
         }
 
-        System.out.println("\n" + "=".repeat(80));
-        System.out.println("                         AVAILABLE BUSES");
-        System.out.println("=".repeat(80));
-        System.out.printf("%-10s %-15s %-15s %-15s %-10s%n",
-                "Bus No", "Source", "Destination", "Seats Available", "Fare");
-        System.out.println("-".repeat(80));
+        writer.text("\n").line(BUSES_RULE);
+        writer.line("                         AVAILABLE BUSES");
+        writer.line(BUSES_RULE);
+        writer.text("Bus No", 10).character(' ').text("Source", 15).character(' ').text("Destination", 15)
+                .character(' ').text("Seats Available", 15).character(' ').text("Fare", 10).newLine();
+        writer.line(BUSES_DIVIDER);
 
         for (Bus bus : buses) {
-            System.out.printf("%-10s %-15s %-15s %-15s ₹%-10.2f%n",
-                    bus.getBusNo(),
-                    bus.getSource(),
-                    bus.getDestination(),
-                    bus.getSeatsAvailable() + "/" + bus.getTotalSeats(),
-                    bus.getFarePerSeat());
+            writer.text(bus.getBusNo(), 10).character(' ')
+                    .text(bus.getSource(), 15).character(' ')
+                    .text(bus.getDestination(), 15).character(' ');
+            long seats = writer.length();
+            writer.number(bus.getSeatsAvailable()).character('/').number(bus.getTotalSeats())
+                    .padFrom(seats, 15).character(' ');
+            writer.character('₹').decimal(bus.getFarePerSeat(), 2, 10).newLine();
         }
-        System.out.println("=".repeat(80) + "\n");
+        writer.text(BUSES_RULE).text("\n").newLine();
+        writer.flush();
     }
 
     // Display all bookings
     public void displayBookings(List<Booking> bookings) {
-        if (bookings.isEmpty()) {
-            System.out.println("No bookings found.");
+        try {
+            writeBookings(System.out, bookings);
+        } catch (IOException e) {
+            System.err.println("Error printing bookings: " + e.getMessage());
+        }
+    }
+
+    // Write the bookings table, one row per booking as the iterable yields it
+    public void writeBookings(Appendable out, Iterable<Booking> bookings) throws IOException {
+        ReportWriter writer = new ReportWriter(out);
+        Iterator<Booking> iterator = bookings.iterator();
+        if (!iterator.hasNext()) {
+            writer.line("No bookings found.").flush();
             return;
         }
 
-        System.out.println("\n" + "=".repeat(90));
-        System.out.println("                              ALL BOOKINGS");
-        System.out.println("=".repeat(90));
-        System.out.printf("%-15s %-20s %-10s %-8s %-10s %-12s%n",
-                "Booking ID", "Passenger", "Bus No", "Seat", "Fare", "Status");
-        System.out.println("-".repeat(90));
-
-        for (Booking booking : bookings) {
-            System.out.printf("%-15s %-20s %-10s %-8d ₹%-9.2f %-12s%n",
-                    booking.getBookingId(),
-                    booking.getPassenger().getName(),
-                    booking.getBusNo(),
-                    booking.getSeatNo(),
-                    booking.getFare(),
-                    booking.getStatus());
+        writer.text("\n").line(BOOKINGS_RULE);
+        writer.line("                              ALL BOOKINGS");
+        writer.line(BOOKINGS_RULE);
+        writer.text("Booking ID", 15).character(' ').text("Passenger", 20).character(' ').text("Bus No", 10)
+                .character(' ').text("Seat", 8).character(' ').text("Fare", 10).character(' ')
+                .text("Status", 12).newLine();
+        writer.line(BOOKINGS_DIVIDER);
+
+        while (iterator.hasNext()) {
+            Booking booking = iterator.next();
+            writer.text(booking.getBookingId(), 15).character(' ')
+                    .text(booking.getPassenger().getName(), 20).character(' ')
+                    .text(booking.getBusNo(), 10).character(' ')
+                    .number(booking.getSeatNo(), 8).character(' ')
+                    .character('₹').decimal(booking.getFare(), 2, 9).character(' ')
+                    .text(booking.getStatus(), 12).newLine();
+        }
+        writer.text(BOOKINGS_RULE).text("\n").newLine();
+        writer.flush();
+    }
+
+    // Stream a bookings report to a UTF-8 file, e.g. from BusService.iterateBookings
+    public void exportBookings(Iterable<Booking> bookings, File file) throws IOException {
+        try (Writer out = new OutputStreamWriter(new FileOutputStream(file), StandardCharsets.UTF_8)) {
+            writeBookings(out, bookings);
+        }
+    }
+
+    // Display revenue report from precomputed totals
+    public void displayRevenueReport(BookingStatistics.Summary summary) {
+        try {
+            writeRevenueReport(System.out, summary);
+        } catch (IOException e) {
+            System.err.println("Error printing revenue report: " + e.getMessage());
         }
-        System.out.println("=".repeat(90) + "\n");
     }
 
-    // Display revenue report
-    public void displayRevenueReport(List<Booking> bookings) {
-        double totalRevenue = bookings.stream()
-                .filter(b -> b.getStatus().equals("CONFIRMED"))
-                .mapToDouble(Booking::getFare)
-                .sum();
-
-        long confirmedBookings = bookings.stream()
-                .filter(b -> b.getStatus().equals("CONFIRMED"))
-                .count();
-
-        long cancelledBookings = bookings.stream()
-                .filter(b -> b.getStatus().equals("CANCELLED"))
-                .count();
-
-        System.out.println("\n" + "=".repeat(50));
-        System.out.println("              REVENUE REPORT");
-        System.out.println("=".repeat(50));
-        System.out.println("  Total Bookings     : " + bookings.size());
-        System.out.println("  Confirmed Bookings : " + confirmedBookings);
-        System.out.println("  Cancelled Bookings : " + cancelledBookings);
-        System.out.println("  Total Revenue      : ₹" + String.format("%.2f", totalRevenue));
-        System.out.println("=".repeat(50) + "\n");
+    // Write the revenue report
+    public void writeRevenueReport(Appendable out, BookingStatistics.Summary summary) throws IOException {
+        ReportWriter writer = new ReportWriter(out);
+        writer.text("\n").line(REVENUE_RULE);
+        writer.line("              REVENUE REPORT");
+        writer.line(REVENUE_RULE);
+        writer.text("  Total Bookings     : ").number(summary.getTotalBookings()).newLine();
+        writer.text("  Confirmed Bookings : ").number(summary.getConfirmedBookings()).newLine();
+        writer.text("  Cancelled Bookings : ").number(summary.getCancelledBookings()).newLine();
+        writer.text("  Total Revenue      : ₹").decimal(summary.getRevenue(), 2).newLine();
+        writer.text("  Seats Sold         : ").number(summary.getSeatsSold())
+                .text(" / ").number(summary.getSeatCapacity()).newLine();
+        writer.text("  Occupancy Rate     : ").decimal(summary.getOccupancyRate(), 1).line("%");
+        writer.text(REVENUE_RULE).text("\n").newLine();
+        writer.flush();
     }
-}
\ No newline at end of file
+}
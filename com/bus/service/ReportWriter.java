@@ -0,0 +1,200 @@
+package com.bus.service;
+
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.CharBuffer;
+
+/**
+ * ReportWriter Class
+ * Buffered text output for reports. Text, padded columns and numbers are
+ * formatted straight into a reusable char buffer, which is handed to the
+ * target Appendable (a Writer, PrintStream, StringBuilder...) only when it
+ * fills or on flush, so a report costs a handful of writes rather than one
+ * synchronized call per line. Column padding matches printf's %-Ns, %-Nd and
+ * %-N.Df, including their HALF_UP rounding of the decimal value.
+ * Not thread-safe; call flush when the report is done.
+ */
+public class ReportWriter implements Flushable {
+    private static final int BUFFER_SIZE = 8192;
+    private static final String LINE_SEPARATOR = System.lineSeparator();
+    private static final long[] POWERS_OF_TEN = {1, 10, 100, 1000, 10000, 100000, 1000000};
+    // Scaled values at or above this are formatted through BigDecimal
+    private static final double MAX_FAST_SCALED = 1e15;
+
+    private final Appendable out;
+    private final char[] buffer;
+    private int position;
+    // Characters handed to the target before the current buffer
+    private long flushed;
+
+    public ReportWriter(Appendable out) {
+        this.out = out;
+        this.buffer = new char[BUFFER_SIZE];
+    }
+
+    // Characters written so far; pass to padFrom to pad a column built in pieces
+    public long length() {
+        return flushed + position;
+    }
+
+    public ReportWriter text(String value) throws IOException {
+        if (value == null) {
+            value = "null";
+        }
+        int length = value.length();
+        if (length > buffer.length - position) {
+            flushBuffer();
+            if (length > buffer.length) {
+                out.append(value);
+                flushed += length;
+                return this;
+            }
+        }
+        value.getChars(0, length, buffer, position);
+        position += length;
+        return this;
+    }
+
+    // Text left-justified in a column, like %-Ns; longer text is not cut
+    public ReportWriter text(String value, int width) throws IOException {
+        long start = length();
+        text(value);
+        return padFrom(start, width);
+    }
+
+    public ReportWriter character(char value) throws IOException {
+        if (position == buffer.length) {
+            flushBuffer();
+        }
+        buffer[position++] = value;
+        return this;
+    }
+
+    // The same character count times, e.g. a separator rule
+    public ReportWriter repeat(char value, int count) throws IOException {
+        for (int i = 0; i < count; i++) {
+            character(value);
+        }
+        return this;
+    }
+
+    public ReportWriter number(long value) throws IOException {
+        if (value == Long.MIN_VALUE) {
+            return text(Long.toString(value));
+        }
+        if (value < 0) {
+            character('-');
+            value = -value;
+        }
+        return digits(value, 1);
+    }
+
+    // Integer left-justified in a column, like %-Nd
+    public ReportWriter number(long value, int width) throws IOException {
+        long start = length();
+        number(value);
+        return padFrom(start, width);
+    }
+
+    // Fixed-point number with 0-6 decimals, like %.Nf
+    public ReportWriter decimal(double value, int decimals) throws IOException {
+        if (decimals < 0 || decimals >= POWERS_OF_TEN.length) {
+            throw new IllegalArgumentException("Unsupported decimals: " + decimals);
+        }
+        if (Double.isNaN(value) || Double.isInfinite(value)) {
+            return text(Double.toString(value));
+        }
+        boolean negative = value < 0 || (value == 0 && 1 / value < 0);
+        double scaled = Math.abs(value) * POWERS_OF_TEN[decimals];
+        if (scaled < MAX_FAST_SCALED) {
+            double whole = Math.floor(scaled);
+            double fraction = scaled - whole;
+            // Near a tie the binary value may sit either side of .5; %.Nf rounds
+            // the shortest decimal form instead, so defer to BigDecimal there
+            if (Math.abs(fraction - 0.5) > 1e-6) {
+                long units = (long) whole + (fraction > 0.5 ? 1 : 0);
+                if (negative) {
+                    character('-');
+                }
+                long power = POWERS_OF_TEN[decimals];
+                digits(units / power, 1);
+                if (decimals > 0) {
+                    character('.');
+                    digits(units % power, decimals);
+                }
+                return this;
+            }
+        }
+        String formatted = BigDecimal.valueOf(Math.abs(value)).setScale(decimals, RoundingMode.HALF_UP).toPlainString();
+        if (negative) {
+            character('-');
+        }
+        return text(formatted);
+    }
+
+    // Fixed-point number left-justified in a column, like %-W.Nf
+    public ReportWriter decimal(double value, int decimals, int width) throws IOException {
+        long start = length();
+        decimal(value, decimals);
+        return padFrom(start, width);
+    }
+
+    // Pad with spaces until the column that began at start is width wide
+    public ReportWriter padFrom(long start, int width) throws IOException {
+        return repeat(' ', (int) (start + width - length()));
+    }
+
+    public ReportWriter newLine() throws IOException {
+        return text(LINE_SEPARATOR);
+    }
+
+    // Text followed by a line separator, like println
+    public ReportWriter line(String value) throws IOException {
+        return text(value).newLine();
+    }
+
+    // Hand the buffer to the target and flush the target if it can be
+    @Override
+    public void flush() throws IOException {
+        flushBuffer();
+        if (out instanceof Flushable) {
+            ((Flushable) out).flush();
+        }
+    }
+
+    // Unsigned value in decimal, zero-padded to at least minDigits
+    private ReportWriter digits(long value, int minDigits) throws IOException {
+        int count = 1;
+        for (long rest = value / 10; rest > 0; rest /= 10) {
+            count++;
+        }
+        for (int i = count; i < minDigits; i++) {
+            character('0');
+        }
+        if (count > buffer.length - position) {
+            flushBuffer();
+        }
+        for (int i = position + count - 1; i >= position; i--) {
+            buffer[i] = (char) ('0' + value % 10);
+            value /= 10;
+        }
+        position += count;
+        return this;
+    }
+
+    private void flushBuffer() throws IOException {
+        if (position == 0) {
+            return;
+        }
+        if (out instanceof Writer) {
+            ((Writer) out).write(buffer, 0, position);
+        } else {
+            out.append(CharBuffer.wrap(buffer, 0, position));
+        }
+        flushed += position;
+        position = 0;
+    }
+}
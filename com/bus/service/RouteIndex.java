@@ -0,0 +1,267 @@
+package com.bus.service;
+
+import com.bus.model.Bus;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * RouteIndex Class
+ * Buckets buses by normalized (source, destination) and keeps, per route, the
+ * subset that still has seats. The subset changes only when a bus sells out or
+ * gets a seat back (see Bus.AvailabilityListener), so a search returns a
+ * ready-made list in O(1) instead of scanning the fleet. Routes are keyed by
+ * the names as given, hashed and compared in normalized form in place, so a
+ * search builds no key string. The index stands in for a search-result cache,
+ * and keeps the same hit, miss, eviction and invalidation counts.
+ */
+public class RouteIndex implements Bus.AvailabilityListener {
+    private Map<RouteKey, Route> routes;
+    private Map<Bus, Route> routesByBus;
+    private final LongAdder hits;
+    private final LongAdder misses;
+    private final LongAdder invalidations;
+
+    public RouteIndex() {
+        this.routes = new ConcurrentHashMap<>();
+        this.routesByBus = new ConcurrentHashMap<>();
+        this.hits = new LongAdder();
+        this.misses = new LongAdder();
+        this.invalidations = new LongAdder();
+    }
+
+    // Rebuild all routes from the fleet's current seat availability
+    public void rebuild(List<Bus> buses) {
+        Map<RouteKey, List<Bus>> grouped = new LinkedHashMap<>();
+        for (Bus bus : buses) {
+            grouped.computeIfAbsent(new RouteKey(bus.getSource(), bus.getDestination()), k -> new ArrayList<>()).add(bus);
+        }
+
+        Map<RouteKey, Route> newRoutes = new ConcurrentHashMap<>();
+        Map<Bus, Route> newRoutesByBus = new ConcurrentHashMap<>();
+        for (Map.Entry<RouteKey, List<Bus>> entry : grouped.entrySet()) {
+            Route route = new Route(entry.getValue());
+            newRoutes.put(entry.getKey(), route);
+            for (Bus bus : entry.getValue()) {
+                newRoutesByBus.put(bus, route);
+            }
+        }
+        routes = newRoutes;
+        routesByBus = newRoutesByBus;
+    }
+
+    // Index a bus added after the fleet was loaded
+    public void addBus(Bus bus) {
+        Route route = routes.computeIfAbsent(new RouteKey(bus.getSource(), bus.getDestination()),
+                k -> new Route(Collections.emptyList()));
+        route.add(bus);
+        routesByBus.put(bus, route);
+    }
+
+    // Buses on a route that have at least one free seat, in fleet order. A known route is a
+    // hit, served from its ready-made list; one no bus runs is a miss.
+    public List<Bus> findBookable(String source, String destination) {
+        Route route = find(source, destination);
+        if (route == null) {
+            misses.increment();
+            return Collections.emptyList();
+        }
+        hits.increment();
+        return route.bookable;
+    }
+
+    // All buses on a route, in fleet order
+    public List<Bus> findAll(String source, String destination) {
+        Route route = find(source, destination);
+        return route == null ? Collections.emptyList() : route.all;
+    }
+
+    @Override
+    public void availabilityChanged(Bus bus, boolean hasSeats) {
+        Route route = routesByBus.get(bus);
+        if (route != null) {
+            route.setBookable(bus, hasSeats);
+            invalidations.increment();
+        }
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    // Always 0: every route is kept, so nothing is ever pushed out
+    public long getEvictions() {
+        return 0;
+    }
+
+    // Bookable lists republished because seat availability on their route changed
+    public long getInvalidations() {
+        return invalidations.sum();
+    }
+
+    // Hits as a percentage of lookups
+    public double getHitRate() {
+        long lookups = getHits() + getMisses();
+        return lookups == 0 ? 0 : getHits() * 100.0 / lookups;
+    }
+
+    // Case- and whitespace-insensitive key for a route
+    public static String routeKey(String source, String destination) {
+        return normalizeCity(source) + "\u0000" + normalizeCity(destination);
+    }
+
+    // The one normalized form of a city name, used by every city lookup: trimmed, with each
+    // char upper-cased on its own so route keys can hash and compare names in place alike
+    public static String normalizeCity(String city) {
+        int start = start(city);
+        int end = end(city, start);
+        char[] chars = new char[end - start];
+        boolean changed = end - start != city.length();
+        for (int i = start; i < end; i++) {
+            char c = city.charAt(i);
+            chars[i - start] = Character.toUpperCase(c);
+            changed |= chars[i - start] != c;
+        }
+        return changed ? new String(chars) : city;
+    }
+
+    // normalizeCity(city).hashCode(), without building the normalized name
+    private static int cityHash(String city) {
+        int h = 0;
+        for (int i = start(city), end = end(city, i); i < end; i++) {
+            h = 31 * h + Character.toUpperCase(city.charAt(i));
+        }
+        return h;
+    }
+
+    // Whether two names have the same normalizeCity form, without building either
+    private static boolean sameCity(String a, String b) {
+        int i = start(a);
+        int j = start(b);
+        int end = end(a, i);
+        if (end - i != end(b, j) - j) {
+            return false;
+        }
+        for (; i < end; i++, j++) {
+            if (Character.toUpperCase(a.charAt(i)) != Character.toUpperCase(b.charAt(j))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Bounds of a name without surrounding whitespace, as String.trim draws them
+    private static int start(String city) {
+        int i = 0;
+        while (i < city.length() && city.charAt(i) <= ' ') {
+            i++;
+        }
+        return i;
+    }
+
+    private static int end(String city, int start) {
+        int end = city.length();
+        while (end > start && city.charAt(end - 1) <= ' ') {
+            end--;
+        }
+        return end;
+    }
+
+    private Route find(String source, String destination) {
+        if (source == null || destination == null) {
+            return null;
+        }
+        return routes.get(new RouteKey(source, destination));
+    }
+
+    /**
+     * A (source, destination) pair that hashes and compares like routeKey
+     * without building it
+     */
+    private static class RouteKey {
+        private final String source;
+        private final String destination;
+        private final int hash;
+
+        RouteKey(String source, String destination) {
+            this.source = source;
+            this.destination = destination;
+            this.hash = 31 * cityHash(source) + cityHash(destination);
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (!(other instanceof RouteKey)) {
+                return false;
+            }
+            RouteKey key = (RouteKey) other;
+            return hash == key.hash && sameCity(source, key.source) && sameCity(destination, key.destination);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+
+    /**
+     * The buses on one route and which of them are bookable. Both lists are
+     * immutable snapshots, replaced (copy-on-write) when a bus sells out, frees
+     * up or joins the route, so readers never lock.
+     */
+    private static class Route {
+        private Bus[] buses;
+        private boolean[] open;
+        private volatile List<Bus> all;
+        private volatile List<Bus> bookable;
+
+        Route(List<Bus> buses) {
+            this.buses = buses.toArray(new Bus[0]);
+            this.all = Collections.unmodifiableList(Arrays.asList(this.buses));
+            this.open = new boolean[this.buses.length];
+            for (int i = 0; i < this.buses.length; i++) {
+                open[i] = this.buses[i].getSeatsAvailable() > 0;
+            }
+            publish();
+        }
+
+        synchronized void add(Bus bus) {
+            int n = buses.length;
+            buses = Arrays.copyOf(buses, n + 1);
+            open = Arrays.copyOf(open, n + 1);
+            buses[n] = bus;
+            open[n] = bus.getSeatsAvailable() > 0;
+            all = Collections.unmodifiableList(Arrays.asList(buses));
+            publish();
+        }
+
+        synchronized void setBookable(Bus bus, boolean hasSeats) {
+            for (int i = 0; i < buses.length; i++) {
+                if (buses[i] == bus) {
+                    open[i] = hasSeats;
+                }
+            }
+            publish();
+        }
+
+        private void publish() {
+            List<Bus> snapshot = new ArrayList<>(buses.length);
+            for (int i = 0; i < buses.length; i++) {
+                if (open[i]) {
+                    snapshot.add(buses[i]);
+                }
+            }
+            bookable = Collections.unmodifiableList(snapshot);
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,14 @@
+package com.bus.service;
+
+/**
+ * SeatPreference Enum
+ * How BusService.bookGroup picks seats for a group
+ */
+public enum SeatPreference {
+    // Seats side by side, or no booking at all
+    TOGETHER,
+    // Seats side by side if there is such a run, otherwise the lowest free seats
+    PREFER_TOGETHER,
+    // The lowest free seats
+    ANY
+}
\ No newline at end of file
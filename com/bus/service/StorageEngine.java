@@ -0,0 +1,59 @@
+package com.bus.service;
+
+import java.io.IOException;
+
+/**
+ * StorageEngine Enum
+ * Selects the repositories BusService stores buses and bookings in
+ */
+public enum StorageEngine {
+    // buses.csv, plus a bookings.csv snapshot with a journal of later changes
+    CSV,
+    // Fleet read from buses.csv; bookings are kept in memory only and lost on exit
+    MEMORY,
+    // buses.csv, plus an append-only booking log that is never rewritten
+    LOG,
+    // buses.csv, plus fixed-width booking records in a memory-mapped file
+    MAPPED;
+
+    // Resolve an engine name, falling back to the default for unknown values
+    public static StorageEngine parse(String name, StorageEngine defaultEngine) {
+        if (name == null || name.trim().isEmpty()) {
+            return defaultEngine;
+        }
+        try {
+            return valueOf(name.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            System.err.println("Unknown storage engine '" + name + "', using " + defaultEngine);
+            return defaultEngine;
+        }
+    }
+
+    // Create the repository for the fleet
+    public BusRepository createBusRepository(FileService fileService) throws IOException {
+        if (this == MEMORY) {
+            fileService.initializeFiles();
+            return new InMemoryBusRepository(fileService.loadBuses());
+        }
+        return new CsvBusRepository(fileService);
+    }
+
+    // Create the waitlist; persisted next to the bookings unless they are in memory only
+    public Waitlist createWaitlist(FileService fileService, DurabilityMode durabilityMode) {
+        return this == MEMORY ? new Waitlist() : new Waitlist(fileService, durabilityMode);
+    }
+
+    // Create the repository for bookings
+    public BookingRepository createBookingRepository(FileService fileService, DurabilityMode durabilityMode) {
+        switch (this) {
+            case MEMORY:
+                return new InMemoryBookingRepository();
+            case LOG:
+                return new AppendLogBookingRepository(fileService, durabilityMode);
+            case MAPPED:
+                return new MappedBookingRepository(fileService, durabilityMode);
+            default:
+                return new CsvBookingRepository(fileService, durabilityMode);
+        }
+    }
+}
\ No newline at end of file
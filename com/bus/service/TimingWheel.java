@@ -0,0 +1,169 @@
+package com.bus.service;
+
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * TimingWheel Class
+ * Hashed timing wheel: a ring of buckets, one per tick, each holding a doubly
+ * linked list of timeouts. Scheduling and cancelling link or unlink one node
+ * (O(1)); each tick a single thread visits only the bucket under the hand,
+ * firing timeouts whose remaining rounds reach zero. Delays longer than one
+ * turn of the wheel wait out the extra rounds in their bucket. Expiry is
+ * accurate to one tick.
+ */
+public class TimingWheel<T> implements Closeable {
+    private final long tickNanos;
+    private final Timeout<T>[] buckets;
+    private final int mask;
+    private final Consumer<T> onExpiry;
+    private final long startNanos;
+    private final Thread thread;
+
+    // Next tick the hand will process; guarded by this
+    private long tick;
+    private int pending;
+    private volatile boolean running;
+
+    // wheelSize is rounded up to a power of two
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public TimingWheel(long tickMillis, int wheelSize, Consumer<T> onExpiry, String threadName) {
+        int size = Integer.highestOneBit(Math.max(2, wheelSize) - 1) << 1;
+        this.tickNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(1, tickMillis));
+        this.buckets = new Timeout[size];
+        this.mask = size - 1;
+        this.onExpiry = onExpiry;
+        this.startNanos = System.nanoTime();
+        this.running = true;
+        this.thread = new Thread(this::run, threadName);
+        this.thread.setDaemon(true);
+        this.thread.start();
+    }
+
+    // Fire onExpiry for the item after the delay, unless cancelled first
+    public synchronized Timeout<T> schedule(T item, long delayMillis) {
+        long deadline = System.nanoTime() - startNanos + TimeUnit.MILLISECONDS.toNanos(Math.max(0, delayMillis));
+        // Round up so an item never fires early; never into a bucket the hand has passed
+        long due = Math.max(tick, (deadline + tickNanos - 1) / tickNanos);
+        Timeout<T> timeout = new Timeout<>(item, (due - tick) >> Long.numberOfTrailingZeros(buckets.length));
+        link(timeout, (int) (due & mask));
+        pending++;
+        return timeout;
+    }
+
+    // Stop a timeout from firing; false if it already fired or was cancelled
+    public synchronized boolean cancel(Timeout<T> timeout) {
+        if (timeout.bucket < 0) {
+            return false;
+        }
+        unlink(timeout);
+        pending--;
+        return true;
+    }
+
+    // Number of timeouts waiting to fire
+    public synchronized int size() {
+        return pending;
+    }
+
+    // Stop the timer thread; pending timeouts never fire
+    @Override
+    public void close() {
+        running = false;
+        thread.interrupt();
+        try {
+            thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void run() {
+        List<T> expired = new ArrayList<>();
+        while (running) {
+            long wait = (tick + 1) * tickNanos - (System.nanoTime() - startNanos);
+            if (wait > 0) {
+                try {
+                    TimeUnit.NANOSECONDS.sleep(wait);
+                } catch (InterruptedException e) {
+                    continue;
+                }
+            }
+            advance(expired);
+
+            // Callbacks run outside the lock so they may schedule or cancel
+            for (T item : expired) {
+                try {
+                    onExpiry.accept(item);
+                } catch (RuntimeException e) {
+                    System.err.println("Error in expiry callback: " + e.getMessage());
+                }
+            }
+            expired.clear();
+        }
+    }
+
+    // Process the bucket under the hand and move the hand one tick forward
+    private synchronized void advance(List<T> expired) {
+        int bucket = (int) (tick & mask);
+        Timeout<T> timeout = buckets[bucket];
+        while (timeout != null) {
+            Timeout<T> next = timeout.next;
+            if (timeout.rounds <= 0) {
+                unlink(timeout);
+                pending--;
+                expired.add(timeout.item);
+            } else {
+                timeout.rounds--;
+            }
+            timeout = next;
+        }
+        tick++;
+    }
+
+    private void link(Timeout<T> timeout, int bucket) {
+        timeout.bucket = bucket;
+        timeout.next = buckets[bucket];
+        if (timeout.next != null) {
+            timeout.next.previous = timeout;
+        }
+        buckets[bucket] = timeout;
+    }
+
+    private void unlink(Timeout<T> timeout) {
+        if (timeout.previous != null) {
+            timeout.previous.next = timeout.next;
+        } else {
+            buckets[timeout.bucket] = timeout.next;
+        }
+        if (timeout.next != null) {
+            timeout.next.previous = timeout.previous;
+        }
+        timeout.previous = null;
+        timeout.next = null;
+        timeout.bucket = -1;
+    }
+
+    /**
+     * A scheduled item and its place in the wheel.
+     */
+    public static class Timeout<T> {
+        private final T item;
+        private long rounds;
+        private int bucket;
+        private Timeout<T> previous;
+        private Timeout<T> next;
+
+        Timeout(T item, long rounds) {
+            this.item = item;
+            this.rounds = rounds;
+        }
+
+        public T getItem() {
+            return item;
+        }
+    }
+}
\ No newline at end of file
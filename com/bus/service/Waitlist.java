@@ -0,0 +1,318 @@
+package com.bus.service;
+
+import com.bus.model.WaitlistEntry;
+import com.bus.util.CsvReader;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Predicate;
+
+/**
+ * Waitlist Class
+ * Per-bus FIFO queues of passengers waiting for a seat on a sold-out bus.
+ * Joining, promotion and leaving are O(1): leaving only marks the entry, and
+ * marked entries are skipped when they reach the head. Changes are appended
+ * to waitlist.journal (JOIN/PROMOTE/LEAVE) through a JournalWriter, and the
+ * journal is rewritten to the still-waiting entries each time it is opened
+ * and whenever records for entries that have left it pass the compaction
+ * threshold. A promotion's booking and its PROMOTE record go to different
+ * journals, so opening settles each entry by whether its booking was actually
+ * stored; a promotion stays in the journal until its booking is.
+ * Mutations for a bus must come from whoever owns that bus in BusService.
+ */
+public class Waitlist implements Closeable {
+    private static final String JOIN = "JOIN";
+    private static final String PROMOTE = "PROMOTE";
+    private static final String LEAVE = "LEAVE";
+    private static final int COMPACTION_THRESHOLD = 1000;
+    private static final int GROUP_COMMIT_MILLIS = Integer.getInteger("bus.groupCommitMillis", 0);
+    private static final int GROUP_COMMIT_SIZE = Integer.getInteger("bus.groupCommitSize", 512);
+
+    private FileService fileService;
+    private DurabilityMode durabilityMode;
+    private JournalWriter writer;
+    private Map<String, Deque<WaitlistEntry>> queuesByBus;
+    private Map<String, WaitlistEntry> entriesById;
+    // Promoted entries whose booking is not stored yet, kept in the journal until it is;
+    // ordered by ID, which is the order they joined in
+    private Map<String, WaitlistEntry> unsettled;
+    // Records in the journal since it was last rewritten
+    private AtomicInteger records;
+    private ReadWriteLock stateLock;
+    private ExecutorService compactionExecutor;
+    private AtomicBoolean compactionScheduled;
+
+    // Kept in memory only
+    public Waitlist() {
+        this(null, null);
+    }
+
+    // Persisted in the file service's data directory
+    public Waitlist(FileService fileService, DurabilityMode durabilityMode) {
+        this.fileService = fileService;
+        this.durabilityMode = durabilityMode;
+        this.queuesByBus = new ConcurrentHashMap<>();
+        this.entriesById = new ConcurrentHashMap<>();
+        this.unsettled = new ConcurrentSkipListMap<>();
+        this.records = new AtomicInteger();
+        this.stateLock = new ReentrantReadWriteLock();
+        this.compactionScheduled = new AtomicBoolean();
+    }
+
+    // Load the stored queues and compact the journal; called once before any changes.
+    // hasBooking tells whether an entry's promoted booking (the booking ID recorded by
+    // PROMOTE, if any) is in storage: such entries were promoted even if a crash lost
+    // their PROMOTE record, and the others are still waiting even if it was written.
+    public void open(Predicate<WaitlistEntry> hasBooking) throws IOException {
+        if (fileService == null) {
+            return;
+        }
+
+        Map<String, WaitlistEntry> waiting = new LinkedHashMap<>();
+        try (CsvReader csv = fileService.openJournalReader(FileService.WAITLIST_FILE)) {
+            while (csv.nextRecord()) {
+                try {
+                    String type = csv.nextString();
+                    if (type.equals(JOIN)) {
+                        WaitlistEntry entry = WaitlistEntry.fromCSV(csv);
+                        waiting.put(entry.getEntryId(), entry);
+                    } else if (type.equals(PROMOTE)) {
+                        WaitlistEntry entry = waiting.get(csv.nextString());
+                        if (entry != null) {
+                            entry.setBookingId(csv.nextString());
+                        }
+                    } else if (type.equals(LEAVE)) {
+                        waiting.remove(csv.nextString());
+                    } else {
+                        throw new IllegalArgumentException("Unknown waitlist entry type: " + type);
+                    }
+                } catch (RuntimeException e) {
+                    // A torn final write is expected after a crash; nothing after it is trustworthy
+                    System.err.println("Stopping waitlist replay at malformed entry: " + e.getMessage());
+                    break;
+                }
+            }
+        }
+
+        for (Iterator<WaitlistEntry> it = waiting.values().iterator(); it.hasNext(); ) {
+            WaitlistEntry entry = it.next();
+            if (hasBooking.test(entry)) {
+                it.remove();
+            } else if (entry.getBookingId() != null) {
+                System.err.println("Returning " + entry.getEntryId() + " to the waitlist; its booking "
+                        + entry.getBookingId() + " was not stored");
+                entry.setBookingId(null);
+            }
+        }
+
+        writer = new JournalWriter(fileService.openJournalChannel(FileService.WAITLIST_FILE), durabilityMode,
+                GROUP_COMMIT_MILLIS, GROUP_COMMIT_SIZE);
+        compactionExecutor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "waitlist-compaction");
+            thread.setDaemon(true);
+            return thread;
+        });
+        for (WaitlistEntry entry : waiting.values()) {
+            queue(entry.getBusNo()).addLast(entry);
+            entriesById.put(entry.getEntryId(), entry);
+        }
+        rewrite();
+    }
+
+    // Put a passenger at the back of a bus's queue
+    public CompletableFuture<Void> add(WaitlistEntry entry) {
+        stateLock.readLock().lock();
+        try {
+            queue(entry.getBusNo()).addLast(entry);
+            entriesById.put(entry.getEntryId(), entry);
+            return append(JOIN + "," + entry.toCSV());
+        } finally {
+            stateLock.readLock().unlock();
+        }
+    }
+
+    // The passenger next in line for a bus, or null if nobody is waiting
+    public WaitlistEntry peek(String busNo) {
+        Deque<WaitlistEntry> queue = queuesByBus.get(key(busNo));
+        if (queue == null) {
+            return null;
+        }
+        WaitlistEntry head = queue.peekFirst();
+        // Drop entries that left while queued
+        while (head != null && !head.isWaiting()) {
+            queue.pollFirst();
+            head = queue.peekFirst();
+        }
+        return head;
+    }
+
+    // Take the head of the queue off, now that it holds the given booking. Its records stay
+    // in the journal until the booking's write (stored) succeeds.
+    public CompletableFuture<Void> promote(WaitlistEntry entry, String bookingId, CompletableFuture<?> stored) {
+        CompletableFuture<Void> promoted;
+        stateLock.readLock().lock();
+        try {
+            Deque<WaitlistEntry> queue = queue(entry.getBusNo());
+            if (queue.peekFirst() == entry) {
+                queue.pollFirst();
+            } else {
+                queue.remove(entry);
+            }
+            entry.setBookingId(bookingId);
+            entry.setStatus("PROMOTED");
+            entriesById.remove(entry.getEntryId());
+            unsettled.put(entry.getEntryId(), entry);
+            promoted = append(PROMOTE + "," + entry.getEntryId() + "," + bookingId);
+        } finally {
+            stateLock.readLock().unlock();
+        }
+        stored.thenRun(() -> {
+            unsettled.remove(entry.getEntryId());
+            scheduleCompactionIfNeeded();
+        });
+        return promoted;
+    }
+
+    // Take a passenger off the waitlist; the queue slot is reclaimed when it reaches the head
+    public CompletableFuture<Void> remove(WaitlistEntry entry) {
+        stateLock.readLock().lock();
+        try {
+            entry.setStatus("LEFT");
+            entriesById.remove(entry.getEntryId());
+            return append(LEAVE + "," + entry.getEntryId());
+        } finally {
+            stateLock.readLock().unlock();
+        }
+    }
+
+    // Get a waiting entry by ID, or null if unknown or no longer waiting
+    public WaitlistEntry find(String entryId) {
+        return entryId == null ? null : entriesById.get(entryId.trim().toUpperCase(Locale.ROOT));
+    }
+
+    // Passengers still waiting for a bus, in queue order
+    public List<WaitlistEntry> findByBus(String busNo) {
+        List<WaitlistEntry> waiting = new ArrayList<>();
+        Deque<WaitlistEntry> queue = busNo == null ? null : queuesByBus.get(key(busNo));
+        if (queue != null) {
+            for (WaitlistEntry entry : queue) {
+                if (entry.isWaiting()) {
+                    waiting.add(entry);
+                }
+            }
+        }
+        return waiting;
+    }
+
+    // Number of passengers waiting across all buses
+    public int size() {
+        return entriesById.size();
+    }
+
+    // Drain any running compaction, flush pending writes and release the journal file
+    @Override
+    public void close() throws IOException {
+        if (compactionExecutor != null) {
+            compactionExecutor.shutdown();
+            try {
+                compactionExecutor.awaitTermination(1, TimeUnit.MINUTES);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        if (writer != null) {
+            writer.close();
+        }
+    }
+
+    private CompletableFuture<Void> append(String line) {
+        if (writer == null) {
+            return CompletableFuture.completedFuture(null);
+        }
+        records.incrementAndGet();
+        return writer.append(line).whenComplete((v, error) -> scheduleCompactionIfNeeded());
+    }
+
+    // Records that no longer describe a waiting entry or an unsettled promotion (each of
+    // which takes one JOIN, plus a PROMOTE) have passed the threshold
+    private boolean needsCompaction() {
+        return records.get() - entriesById.size() - 2 * unsettled.size() >= COMPACTION_THRESHOLD;
+    }
+
+    // Rewrite the journal once enough of it is dead. Runs on its own thread: write futures
+    // complete on the journal writer, which the rewrite itself has to wait for.
+    private void scheduleCompactionIfNeeded() {
+        if (writer != null && needsCompaction() && compactionScheduled.compareAndSet(false, true)) {
+            compactionExecutor.execute(() -> {
+                try {
+                    compact();
+                } catch (IOException e) {
+                    System.err.println("Error compacting waitlist journal: " + e.getMessage());
+                } finally {
+                    compactionScheduled.set(false);
+                }
+            });
+        }
+    }
+
+    private void compact() throws IOException {
+        stateLock.writeLock().lock();
+        try {
+            if (needsCompaction()) {
+                rewrite();
+            }
+        } finally {
+            stateLock.writeLock().unlock();
+        }
+    }
+
+    // Replace the journal with a JOIN and PROMOTE for each unsettled promotion, then a JOIN
+    // for each waiting entry in queue order. Promotions come first since they were taken from
+    // the heads of their queues, and go back there if their booking is lost.
+    // Callers must ensure nothing is appended meanwhile.
+    private void rewrite() throws IOException {
+        JournalService.await(writer.truncate());
+        int written = 0;
+        for (WaitlistEntry entry : unsettled.values()) {
+            writer.append(JOIN + "," + entry.toCSV());
+            writer.append(PROMOTE + "," + entry.getEntryId() + "," + entry.getBookingId());
+            written += 2;
+        }
+        for (Deque<WaitlistEntry> queue : queuesByBus.values()) {
+            for (WaitlistEntry entry : queue) {
+                if (entry.isWaiting()) {
+                    writer.append(JOIN + "," + entry.toCSV());
+                    written++;
+                }
+            }
+        }
+        records.set(written);
+        JournalService.await(writer.flush());
+    }
+
+    private Deque<WaitlistEntry> queue(String busNo) {
+        return queuesByBus.computeIfAbsent(key(busNo), k -> new ConcurrentLinkedDeque<>());
+    }
+
+    private static String key(String busNo) {
+        return busNo.toUpperCase(Locale.ROOT);
+    }
+}
\ No newline at end of file
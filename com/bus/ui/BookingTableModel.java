@@ -0,0 +1,485 @@
+package com.bus.ui;
+
+import com.bus.model.Booking;
+import com.bus.service.BookingFilter;
+import com.bus.service.BusService;
+
+import javax.swing.table.AbstractTableModel;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * BookingTableModel Class
+ * Table model that reads booking rows from BusService by storage position
+ * instead of copying them, so only the rows being painted are ever touched.
+ * With no filter or sort, row N is simply the Nth stored booking. A filtered
+ * or sorted view is a plain int[] of positions: the bus filter comes from the
+ * per-bus index, and sorting extracts one key per row into a primitive or
+ * String array and merge-sorts the positions against it. New and cancelled
+ * bookings are applied as single-row events rather than a reload.
+ * Call everything on the EDT except ViewQuery.run, which does the heavy
+ * lifting and is meant for a background thread.
+ */
+public class BookingTableModel extends AbstractTableModel {
+    private static final long serialVersionUID = 1L;
+
+    public static final int COLUMN_ID = 0;
+    public static final int COLUMN_PASSENGER = 1;
+    public static final int COLUMN_AGE = 2;
+    public static final int COLUMN_BUS = 3;
+    public static final int COLUMN_SEAT = 4;
+    public static final int COLUMN_FARE = 5;
+    public static final int COLUMN_STATUS = 6;
+
+    private static final String[] COLUMNS = {"Booking ID", "Passenger", "Age", "Bus No", "Seat", "Fare (₹)", "Status"};
+    private static final int INSERTION_SORT_THRESHOLD = 16;
+    private static final String[] STATUSES = {"CONFIRMED", "CANCELLED"};
+
+    private final BusService busService;
+    private String busFilter;
+    private String statusFilter;
+    private int sortColumn;
+    private boolean descending;
+
+    // Positions in display order, or null for every booking in storage order
+    private int[] view;
+    private int viewSize;
+    // When sorted by status, the status each row was placed under, so rows can be found by
+    // binary search even after their booking's status has changed
+    private String[] viewStatus;
+    // Bookings stored when the rows were last brought up to date
+    private int knownCount;
+
+    // Painting reads every column of a row in turn; a position always holds the same booking
+    private int cachedPosition;
+    private Booking cachedBooking;
+
+    public BookingTableModel(BusService busService) {
+        this.busService = busService;
+        this.sortColumn = -1;
+        this.cachedPosition = -1;
+    }
+
+    @Override
+    public int getRowCount() {
+        return view == null ? knownCount : viewSize;
+    }
+
+    @Override
+    public int getColumnCount() {
+        return COLUMNS.length;
+    }
+
+    @Override
+    public String getColumnName(int column) {
+        return COLUMNS[column];
+    }
+
+    @Override
+    public Class<?> getColumnClass(int column) {
+        return column == COLUMN_AGE || column == COLUMN_SEAT ? Integer.class : String.class;
+    }
+
+    @Override
+    public Object getValueAt(int row, int column) {
+        Booking booking = getBookingAt(row);
+        switch (column) {
+            case COLUMN_ID:
+                return booking.getBookingId();
+            case COLUMN_PASSENGER:
+                return booking.getPassenger().getName();
+            case COLUMN_AGE:
+                return booking.getPassenger().getAge();
+            case COLUMN_BUS:
+                return booking.getBusNo();
+            case COLUMN_SEAT:
+                return booking.getSeatNo();
+            case COLUMN_FARE:
+                return String.format("₹%.2f", booking.getFare());
+            default:
+                return booking.getStatus();
+        }
+    }
+
+    // Booking shown on a row
+    public Booking getBookingAt(int row) {
+        int position = view == null ? row : view[row];
+        if (position != cachedPosition) {
+            cachedBooking = busService.getBookingAt(position);
+            cachedPosition = position;
+        }
+        return cachedBooking;
+    }
+
+    // Show only bookings on a bus and/or with a status; null or blank means any
+    public void setFilter(String busNo, String status) {
+        this.busFilter = busNo == null || busNo.trim().isEmpty() ? null : busNo.trim();
+        this.statusFilter = status == null || status.trim().isEmpty() ? null : status.trim();
+    }
+
+    // Sort by a column, flipping the direction if it is already the sort column
+    public void toggleSort(int column) {
+        descending = column == sortColumn && !descending;
+        sortColumn = column;
+    }
+
+    // Snapshot the filter and sort for loading the view in the background
+    public ViewQuery query() {
+        return new ViewQuery(busService, busFilter, statusFilter, sortColumn, descending);
+    }
+
+    // Show a loaded view, then catch up with bookings stored while it was loading
+    public void apply(View loaded) {
+        view = loaded.positions;
+        viewSize = loaded.size;
+        viewStatus = loaded.statuses;
+        knownCount = loaded.count;
+        fireTableDataChanged();
+        bookingsStored();
+    }
+
+    // Add rows for bookings stored since the last look, one event per row
+    public void bookingsStored() {
+        int count = busService.getBookingCount();
+        if (count <= knownCount) {
+            return;
+        }
+        if (view == null) {
+            int first = knownCount;
+            knownCount = count;
+            fireTableRowsInserted(first, count - 1);
+            return;
+        }
+        for (int position = knownCount; position < count; position++) {
+            Booking booking = busService.getBookingAt(position);
+            if (matches(booking)) {
+                insert(position, booking);
+            }
+        }
+        knownCount = count;
+    }
+
+    // Update the row of a booking whose status changed, moving it in or out of the view as needed
+    public void bookingChanged(String bookingId) {
+        int position = busService.getBookingPosition(bookingId);
+        if (position < 0 || position >= knownCount) {
+            // Not shown yet; bookingsStored picks it up
+            return;
+        }
+        if (view == null) {
+            fireTableRowsUpdated(position, position);
+            return;
+        }
+
+        Booking booking = busService.getBookingAt(position);
+        int row = rowOf(position, booking);
+        if (row < 0) {
+            if (matches(booking)) {
+                insert(position, booking);
+            }
+        } else if (!matches(booking)) {
+            remove(row);
+        } else if (sortColumn == COLUMN_STATUS) {
+            remove(row);
+            insert(position, booking);
+        } else {
+            fireTableRowsUpdated(row, row);
+        }
+    }
+
+    private boolean matches(Booking booking) {
+        return (busFilter == null || busFilter.equalsIgnoreCase(booking.getBusNo()))
+                && (statusFilter == null || statusFilter.equalsIgnoreCase(booking.getStatus()));
+    }
+
+    // Row showing a position, or -1, found by binary search on the view's order. A row
+    // sorted by status sits under the status it was placed with, so each one is tried.
+    private int rowOf(int position, Booking booking) {
+        if (sortColumn < 0) {
+            int row = Arrays.binarySearch(view, 0, viewSize, position);
+            return row < 0 ? -1 : row;
+        }
+        if (sortColumn != COLUMN_STATUS) {
+            return searchRow(position, booking, null);
+        }
+        for (String status : STATUSES) {
+            int row = searchRow(position, booking, status);
+            if (row >= 0) {
+                return row;
+            }
+        }
+        return -1;
+    }
+
+    private int searchRow(int position, Booking booking, String status) {
+        int low = 0;
+        int high = viewSize - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int order = compareRow(mid, position, booking, status);
+            if (order < 0) {
+                low = mid + 1;
+            } else if (order > 0) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -1;
+    }
+
+    private void insert(int position, Booking booking) {
+        // First row that sorts after the booking; equal keys stay in storage order
+        String status = booking.getStatus();
+        int low = 0;
+        int high = viewSize;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (compareRow(mid, position, booking, status) <= 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+
+        if (viewSize == view.length) {
+            view = Arrays.copyOf(view, Math.max(16, viewSize + (viewSize >> 1)));
+        }
+        System.arraycopy(view, low, view, low + 1, viewSize - low);
+        view[low] = position;
+        if (viewStatus != null) {
+            if (viewSize == viewStatus.length) {
+                viewStatus = Arrays.copyOf(viewStatus, view.length);
+            }
+            System.arraycopy(viewStatus, low, viewStatus, low + 1, viewSize - low);
+            viewStatus[low] = status;
+        }
+        viewSize++;
+        fireTableRowsInserted(low, low);
+    }
+
+    private void remove(int row) {
+        System.arraycopy(view, row + 1, view, row, viewSize - row - 1);
+        if (viewStatus != null) {
+            System.arraycopy(viewStatus, row + 1, viewStatus, row, viewSize - row - 1);
+            viewStatus[viewSize - 1] = null;
+        }
+        viewSize--;
+        fireTableRowsDeleted(row, row);
+    }
+
+    // Order of a row against a booking at a position; status is the booking's status key
+    // when sorting by status, and the row's key is the status it was placed under
+    private int compareRow(int row, int position, Booking booking, String status) {
+        int rowPosition = view[row];
+        if (rowPosition == position) {
+            return 0;
+        }
+        if (sortColumn >= 0) {
+            int order = sortColumn == COLUMN_STATUS
+                    ? viewStatus[row].compareTo(status)
+                    : compareValues(busService.getBookingAt(rowPosition), booking, sortColumn);
+            if (order != 0) {
+                return descending ? -order : order;
+            }
+        }
+        return Integer.compare(rowPosition, position);
+    }
+
+    // Same ordering as the sort keys built by ViewQuery
+    private static int compareValues(Booking left, Booking right, int column) {
+        switch (column) {
+            case COLUMN_ID:
+                return left.getBookingId().compareTo(right.getBookingId());
+            case COLUMN_PASSENGER:
+                return String.CASE_INSENSITIVE_ORDER.compare(left.getPassenger().getName(), right.getPassenger().getName());
+            case COLUMN_AGE:
+                return Integer.compare(left.getPassenger().getAge(), right.getPassenger().getAge());
+            case COLUMN_BUS:
+                return left.getBusNo().compareTo(right.getBusNo());
+            case COLUMN_SEAT:
+                return Integer.compare(left.getSeatNo(), right.getSeatNo());
+            case COLUMN_FARE:
+                return Double.compare(left.getFare(), right.getFare());
+            default:
+                return left.getStatus().compareTo(right.getStatus());
+        }
+    }
+
+    /**
+     * Rows of a loaded view: positions in display order (null for storage order), and
+     * each row's status when sorted by status
+     */
+    public static class View {
+        private final int[] positions;
+        private final int size;
+        private final int count;
+        private final String[] statuses;
+
+        View(int[] positions, int size, int count, String[] statuses) {
+            this.positions = positions;
+            this.size = size;
+            this.count = count;
+            this.statuses = statuses;
+        }
+
+        // Number of rows in the view
+        public int size() {
+            return positions == null ? count : size;
+        }
+    }
+
+    /**
+     * Filter and sort captured on the EDT; run() builds the view and is safe off the EDT
+     */
+    public static class ViewQuery {
+        private final BusService busService;
+        private final String busFilter;
+        private final String statusFilter;
+        private final int sortColumn;
+        private final boolean descending;
+
+        ViewQuery(BusService busService, String busFilter, String statusFilter, int sortColumn, boolean descending) {
+            this.busService = busService;
+            this.busFilter = busFilter;
+            this.statusFilter = statusFilter;
+            this.sortColumn = sortColumn;
+            this.descending = descending;
+        }
+
+        // Build the view; storage order with no filter costs nothing
+        public View run() {
+            int count = busService.getBookingCount();
+            if (busFilter == null && statusFilter == null && sortColumn < 0) {
+                return new View(null, 0, count, null);
+            }
+
+            int[] positions;
+            int size = 0;
+            if (busFilter != null) {
+                // The per-bus index gives the candidates without scanning every booking
+                List<Booking> onBus = busService.getBookingsForBus(busFilter);
+                positions = new int[onBus.size()];
+                for (Booking booking : onBus) {
+                    int position = busService.getBookingPosition(booking.getBookingId());
+                    if (position >= 0 && position < count && hasStatus(booking)) {
+                        positions[size++] = position;
+                    }
+                }
+                Arrays.sort(positions, 0, size);
+            } else if (statusFilter != null) {
+                // The repository checks the status on its records; only matches are counted
+                BookingFilter filter = BookingFilter.all().withStatus(statusFilter);
+                positions = new int[count];
+                for (int position = busService.findNextBooking(filter, 0, count); position >= 0;
+                        position = busService.findNextBooking(filter, position + 1, count)) {
+                    positions[size++] = position;
+                }
+            } else {
+                positions = new int[count];
+                for (int position = 0; position < count; position++) {
+                    positions[size++] = position;
+                }
+            }
+
+            String[] statuses = sortColumn == COLUMN_STATUS ? new String[size] : null;
+            if (sortColumn >= 0) {
+                positions = sort(positions, size, statuses);
+            }
+            return new View(positions, size, count, statuses);
+        }
+
+        private boolean hasStatus(Booking booking) {
+            return statusFilter == null || statusFilter.equalsIgnoreCase(booking.getStatus());
+        }
+
+        // Read one key per row, then merge-sort row slots against the keys; stable, so ties keep
+        // storage order. Status keys are also handed back in row order through statuses.
+        private int[] sort(int[] positions, int size, String[] statuses) {
+            SlotOrder order;
+            if (sortColumn == COLUMN_AGE || sortColumn == COLUMN_SEAT || sortColumn == COLUMN_FARE) {
+                double[] keys = new double[size];
+                for (int i = 0; i < size; i++) {
+                    Booking booking = busService.getBookingAt(positions[i]);
+                    keys[i] = sortColumn == COLUMN_AGE ? booking.getPassenger().getAge()
+                            : sortColumn == COLUMN_SEAT ? booking.getSeatNo()
+                            : booking.getFare();
+                }
+                order = (a, b) -> Double.compare(keys[a], keys[b]);
+            } else {
+                String[] keys = new String[size];
+                for (int i = 0; i < size; i++) {
+                    Booking booking = busService.getBookingAt(positions[i]);
+                    keys[i] = sortColumn == COLUMN_ID ? booking.getBookingId()
+                            : sortColumn == COLUMN_PASSENGER ? booking.getPassenger().getName()
+                            : sortColumn == COLUMN_BUS ? booking.getBusNo()
+                            : booking.getStatus();
+                }
+                if (statuses != null) {
+                    System.arraycopy(keys, 0, statuses, 0, size);
+                }
+                order = sortColumn == COLUMN_PASSENGER
+                        ? (a, b) -> String.CASE_INSENSITIVE_ORDER.compare(keys[a], keys[b])
+                        : (a, b) -> keys[a].compareTo(keys[b]);
+            }
+            SlotOrder directed = descending ? (a, b) -> order.compare(b, a) : order;
+
+            int[] slots = new int[size];
+            for (int i = 0; i < size; i++) {
+                slots[i] = i;
+            }
+            mergeSort(slots, new int[size], 0, size, directed);
+
+            int[] sorted = new int[size];
+            for (int i = 0; i < size; i++) {
+                sorted[i] = positions[slots[i]];
+            }
+            if (statuses != null) {
+                String[] unsorted = statuses.clone();
+                for (int i = 0; i < size; i++) {
+                    statuses[i] = unsorted[slots[i]];
+                }
+            }
+            return sorted;
+        }
+
+        private static void mergeSort(int[] slots, int[] scratch, int from, int to, SlotOrder order) {
+            if (to - from <= INSERTION_SORT_THRESHOLD) {
+                for (int i = from + 1; i < to; i++) {
+                    int slot = slots[i];
+                    int j = i - 1;
+                    while (j >= from && order.compare(slots[j], slot) > 0) {
+                        slots[j + 1] = slots[j];
+                        j--;
+                    }
+                    slots[j + 1] = slot;
+                }
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            mergeSort(slots, scratch, from, mid, order);
+            mergeSort(slots, scratch, mid, to, order);
+            if (order.compare(slots[mid - 1], slots[mid]) <= 0) {
+                return;
+            }
+
+            System.arraycopy(slots, from, scratch, from, to - from);
+            int left = from;
+            int right = mid;
+            for (int i = from; i < to; i++) {
+                if (right >= to || (left < mid && order.compare(scratch[left], scratch[right]) <= 0)) {
+                    slots[i] = scratch[left++];
+                } else {
+                    slots[i] = scratch[right++];
+                }
+            }
+        }
+    }
+
+    /**
+     * Comparison of two row slots by their extracted keys
+     */
+    private interface SlotOrder {
+        int compare(int a, int b);
+    }
+}
\ No newline at end of file
@@ -2,23 +2,33 @@ package com.bus.ui;
 
 import com.bus.model.Bus;
 import com.bus.model.Booking;
+import com.bus.model.Journey;
 import com.bus.model.Passenger;
+import com.bus.model.WaitlistEntry;
+import com.bus.service.BookingStatistics;
 import com.bus.service.BusService;
+import com.bus.service.ChangeEvent;
 
 import javax.swing.*;
 import javax.swing.border.*;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
 import javax.swing.table.DefaultTableCellRenderer;
 import javax.swing.table.DefaultTableModel;
 import javax.swing.table.JTableHeader;
+import javax.swing.table.TableModel;
 import java.awt.*;
 import java.awt.event.*;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Vector;
 
 /**
  * Enhanced BusReservationUI - Modern GUI Application
  */
 public class BusReservationUI extends JFrame {
     private BusService busService;
+    private UiTaskRunner tasks;
     private JPanel mainPanel;
     private CardLayout cardLayout;
 
@@ -35,19 +45,33 @@ public class BusReservationUI extends JFrame {
 
     // Components
     private JTable busTable;
-    private DefaultTableModel busTableModel;
+    private BusTableModel busTableModel;
     private JTable bookingTable;
-    private DefaultTableModel bookingTableModel;
+    private BookingTableModel bookingTableModel;
+    // Home screen actions that need the service; disabled until it has loaded
+    private List<JPanel> serviceCards = new ArrayList<>();
 
     public BusReservationUI() {
-        busService = new BusService();
+        tasks = new UiTaskRunner(this);
         initializeUI();
+        // Loading the fleet and replaying the booking history can take a while, so it runs
+        // off the EDT; the window shows at once and its actions come alive when it is done
+        tasks.submit("startup", "Loading bookings", BusService::new, this::start, ex -> {
+            showError("Could not load the booking system: " + ex.getMessage());
+            System.exit(1);
+        });
     }
 
     private void initializeUI() {
         setTitle("Bus Reservation System - Professional Edition");
         setSize(1200, 800);
-        setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
+        setDefaultCloseOperation(JFrame.DO_NOTHING_ON_CLOSE);
+        addWindowListener(new WindowAdapter() {
+            @Override
+            public void windowClosing(WindowEvent e) {
+                exit();
+            }
+        });
         setLocationRelativeTo(null);
 
         // Create main panel with CardLayout
@@ -55,18 +79,43 @@ public class BusReservationUI extends JFrame {
         mainPanel = new JPanel(cardLayout);
         mainPanel.setBackground(LIGHT_BG);
 
-        // Create different screens
+        // The other screens are added once the service has loaded
         mainPanel.add(createHomeScreen(), "HOME");
+
+        add(mainPanel, BorderLayout.CENTER);
+        add(tasks.getStatusBar(), BorderLayout.SOUTH);
+        cardLayout.show(mainPanel, "HOME");
+    }
+
+    // Take the loaded service: create the screens that use it and enable the home screen
+    private void start(BusService service) {
+        busService = service;
         mainPanel.add(createViewBusesScreen(), "VIEW_BUSES");
         mainPanel.add(createSearchBusesScreen(), "SEARCH_BUSES");
         mainPanel.add(createBookTicketScreen(), "BOOK_TICKET");
         mainPanel.add(createCancelTicketScreen(), "CANCEL_TICKET");
         mainPanel.add(createViewBookingScreen(), "VIEW_BOOKING");
         mainPanel.add(createViewAllBookingsScreen(), "VIEW_ALL_BOOKINGS");
+        mainPanel.add(createFindByPhoneScreen(), "FIND_BY_PHONE");
         mainPanel.add(createRevenueReportScreen(), "REVENUE_REPORT");
+        busService.getChangeEvents().subscribe(SwingUtilities::invokeLater, this::applyChanges);
 
-        add(mainPanel);
-        cardLayout.show(mainPanel, "HOME");
+        for (JPanel card : serviceCards) {
+            setCardEnabled(card, true);
+        }
+    }
+
+    // Close the service off the EDT, so pending writes are flushed and the fleet is saved, then exit
+    private void exit() {
+        tasks.submit("exit", "Saving bookings", () -> {
+            if (busService != null) {
+                busService.close();
+            }
+            return null;
+        }, done -> System.exit(0), ex -> {
+            showError("Could not save the booking system: " + ex.getMessage());
+            System.exit(1);
+        });
     }
 
     // ==================== HOME SCREEN ====================
@@ -91,38 +140,42 @@ public class BusReservationUI extends JFrame {
 
         // Row 1
         gbc.gridx = 0; gbc.gridy = 0;
-        contentPanel.add(createMenuCard("🚍 View All Buses", "Browse available buses", PRIMARY_COLOR, 
-            e -> { refreshBusTable(); cardLayout.show(mainPanel, "VIEW_BUSES"); }), gbc);
+        contentPanel.add(serviceCard(createMenuCard("🚍 View All Buses", "Browse available buses", PRIMARY_COLOR, 
+            e -> { refreshBusTable(); cardLayout.show(mainPanel, "VIEW_BUSES"); })), gbc);
         
         gbc.gridx = 1;
-        contentPanel.add(createMenuCard("🔍 Search Buses", "Find buses by route", SECONDARY_COLOR,
-            e -> cardLayout.show(mainPanel, "SEARCH_BUSES")), gbc);
+        contentPanel.add(serviceCard(createMenuCard("🔍 Search Buses", "Find buses by route", SECONDARY_COLOR,
+            e -> cardLayout.show(mainPanel, "SEARCH_BUSES"))), gbc);
         
         gbc.gridx = 2;
-        contentPanel.add(createMenuCard("🎫 Book Ticket", "Reserve your seat", SUCCESS_COLOR,
-            e -> cardLayout.show(mainPanel, "BOOK_TICKET")), gbc);
+        contentPanel.add(serviceCard(createMenuCard("🎫 Book Ticket", "Reserve your seat", SUCCESS_COLOR,
+            e -> cardLayout.show(mainPanel, "BOOK_TICKET"))), gbc);
 
         // Row 2
         gbc.gridx = 0; gbc.gridy = 1;
-        contentPanel.add(createMenuCard("❌ Cancel Ticket", "Cancel booking", DANGER_COLOR,
-            e -> cardLayout.show(mainPanel, "CANCEL_TICKET")), gbc);
+        contentPanel.add(serviceCard(createMenuCard("❌ Cancel Ticket", "Cancel booking", DANGER_COLOR,
+            e -> cardLayout.show(mainPanel, "CANCEL_TICKET"))), gbc);
         
         gbc.gridx = 1;
-        contentPanel.add(createMenuCard("🔎 View Booking", "Check booking details", new Color(155, 89, 182),
-            e -> cardLayout.show(mainPanel, "VIEW_BOOKING")), gbc);
+        contentPanel.add(serviceCard(createMenuCard("🔎 View Booking", "Check booking details", new Color(155, 89, 182),
+            e -> cardLayout.show(mainPanel, "VIEW_BOOKING"))), gbc);
         
         gbc.gridx = 2;
-        contentPanel.add(createMenuCard("📋 All Bookings", "View booking history", WARNING_COLOR,
-            e -> { refreshBookingTable(); cardLayout.show(mainPanel, "VIEW_ALL_BOOKINGS"); }), gbc);
+        contentPanel.add(serviceCard(createMenuCard("📋 All Bookings", "View booking history", WARNING_COLOR,
+            e -> { refreshBookingTable(); cardLayout.show(mainPanel, "VIEW_ALL_BOOKINGS"); })), gbc);
 
         // Row 3
-        gbc.gridx = 0; gbc.gridy = 2; gbc.gridwidth = 2;
-        contentPanel.add(createMenuCard("💰 Revenue Report", "View financial summary", new Color(26, 188, 156),
-            e -> cardLayout.show(mainPanel, "REVENUE_REPORT")), gbc);
+        gbc.gridx = 0; gbc.gridy = 2;
+        contentPanel.add(serviceCard(createMenuCard("💰 Revenue Report", "View financial summary", new Color(26, 188, 156),
+            e -> cardLayout.show(mainPanel, "REVENUE_REPORT"))), gbc);
+        
+        gbc.gridx = 1;
+        contentPanel.add(serviceCard(createMenuCard("📱 Find by Phone", "Look up a customer", new Color(52, 73, 94),
+            e -> cardLayout.show(mainPanel, "FIND_BY_PHONE"))), gbc);
         
-        gbc.gridx = 2; gbc.gridwidth = 1;
+        gbc.gridx = 2;
         contentPanel.add(createMenuCard("🚪 Exit", "Close application", DARK_COLOR,
-            e -> System.exit(0)), gbc);
+            e -> exit()), gbc);
 
         panel.add(contentPanel, BorderLayout.CENTER);
 
@@ -194,6 +247,9 @@ public class BusReservationUI extends JFrame {
         card.addMouseListener(new MouseAdapter() {
             @Override
             public void mouseEntered(MouseEvent e) {
+                if (!card.isEnabled()) {
+                    return;
+                }
                 card.setBackground(new Color(245, 247, 250));
                 card.setBorder(BorderFactory.createCompoundBorder(
                     BorderFactory.createLineBorder(color, 2, true),
@@ -212,6 +268,9 @@ public class BusReservationUI extends JFrame {
 
             @Override
             public void mouseClicked(MouseEvent e) {
+                if (!card.isEnabled()) {
+                    return;
+                }
                 action.actionPerformed(new ActionEvent(card, ActionEvent.ACTION_PERFORMED, null));
             }
         });
@@ -219,6 +278,21 @@ public class BusReservationUI extends JFrame {
         return card;
     }
 
+    // A home screen card that stays disabled until the service has loaded
+    private JPanel serviceCard(JPanel card) {
+        setCardEnabled(card, false);
+        serviceCards.add(card);
+        return card;
+    }
+
+    private void setCardEnabled(JPanel card, boolean enabled) {
+        card.setEnabled(enabled);
+        card.setCursor(enabled ? new Cursor(Cursor.HAND_CURSOR) : Cursor.getDefaultCursor());
+        for (Component text : ((Container) card.getComponent(0)).getComponents()) {
+            text.setEnabled(enabled);
+        }
+    }
+
     private JPanel createFooter() {
         JPanel footer = new JPanel();
         footer.setBackground(DARK_COLOR);
@@ -235,13 +309,7 @@ public class BusReservationUI extends JFrame {
         JPanel panel = createStandardPanel("Available Buses", "Browse all available bus routes");
 
         // Table
-        String[] columns = {"Bus No", "Source", "Destination", "Seats Available", "Total Seats", "Fare (₹)"};
-        busTableModel = new DefaultTableModel(columns, 0) {
-            @Override
-            public boolean isCellEditable(int row, int column) {
-                return false;
-            }
-        };
+        busTableModel = new BusTableModel();
         busTable = createStyledTable(busTableModel);
 
         JScrollPane scrollPane = new JScrollPane(busTable);
@@ -272,6 +340,8 @@ public class BusReservationUI extends JFrame {
 
         JTextField sourceField = createStyledTextField(25);
         JTextField destField = createStyledTextField(25);
+        addCityAutocomplete(sourceField, "source");
+        addCityAutocomplete(destField, "destination");
 
         addFormField(formPanel, gbc, 0, "🚏 Source:", sourceField);
         addFormField(formPanel, gbc, 1, "📍 Destination:", destField);
@@ -292,34 +362,38 @@ public class BusReservationUI extends JFrame {
         buttonPanel.setBackground(CARD_BG);
 
         JButton searchBtn = createStyledButton("🔍 Search", SUCCESS_COLOR, e -> {
-            String source = sourceField.getText().trim();
-            String dest = destField.getText().trim();
-            
-            if (source.isEmpty() || dest.isEmpty()) {
+            String sourceText = sourceField.getText();
+            String destText = destField.getText();
+
+            if (sourceText.trim().isEmpty() || destText.trim().isEmpty()) {
                 showError("Please enter both source and destination!");
                 return;
             }
 
-            searchTableModel.setRowCount(0);
-            List<Bus> buses = busService.searchBuses(source, dest);
-            
-            if (buses.isEmpty()) {
-                showInfo("No buses found for the specified route!");
-            } else {
-                for (Bus bus : buses) {
-                    searchTableModel.addRow(new Object[]{
-                        bus.getBusNo(),
-                        bus.getSource(),
-                        bus.getDestination(),
-                        bus.getSeatsAvailable(),
-                        String.format("₹%.2f", bus.getFarePerSeat())
-                    });
+            tasks.refresh("search", "Searching buses", () -> searchRoute(sourceText, destText), result -> {
+                // Show the spelling that was actually searched
+                sourceField.setText(result.source);
+                destField.setText(result.dest);
+                replaceRows(searchTableModel, result.rows);
+
+                if (!result.rows.isEmpty()) {
+                    return;
                 }
-            }
+                if (result.journeys.isEmpty()) {
+                    showInfo("No buses found for the specified route!");
+                } else {
+                    StringBuilder message = new StringBuilder("No direct buses. Connecting journeys:\n");
+                    for (Journey journey : result.journeys) {
+                        message.append("\n").append(journey);
+                    }
+                    showInfo(message.toString());
+                }
+            }, ex -> showError("Search Failed: " + ex.getMessage()));
         });
 
         buttonPanel.add(searchBtn);
         buttonPanel.add(createStyledButton("🔄 Clear", WARNING_COLOR, e -> {
+            tasks.cancel("search");
             sourceField.setText("");
             destField.setText("");
             searchTableModel.setRowCount(0);
@@ -372,6 +446,15 @@ public class BusReservationUI extends JFrame {
         JPanel buttonPanel = new JPanel(new FlowLayout(FlowLayout.CENTER, 20, 20));
         buttonPanel.setBackground(CARD_BG);
 
+        Runnable clearBookingForm = () -> {
+            nameField.setText("");
+            ageField.setText("");
+            phoneField.setText("");
+            emailField.setText("");
+            busNoField.setText("");
+            genderCombo.setSelectedIndex(0);
+        };
+
         JButton bookBtn = createStyledButton("✓ Book Ticket", SUCCESS_COLOR, e -> {
             try {
                 String name = nameField.getText().trim();
@@ -393,58 +476,74 @@ public class BusReservationUI extends JFrame {
                 }
 
                 Passenger passenger = new Passenger(name, age, gender, phone, email);
-                Booking booking = busService.bookSeat(busNo, passenger);
-                Bus bus = busService.getBusByNumber(busNo);
 
-                String message = String.format(
-                    "<html><body style='width: 300px; padding: 10px;'>" +
-                    "<h2 style='color: #27ae60;'>✓ Booking Successful!</h2>" +
-                    "<hr>" +
-                    "<p><b>Booking ID:</b> %s</p>" +
-                    "<p><b>Passenger:</b> %s</p>" +
-                    "<p><b>Bus:</b> %s</p>" +
-                    "<p><b>Route:</b> %s → %s</p>" +
-                    "<p><b>Seat Number:</b> %d</p>" +
-                    "<p><b>Fare:</b> ₹%.2f</p>" +
-                    "<hr>" +
-                    "<p style='color: #7f8c8d;'>Please save your Booking ID for future reference.</p>" +
-                    "</body></html>",
-                    booking.getBookingId(), name, busNo, bus.getSource(), 
-                    bus.getDestination(), booking.getSeatNo(), booking.getFare()
-                );
-
-                showSuccessMessage(message);
-
-                // Clear fields
-                nameField.setText("");
-                ageField.setText("");
-                phoneField.setText("");
-                emailField.setText("");
-                busNoField.setText("");
-                genderCombo.setSelectedIndex(0);
+                tasks.submit("book", "Booking seat", () -> bookTicket(busNo, passenger), message -> {
+                    if (message == null) {
+                        offerWaitlist(busNo, passenger, clearBookingForm);
+                        return;
+                    }
+                    showSuccessMessage(message);
+                    clearBookingForm.run();
+                }, ex -> showError("Booking Failed: " + ex.getMessage()));
 
             } catch (NumberFormatException ex) {
                 showError("Please enter a valid age!");
-            } catch (Exception ex) {
-                showError("Booking Failed: " + ex.getMessage());
             }
         });
 
         buttonPanel.add(bookBtn);
-        buttonPanel.add(createStyledButton("🔄 Clear", WARNING_COLOR, e -> {
-            nameField.setText("");
-            ageField.setText("");
-            phoneField.setText("");
-            emailField.setText("");
-            busNoField.setText("");
-            genderCombo.setSelectedIndex(0);
-        }));
+        buttonPanel.add(createStyledButton("🔄 Clear", WARNING_COLOR, e -> clearBookingForm.run()));
         buttonPanel.add(createStyledButton("← Back", DARK_COLOR, e -> cardLayout.show(mainPanel, "HOME")));
         panel.add(buttonPanel, BorderLayout.SOUTH);
 
         return panel;
     }
 
+    // Book a seat in the background; returns the confirmation text, or null when the bus is full
+    private String bookTicket(String busNo, Passenger passenger) throws Exception {
+        Bus bus = busService.getBusByNumber(busNo);
+        if (bus != null && bus.getSeatsAvailable() == 0) {
+            return null;
+        }
+
+        Booking booking = busService.bookSeat(busNo, passenger);
+        return String.format(
+            "<html><body style='width: 300px; padding: 10px;'>" +
+            "<h2 style='color: #27ae60;'>✓ Booking Successful!</h2>" +
+            "<hr>" +
+            "<p><b>Booking ID:</b> %s</p>" +
+            "<p><b>Passenger:</b> %s</p>" +
+            "<p><b>Bus:</b> %s</p>" +
+            "<p><b>Route:</b> %s → %s</p>" +
+            "<p><b>Seat Number:</b> %d</p>" +
+            "<p><b>Fare:</b> ₹%.2f</p>" +
+            "<hr>" +
+            "<p style='color: #7f8c8d;'>Please save your Booking ID for future reference.</p>" +
+            "</body></html>",
+            booking.getBookingId(), passenger.getName(), busNo, bus.getSource(), 
+            bus.getDestination(), booking.getSeatNo(), booking.getFare()
+        );
+    }
+
+    // Offer the waitlist when the bus is sold out
+    private void offerWaitlist(String busNo, Passenger passenger, Runnable onJoined) {
+        int choice = JOptionPane.showConfirmDialog(this,
+            "Bus " + busNo + " is full. Join the waitlist for the next cancelled seat?",
+            "Bus Full", JOptionPane.YES_NO_OPTION);
+        if (choice != JOptionPane.YES_OPTION) {
+            return;
+        }
+
+        tasks.submit("book", "Joining waitlist", () -> {
+            WaitlistEntry entry = busService.joinWaitlist(busNo, passenger);
+            return "Added to the waitlist.\nWaitlist ID: " + entry.getEntryId()
+                + "\nPosition: " + busService.getWaitlist(busNo).size();
+        }, message -> {
+            showInfo(message);
+            onJoined.run();
+        }, ex -> showError("Booking Failed: " + ex.getMessage()));
+    }
+
     // ==================== CANCEL TICKET SCREEN ====================
     private JPanel createCancelTicketScreen() {
         JPanel panel = createStandardPanel("Cancel Ticket", "Enter your booking ID to cancel reservation");
@@ -468,15 +567,13 @@ public class BusReservationUI extends JFrame {
         buttonPanel.setBackground(CARD_BG);
 
         JButton cancelBtn = createStyledButton("✗ Cancel Booking", DANGER_COLOR, e -> {
-            try {
-                String bookingId = bookingIdField.getText().trim();
-                if (bookingId.isEmpty()) {
-                    showError("Please enter booking ID!");
-                    return;
-                }
+            String bookingId = bookingIdField.getText().trim();
+            if (bookingId.isEmpty()) {
+                showError("Please enter booking ID!");
+                return;
+            }
 
-                Booking booking = busService.getBookingById(bookingId);
-                
+            tasks.submit("cancel", "Looking up booking", () -> busService.getBookingById(bookingId), booking -> {
                 String confirmMsg = String.format(
                     "<html><body style='width: 300px;'>" +
                     "<h3>Confirm Cancellation</h3>" +
@@ -499,22 +596,26 @@ public class BusReservationUI extends JFrame {
                     JOptionPane.WARNING_MESSAGE
                 );
 
-                if (confirm == JOptionPane.YES_OPTION) {
+                if (confirm != JOptionPane.YES_OPTION) {
+                    return;
+                }
+                double refund = booking.getFare();
+                tasks.submit("cancel", "Cancelling booking", () -> {
                     busService.cancelBooking(bookingId);
+                    return refund;
+                }, amount -> {
                     showSuccessMessage(String.format(
                         "<html><body style='width: 250px;'>" +
                         "<h3 style='color: #27ae60;'>✓ Cancellation Successful</h3>" +
                         "<p>Refund Amount: ₹%.2f</p>" +
                         "<p style='color: #7f8c8d;'>Amount will be credited within 5-7 business days.</p>" +
                         "</body></html>", 
-                        booking.getFare()
+                        amount
                     ));
                     bookingIdField.setText("");
-                }
+                }, ex -> showError("Cancellation Failed: " + ex.getMessage()));
 
-            } catch (Exception ex) {
-                showError("Cancellation Failed: " + ex.getMessage());
-            }
+            }, ex -> showError("Cancellation Failed: " + ex.getMessage()));
         });
 
         buttonPanel.add(cancelBtn);
@@ -564,50 +665,22 @@ public class BusReservationUI extends JFrame {
         buttonPanel.setBackground(CARD_BG);
 
         JButton searchBtn = createStyledButton("🔍 Search", PRIMARY_COLOR, e -> {
-            try {
-                String bookingId = bookingIdField.getText().trim();
-                if (bookingId.isEmpty()) {
-                    showError("Please enter booking ID!");
-                    return;
-                }
-
-                Booking booking = busService.getBookingById(bookingId);
-                Bus bus = busService.getBusByNumber(booking.getBusNo());
-                Passenger p = booking.getPassenger();
-
-                StringBuilder details = new StringBuilder();
-                details.append("╔════════════════════════════════════════════════════╗\n");
-                details.append("║          BOOKING DETAILS                           ║\n");
-                details.append("╠════════════════════════════════════════════════════╣\n");
-                details.append(String.format("║ Booking ID     : %-33s ║\n", booking.getBookingId()));
-                details.append(String.format("║ Status         : %-33s ║\n", booking.getStatus()));
-                details.append("╠════════════════════════════════════════════════════╣\n");
-                details.append("║          PASSENGER INFORMATION                     ║\n");
-                details.append("╠════════════════════════════════════════════════════╣\n");
-                details.append(String.format("║ Name           : %-33s ║\n", p.getName()));
-                details.append(String.format("║ Age            : %-33d ║\n", p.getAge()));
-                details.append(String.format("║ Gender         : %-33s ║\n", p.getGender()));
-                details.append(String.format("║ Phone          : %-33s ║\n", p.getPhoneNumber()));
-                details.append(String.format("║ Email          : %-33s ║\n", p.getEmail()));
-                details.append("╠════════════════════════════════════════════════════╣\n");
-                details.append("║          BUS INFORMATION                           ║\n");
-                details.append("╠════════════════════════════════════════════════════╣\n");
-                details.append(String.format("║ Bus Number     : %-33s ║\n", booking.getBusNo()));
-                details.append(String.format("║ Route          : %-15s → %-15s ║\n", bus.getSource(), bus.getDestination()));
-                details.append(String.format("║ Seat Number    : %-33d ║\n", booking.getSeatNo()));
-                details.append(String.format("║ Fare           : ₹%-32.2f ║\n", booking.getFare()));
-                details.append("╚════════════════════════════════════════════════════╝\n");
-
-                detailsArea.setText(details.toString());
-
-            } catch (Exception ex) {
-                detailsArea.setText("");
-                showError("Booking not found: " + ex.getMessage());
+            String bookingId = bookingIdField.getText().trim();
+            if (bookingId.isEmpty()) {
+                showError("Please enter booking ID!");
+                return;
             }
+
+            tasks.refresh("viewBooking", "Loading booking", () -> describeBooking(bookingId),
+                detailsArea::setText, ex -> {
+                    detailsArea.setText("");
+                    showError("Booking not found: " + ex.getMessage());
+                });
         });
 
         buttonPanel.add(searchBtn);
         buttonPanel.add(createStyledButton("🔄 Clear", WARNING_COLOR, e -> {
+            tasks.cancel("viewBooking");
             bookingIdField.setText("");
             detailsArea.setText("");
         }));
@@ -617,22 +690,88 @@ public class BusReservationUI extends JFrame {
         return panel;
     }
 
+    // Build the booking details panel text in the background
+    private String describeBooking(String bookingId) throws Exception {
+        Booking booking = busService.getBookingById(bookingId);
+        Bus bus = busService.getBusByNumber(booking.getBusNo());
+        Passenger p = booking.getPassenger();
+
+        StringBuilder details = new StringBuilder();
+        details.append("╔════════════════════════════════════════════════════╗\n");
+        details.append("║          BOOKING DETAILS                           ║\n");
+        details.append("╠════════════════════════════════════════════════════╣\n");
+        details.append(String.format("║ Booking ID     : %-33s ║\n", booking.getBookingId()));
+        details.append(String.format("║ Status         : %-33s ║\n", booking.getStatus()));
+        details.append("╠════════════════════════════════════════════════════╣\n");
+        details.append("║          PASSENGER INFORMATION                     ║\n");
+        details.append("╠════════════════════════════════════════════════════╣\n");
+        details.append(String.format("║ Name           : %-33s ║\n", p.getName()));
+        details.append(String.format("║ Age            : %-33d ║\n", p.getAge()));
+        details.append(String.format("║ Gender         : %-33s ║\n", p.getGender()));
+        details.append(String.format("║ Phone          : %-33s ║\n", p.getPhoneNumber()));
+        details.append(String.format("║ Email          : %-33s ║\n", p.getEmail()));
+        details.append("╠════════════════════════════════════════════════════╣\n");
+        details.append("║          BUS INFORMATION                           ║\n");
+        details.append("╠════════════════════════════════════════════════════╣\n");
+        details.append(String.format("║ Bus Number     : %-33s ║\n", booking.getBusNo()));
+        details.append(String.format("║ Route          : %-15s → %-15s ║\n", bus.getSource(), bus.getDestination()));
+        details.append(String.format("║ Seat Number    : %-33d ║\n", booking.getSeatNo()));
+        details.append(String.format("║ Fare           : ₹%-32.2f ║\n", booking.getFare()));
+        details.append("╚════════════════════════════════════════════════════╝\n");
+        return details.toString();
+    }
+
     // ==================== VIEW ALL BOOKINGS SCREEN ====================
     private JPanel createViewAllBookingsScreen() {
         JPanel panel = createStandardPanel("All Bookings", "Complete booking history");
 
-        // Table
-        String[] columns = {"Booking ID", "Passenger", "Age", "Bus No", "Seat", "Fare (₹)", "Status"};
-        bookingTableModel = new DefaultTableModel(columns, 0) {
-            @Override
-            public boolean isCellEditable(int row, int column) {
-                return false;
-            }
+        // Filter Panel
+        JPanel filterPanel = new JPanel(new FlowLayout(FlowLayout.LEFT, 15, 10));
+        filterPanel.setBackground(CARD_BG);
+
+        JTextField busFilterField = createStyledTextField(10);
+        JComboBox<String> statusFilterCombo = new JComboBox<>(new String[]{"All", "CONFIRMED", "CANCELLED"});
+        styleComboBox(statusFilterCombo);
+
+        ActionListener filterAction = e -> {
+            String status = (String) statusFilterCombo.getSelectedItem();
+            bookingTableModel.setFilter(busFilterField.getText(), "All".equals(status) ? null : status);
+            refreshBookingTable();
         };
+        busFilterField.addActionListener(filterAction);
+        statusFilterCombo.addActionListener(filterAction);
+
+        JLabel busFilterLabel = new JLabel("🚌 Bus No:");
+        busFilterLabel.setFont(new Font("Segoe UI", Font.BOLD, 16));
+        busFilterLabel.setForeground(DARK_COLOR);
+        JLabel statusFilterLabel = new JLabel("Status:");
+        statusFilterLabel.setFont(new Font("Segoe UI", Font.BOLD, 16));
+        statusFilterLabel.setForeground(DARK_COLOR);
+
+        filterPanel.add(busFilterLabel);
+        filterPanel.add(busFilterField);
+        filterPanel.add(statusFilterLabel);
+        filterPanel.add(statusFilterCombo);
+
+        // Table; rows are read from the service as they are painted
+        bookingTableModel = new BookingTableModel(busService);
         bookingTable = createStyledTable(bookingTableModel);
 
+        // Sort by the clicked column; clicking it again reverses the order
+        bookingTable.getTableHeader().addMouseListener(new MouseAdapter() {
+            @Override
+            public void mouseClicked(MouseEvent e) {
+                int column = bookingTable.columnAtPoint(e.getPoint());
+                if (column >= 0) {
+                    bookingTableModel.toggleSort(bookingTable.convertColumnIndexToModel(column));
+                    refreshBookingTable();
+                }
+            }
+        });
+
         JScrollPane scrollPane = new JScrollPane(bookingTable);
         scrollPane.setBorder(BorderFactory.createEmptyBorder());
+        panel.add(filterPanel, BorderLayout.NORTH);
         panel.add(scrollPane, BorderLayout.CENTER);
 
         // Button Panel
@@ -645,6 +784,87 @@ public class BusReservationUI extends JFrame {
         return panel;
     }
 
+    // ==================== FIND BY PHONE SCREEN ====================
+    private JPanel createFindByPhoneScreen() {
+        JPanel panel = createStandardPanel("Find Bookings by Phone", "Look up a customer's bookings");
+
+        // Form Panel
+        JPanel formPanel = new JPanel(new FlowLayout(FlowLayout.CENTER, 20, 30));
+        formPanel.setBackground(CARD_BG);
+
+        JLabel label = new JLabel("📱 Phone Number:");
+        label.setFont(new Font("Segoe UI", Font.BOLD, 20));
+        label.setForeground(DARK_COLOR);
+
+        JTextField phoneField = createStyledTextField(20);
+
+        formPanel.add(label);
+        formPanel.add(phoneField);
+
+        // Results Table
+        String[] columns = {"Booking ID", "Passenger", "Bus No", "Seat", "Fare (₹)", "Date", "Status"};
+        DefaultTableModel phoneTableModel = new DefaultTableModel(columns, 0) {
+            @Override
+            public boolean isCellEditable(int row, int column) {
+                return false;
+            }
+        };
+        JTable phoneTable = createStyledTable(phoneTableModel);
+        JScrollPane scrollPane = new JScrollPane(phoneTable);
+
+        JPanel centerPanel = new JPanel(new BorderLayout(0, 10));
+        centerPanel.setBackground(CARD_BG);
+        centerPanel.setBorder(BorderFactory.createEmptyBorder(0, 30, 10, 30));
+        centerPanel.add(formPanel, BorderLayout.NORTH);
+        centerPanel.add(scrollPane, BorderLayout.CENTER);
+        panel.add(centerPanel, BorderLayout.CENTER);
+
+        // Button Panel
+        JPanel buttonPanel = new JPanel(new FlowLayout(FlowLayout.CENTER, 20, 20));
+        buttonPanel.setBackground(CARD_BG);
+
+        ActionListener findAction = e -> {
+            String phone = phoneField.getText().trim();
+            if (phone.isEmpty()) {
+                showError("Please enter a phone number!");
+                return;
+            }
+
+            tasks.refresh("findByPhone", "Finding bookings", () -> {
+                Vector<Vector<Object>> rows = new Vector<>();
+                for (Booking booking : busService.findBookingsByPhone(phone)) {
+                    rows.add(row(
+                        booking.getBookingId(),
+                        booking.getPassenger().getName(),
+                        booking.getBusNo(),
+                        booking.getSeatNo(),
+                        String.format("₹%.2f", booking.getFare()),
+                        booking.getBookingDate(),
+                        booking.getStatus()
+                    ));
+                }
+                return rows;
+            }, rows -> {
+                replaceRows(phoneTableModel, rows);
+                if (rows.isEmpty()) {
+                    showInfo("No bookings found for this phone number!");
+                }
+            }, ex -> showError("Lookup Failed: " + ex.getMessage()));
+        };
+        phoneField.addActionListener(findAction);
+
+        buttonPanel.add(createStyledButton("🔍 Find", PRIMARY_COLOR, findAction));
+        buttonPanel.add(createStyledButton("🔄 Clear", WARNING_COLOR, e -> {
+            tasks.cancel("findByPhone");
+            phoneField.setText("");
+            phoneTableModel.setRowCount(0);
+        }));
+        buttonPanel.add(createStyledButton("← Back", DARK_COLOR, e -> cardLayout.show(mainPanel, "HOME")));
+        panel.add(buttonPanel, BorderLayout.SOUTH);
+
+        return panel;
+    }
+
     // ==================== REVENUE REPORT SCREEN ====================
     private JPanel createRevenueReportScreen() {
         JPanel panel = createStandardPanel("Revenue Report", "Financial summary and statistics");
@@ -660,43 +880,10 @@ public class BusReservationUI extends JFrame {
         JPanel buttonPanel = new JPanel(new FlowLayout(FlowLayout.CENTER, 20, 20));
         buttonPanel.setBackground(CARD_BG);
 
-        JButton generateBtn = createStyledButton("📊 Generate Report", SUCCESS_COLOR, e -> {
-            statsPanel.removeAll();
-            
-            List<Booking> allBookings = busService.getAllBookings();
-            List<Bus> allBuses = busService.getAllBuses();
-            
-            double totalRevenue = allBookings.stream()
-                .filter(b -> "CONFIRMED".equals(b.getStatus()))
-                .mapToDouble(Booking::getFare)
-                .sum();
-            
-            long confirmedBookings = allBookings.stream()
-                .filter(b -> "CONFIRMED".equals(b.getStatus()))
-                .count();
-            
-            long cancelledBookings = allBookings.stream()
-                .filter(b -> "CANCELLED".equals(b.getStatus()))
-                .count();
-            
-            int totalSeatsBooked = (int) confirmedBookings;
-            int totalSeatsAvailable = allBuses.stream()
-                .mapToInt(Bus::getSeatsAvailable)
-                .sum();
-            int totalSeatsCapacity = allBuses.stream()
-                .mapToInt(Bus::getTotalSeats)
-                .sum();
-
-            statsPanel.add(createStatCard("💰 Total Revenue", String.format("₹%.2f", totalRevenue), SUCCESS_COLOR));
-            statsPanel.add(createStatCard("✓ Confirmed Bookings", String.format("%d", confirmedBookings), PRIMARY_COLOR));
-            statsPanel.add(createStatCard("✗ Cancelled Bookings", String.format("%d", cancelledBookings), DANGER_COLOR));
-            statsPanel.add(createStatCard("🚌 Total Buses", String.format("%d", allBuses.size()), SECONDARY_COLOR));
-            statsPanel.add(createStatCard("💺 Seats Booked", String.format("%d / %d", totalSeatsBooked, totalSeatsCapacity), WARNING_COLOR));
-            statsPanel.add(createStatCard("📈 Occupancy Rate", String.format("%.1f%%", totalSeatsCapacity > 0 ? (totalSeatsBooked * 100.0 / totalSeatsCapacity) : 0), new Color(155, 89, 182)));
-
-            statsPanel.revalidate();
-            statsPanel.repaint();
-        });
+        // Precomputed totals; no pass over the booking history
+        JButton generateBtn = createStyledButton("📊 Generate Report", SUCCESS_COLOR, e ->
+            tasks.refresh("revenue", "Generating report", () -> busService.getStatistics().getGlobal(),
+                summary -> showRevenue(statsPanel, summary), ex -> showError("Report Failed: " + ex.getMessage())));
 
         buttonPanel.add(generateBtn);
         buttonPanel.add(createStyledButton("← Back to Home", DARK_COLOR, e -> cardLayout.show(mainPanel, "HOME")));
@@ -705,6 +892,20 @@ public class BusReservationUI extends JFrame {
         return panel;
     }
 
+    private void showRevenue(JPanel statsPanel, BookingStatistics.Summary summary) {
+        statsPanel.removeAll();
+
+        statsPanel.add(createStatCard("💰 Total Revenue", String.format("₹%.2f", summary.getRevenue()), SUCCESS_COLOR));
+        statsPanel.add(createStatCard("✓ Confirmed Bookings", String.format("%d", summary.getConfirmedBookings()), PRIMARY_COLOR));
+        statsPanel.add(createStatCard("✗ Cancelled Bookings", String.format("%d", summary.getCancelledBookings()), DANGER_COLOR));
+        statsPanel.add(createStatCard("🚌 Total Buses", String.format("%d", summary.getBuses()), SECONDARY_COLOR));
+        statsPanel.add(createStatCard("💺 Seats Booked", String.format("%d / %d", summary.getSeatsSold(), summary.getSeatCapacity()), WARNING_COLOR));
+        statsPanel.add(createStatCard("📈 Occupancy Rate", String.format("%.1f%%", summary.getOccupancyRate()), new Color(155, 89, 182)));
+
+        statsPanel.revalidate();
+        statsPanel.repaint();
+    }
+
     private JPanel createStatCard(String title, String value, Color color) {
         JPanel card = new JPanel(new BorderLayout(10, 10));
         card.setBackground(CARD_BG);
@@ -798,13 +999,78 @@ public class BusReservationUI extends JFrame {
         return field;
     }
 
+    // Drop-down of known cities matching what has been typed so far
+    private void addCityAutocomplete(JTextField field, String name) {
+        JPopupMenu popup = new JPopupMenu();
+        popup.setFocusable(false);
+
+        field.getDocument().addDocumentListener(new DocumentListener() {
+            @Override
+            public void insertUpdate(DocumentEvent e) {
+                // Update after the edit completes; the document is locked during notification
+                SwingUtilities.invokeLater(() -> showCitySuggestions(field, name, popup));
+            }
+
+            @Override
+            public void removeUpdate(DocumentEvent e) {
+                SwingUtilities.invokeLater(() -> showCitySuggestions(field, name, popup));
+            }
+
+            @Override
+            public void changedUpdate(DocumentEvent e) {
+            }
+        });
+        field.addFocusListener(new FocusAdapter() {
+            @Override
+            public void focusLost(FocusEvent e) {
+                popup.setVisible(false);
+            }
+        });
+    }
+
+    // Each keystroke replaces the lookup still running for the previous one
+    private void showCitySuggestions(JTextField field, String name, JPopupMenu popup) {
+        popup.setVisible(false);
+        popup.removeAll();
+        String typed = field.getText().trim();
+        if (typed.isEmpty() || !field.isFocusOwner()) {
+            tasks.cancel("cities:" + name);
+            return;
+        }
+
+        tasks.refresh("cities:" + name, "Looking up cities", () -> {
+            List<String> cities = busService.suggestCities(typed, 8);
+            return cities.isEmpty() ? busService.findSimilarCities(typed) : cities;
+        }, cities -> {
+            if (field.getText().trim().equals(typed) && field.isFocusOwner()) {
+                showCityPopup(field, popup, typed, cities);
+            }
+        }, ex -> { });
+    }
+
+    private void showCityPopup(JTextField field, JPopupMenu popup, String typed, List<String> cities) {
+        if (cities.isEmpty() || (cities.size() == 1 && cities.get(0).equals(typed))) {
+            return;
+        }
+        for (String city : cities) {
+            JMenuItem item = new JMenuItem(city);
+            item.setFont(new Font("Segoe UI", Font.PLAIN, 14));
+            item.addActionListener(e -> {
+                field.setText(city);
+                popup.setVisible(false);
+            });
+            popup.add(item);
+        }
+        popup.show(field, 0, field.getHeight());
+    }
+
     private void styleComboBox(JComboBox<String> combo) {
         combo.setFont(new Font("Segoe UI", Font.PLAIN, 16));
         combo.setBackground(Color.WHITE);
         combo.setBorder(BorderFactory.createLineBorder(new Color(189, 195, 199), 1));
     }
 
-    private JTable createStyledTable(DefaultTableModel model) {
+    private JTable createStyledTable(TableModel model) {
         JTable table = new JTable(model);
         table.setFont(new Font("Segoe UI", Font.PLAIN, 14));
         table.setRowHeight(35);
@@ -845,34 +1111,85 @@ public class BusReservationUI extends JFrame {
     }
 
     private void refreshBusTable() {
-        busTableModel.setRowCount(0);
-        List<Bus> buses = busService.getAllBuses();
-        for (Bus bus : buses) {
-            busTableModel.addRow(new Object[]{
+        tasks.refresh("buses", "Loading buses", busService::getAllBuses, busTableModel::setBuses,
+            ex -> showError("Could not load buses: " + ex.getMessage()));
+    }
+
+    // Filtering and sorting run in the background; plain storage order needs no work at all
+    private void refreshBookingTable() {
+        tasks.refresh("bookings", "Loading bookings", bookingTableModel.query()::run, bookingTableModel::apply,
+            ex -> showError("Could not load bookings: " + ex.getMessage()));
+    }
+
+    // Apply a batch of live changes, made here or by anyone else, to the tables without reloading them
+    private void applyChanges(List<ChangeEvent> batch) {
+        boolean stored = false;
+        boolean fleetChanged = false;
+        for (ChangeEvent event : batch) {
+            if (event instanceof ChangeEvent.BookingCreated) {
+                stored = true;
+            } else if (event instanceof ChangeEvent.BookingCancelled) {
+                bookingTableModel.bookingChanged(((ChangeEvent.BookingCancelled) event).getBooking().getBookingId());
+            } else if (event instanceof ChangeEvent.SeatsChanged && !busTableModel.seatsChanged(event.getBusNo())) {
+                // A bus that was added after the table was loaded; an unloaded table stays empty
+                fleetChanged = busTableModel.getRowCount() > 0;
+            }
+        }
+        if (stored) {
+            // New bookings are always the newest positions, so one pass picks up the whole batch
+            bookingTableModel.bookingsStored();
+        }
+        if (fleetChanged) {
+            refreshBusTable();
+        }
+    }
+
+    // Run a route search in the background, falling back to connecting journeys
+    private SearchResult searchRoute(String sourceText, String destText) {
+        SearchResult result = new SearchResult(busService.canonicalCity(sourceText), busService.canonicalCity(destText));
+        for (Bus bus : busService.searchBuses(result.source, result.dest)) {
+            result.rows.add(row(
                 bus.getBusNo(),
                 bus.getSource(),
                 bus.getDestination(),
                 bus.getSeatsAvailable(),
-                bus.getTotalSeats(),
                 String.format("₹%.2f", bus.getFarePerSeat())
-            });
+            ));
+        }
+        if (result.rows.isEmpty()) {
+            result.journeys.addAll(busService.planJourney(result.source, result.dest));
         }
+        return result;
     }
 
-    private void refreshBookingTable() {
-        bookingTableModel.setRowCount(0);
-        List<Booking> bookings = busService.getAllBookings();
-        for (Booking booking : bookings) {
-            bookingTableModel.addRow(new Object[]{
-                booking.getBookingId(),
-                booking.getPassenger().getName(),
-                booking.getPassenger().getAge(),
-                booking.getBusNo(),
-                booking.getSeatNo(),
-                String.format("₹%.2f", booking.getFare()),
-                booking.getStatus()
-            });
+    /**
+     * Route search outcome, built off the EDT
+     */
+    private static class SearchResult {
+        private final String source;
+        private final String dest;
+        private final Vector<Vector<Object>> rows = new Vector<>();
+        private final List<Journey> journeys = new ArrayList<>();
+
+        SearchResult(String source, String dest) {
+            this.source = source;
+            this.dest = dest;
+        }
+    }
+
+    private static Vector<Object> row(Object... values) {
+        Vector<Object> row = new Vector<>(values.length);
+        for (Object value : values) {
+            row.add(value);
         }
+        return row;
+    }
+
+    // Swap in rows built in the background with one table event instead of one per row
+    private static void replaceRows(DefaultTableModel model, Vector<Vector<Object>> rows) {
+        model.getDataVector().clear();
+        model.getDataVector().addAll(rows);
+        model.fireTableDataChanged();
     }
 
     private void showError(String message) {
@@ -0,0 +1,101 @@
+package com.bus.ui;
+
+import com.bus.model.Bus;
+
+import javax.swing.table.AbstractTableModel;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * BusTableModel Class
+ * Table model over the fleet list itself; cells are read from the Bus
+ * objects when painted, so seat counts are always current and a refresh
+ * copies nothing. A change of seats on one bus repaints just its row.
+ * Must be used on the EDT.
+ */
+public class BusTableModel extends AbstractTableModel {
+    private static final long serialVersionUID = 1L;
+
+    private static final String[] COLUMNS = {"Bus No", "Source", "Destination", "Seats Available", "Total Seats", "Fare (₹)"};
+
+    private List<Bus> buses;
+    // Row of each bus number, built on first use after the fleet changes
+    private Map<String, Integer> rows;
+
+    public BusTableModel() {
+        this.buses = Collections.emptyList();
+    }
+
+    // Show a fleet; the list must not change afterwards (the repository replaces it instead)
+    public void setBuses(List<Bus> buses) {
+        this.buses = buses;
+        this.rows = null;
+        fireTableDataChanged();
+    }
+
+    // Repaint the row of a bus whose seats changed; false if the bus is not in this fleet list
+    public boolean seatsChanged(String busNo) {
+        int row = rowOf(busNo);
+        if (row < 0) {
+            return false;
+        }
+        fireTableRowsUpdated(row, row);
+        return true;
+    }
+
+    @Override
+    public int getRowCount() {
+        return buses.size();
+    }
+
+    @Override
+    public int getColumnCount() {
+        return COLUMNS.length;
+    }
+
+    @Override
+    public String getColumnName(int column) {
+        return COLUMNS[column];
+    }
+
+    @Override
+    public Class<?> getColumnClass(int column) {
+        return column == 3 || column == 4 ? Integer.class : String.class;
+    }
+
+    @Override
+    public Object getValueAt(int row, int column) {
+        Bus bus = buses.get(row);
+        switch (column) {
+            case 0:
+                return bus.getBusNo();
+            case 1:
+                return bus.getSource();
+            case 2:
+                return bus.getDestination();
+            case 3:
+                return bus.getSeatsAvailable();
+            case 4:
+                return bus.getTotalSeats();
+            default:
+                return String.format("₹%.2f", bus.getFarePerSeat());
+        }
+    }
+
+    private int rowOf(String busNo) {
+        if (busNo == null) {
+            return -1;
+        }
+        if (rows == null) {
+            rows = new HashMap<>();
+            for (int row = 0; row < buses.size(); row++) {
+                rows.put(buses.get(row).getBusNo().toUpperCase(Locale.ROOT), row);
+            }
+        }
+        Integer row = rows.get(busNo.toUpperCase(Locale.ROOT));
+        return row == null ? -1 : row;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,203 @@
+package com.bus.ui;
+
+import javax.swing.*;
+import java.awt.*;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Consumer;
+
+/**
+ * UiTaskRunner Class
+ * Runs service calls on SwingWorker threads so the Event Dispatch Thread only
+ * paints and handles input. Results and errors are delivered back on the EDT.
+ * Tasks are keyed: a write that is still running swallows repeated clicks
+ * under its key, and a newer read replaces the one in flight. A status bar
+ * shows progress for anything slower than a blink and can cancel reads.
+ * All methods must be called on the EDT.
+ */
+public class UiTaskRunner {
+    // Tasks quicker than this never show the progress bar, so fast storage does not flicker
+    private static final int PROGRESS_DELAY_MILLIS = 150;
+
+    private final Component owner;
+    private final Map<String, Worker<?>> running;
+    private final JPanel statusBar;
+    private final JLabel statusLabel;
+    private final JProgressBar progressBar;
+    private final JButton cancelButton;
+    private final Timer progressTimer;
+
+    /**
+     * Work to run off the EDT
+     */
+    public interface Task<T> {
+        T call() throws Exception;
+    }
+
+    public UiTaskRunner(Component owner) {
+        this.owner = owner;
+        this.running = new HashMap<>();
+
+        this.statusLabel = new JLabel(" ");
+        this.statusLabel.setFont(new Font("Segoe UI", Font.PLAIN, 13));
+        this.progressBar = new JProgressBar();
+        this.progressBar.setIndeterminate(true);
+        this.progressBar.setPreferredSize(new Dimension(160, 14));
+        this.cancelButton = new JButton("Cancel");
+        this.cancelButton.setFocusPainted(false);
+        this.cancelButton.addActionListener(e -> cancelReads());
+
+        this.statusBar = new JPanel(new FlowLayout(FlowLayout.RIGHT, 10, 4));
+        this.statusBar.add(statusLabel);
+        this.statusBar.add(progressBar);
+        this.statusBar.add(cancelButton);
+        this.statusBar.setVisible(false);
+
+        this.progressTimer = new Timer(PROGRESS_DELAY_MILLIS, e -> updateStatus());
+        this.progressTimer.setRepeats(false);
+    }
+
+    // Bar to place at the bottom of the window
+    public JComponent getStatusBar() {
+        return statusBar;
+    }
+
+    // Run a change; repeat requests under the same key are ignored until it finishes
+    public <T> void submit(String key, String description, Task<T> task,
+                           Consumer<T> onSuccess, Consumer<Exception> onFailure) {
+        if (running.containsKey(key)) {
+            return;
+        }
+        start(new Worker<>(key, description, false, task, onSuccess, onFailure));
+    }
+
+    // Run a lookup; a newer request under the same key replaces the one in flight
+    public <T> void refresh(String key, String description, Task<T> task,
+                            Consumer<T> onSuccess, Consumer<Exception> onFailure) {
+        Worker<?> previous = running.get(key);
+        if (previous != null) {
+            if (!previous.cancellable) {
+                return;
+            }
+            previous.cancel(true);
+        }
+        start(new Worker<>(key, description, true, task, onSuccess, onFailure));
+    }
+
+    // Abandon the lookup running under the key, if any
+    public void cancel(String key) {
+        Worker<?> worker = running.get(key);
+        if (worker != null && worker.cancellable) {
+            worker.cancel(true);
+            finish(worker);
+        }
+    }
+
+    // Abandon every running lookup; changes already handed to the service always complete
+    public void cancelReads() {
+        for (String key : running.keySet().toArray(new String[0])) {
+            cancel(key);
+        }
+    }
+
+    private void start(Worker<?> worker) {
+        running.put(worker.key, worker);
+        worker.execute();
+        if (statusBar.isVisible()) {
+            updateStatus();
+        } else {
+            progressTimer.restart();
+        }
+    }
+
+    private void finish(Worker<?> worker) {
+        if (running.get(worker.key) == worker) {
+            running.remove(worker.key);
+        }
+        updateStatus();
+    }
+
+    private void updateStatus() {
+        if (running.isEmpty()) {
+            progressTimer.stop();
+            statusBar.setVisible(false);
+            owner.setCursor(Cursor.getDefaultCursor());
+            return;
+        }
+        Worker<?> latest = null;
+        boolean anyCancellable = false;
+        for (Worker<?> worker : running.values()) {
+            if (latest == null || worker.startedAt > latest.startedAt) {
+                latest = worker;
+            }
+            anyCancellable |= worker.cancellable;
+        }
+        statusLabel.setText(running.size() == 1
+                ? latest.description + "..."
+                : latest.description + "... (" + running.size() + " tasks)");
+        cancelButton.setEnabled(anyCancellable);
+        if (!statusBar.isVisible() && !progressTimer.isRunning()) {
+            statusBar.setVisible(true);
+            owner.setCursor(Cursor.getPredefinedCursor(Cursor.WAIT_CURSOR));
+        }
+    }
+
+    /**
+     * One keyed task; its callbacks only run while it is still the current task for its key
+     */
+    private class Worker<T> extends SwingWorker<T, Void> {
+        private final String key;
+        private final String description;
+        private final boolean cancellable;
+        private final Task<T> task;
+        private final Consumer<T> onSuccess;
+        private final Consumer<Exception> onFailure;
+        private final long startedAt;
+
+        Worker(String key, String description, boolean cancellable, Task<T> task,
+               Consumer<T> onSuccess, Consumer<Exception> onFailure) {
+            this.key = key;
+            this.description = description;
+            this.cancellable = cancellable;
+            this.task = task;
+            this.onSuccess = onSuccess;
+            this.onFailure = onFailure;
+            this.startedAt = System.nanoTime();
+        }
+
+        @Override
+        protected T doInBackground() throws Exception {
+            return task.call();
+        }
+
+        @Override
+        protected void done() {
+            if (running.get(key) != this) {
+                // Cancelled or replaced by a newer request; its result is no longer wanted
+                return;
+            }
+            finish(this);
+
+            T result;
+            try {
+                result = get();
+            } catch (CancellationException | InterruptedException e) {
+                return;
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause();
+                if (cause instanceof Exception) {
+                    onFailure.accept((Exception) cause);
+                    return;
+                }
+                if (cause instanceof Error) {
+                    throw (Error) cause;
+                }
+                onFailure.accept(e);
+                return;
+            }
+            onSuccess.accept(result);
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,345 @@
+package com.bus.util;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.Arrays;
+
+/**
+ * CsvReader Class
+ * Streaming CSV reader that parses fields straight out of a reusable char
+ * buffer. Numbers are decoded in place into primitives, and no String[] or
+ * trimmed line copies are made; only the Strings a caller asks for are created.
+ * Fields may be quoted ("a, b" or "say ""hi""") and may then contain commas,
+ * quotes and line breaks.
+ */
+public class CsvReader implements Closeable {
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final int POOL_SIZE = 1024;
+    private static final long MAX_EXACT_MANTISSA = 1L << 53;
+    private static final double[] POWERS_OF_TEN = {
+        1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+        1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+
+    private final Reader reader;
+    private final char[] buffer;
+    private int position;
+    private int limit;
+
+    // Current record, raw (quotes included)
+    private char[] record;
+    private int recordLength;
+    private int cursor;
+    private boolean fieldPending;
+
+    // Current field: a slice of record, or of scratch once unescaped
+    private char[] field;
+    private int fieldStart;
+    private int fieldEnd;
+    private char[] scratch;
+
+    // Small cache so repeated values (bus numbers, statuses) share one String
+    private final String[] pool;
+
+    public CsvReader(Reader reader) {
+        this(reader, BUFFER_SIZE);
+    }
+
+    private CsvReader(Reader reader, int bufferSize) {
+        this.reader = reader;
+        this.buffer = new char[bufferSize];
+        this.record = new char[256];
+        this.scratch = new char[64];
+        this.pool = new String[POOL_SIZE];
+    }
+
+    // Reader positioned on a single, already read record
+    public static CsvReader forRecord(String line) {
+        CsvReader csv = new CsvReader(null, 0);
+        csv.record = line.toCharArray();
+        csv.recordLength = csv.record.length;
+        csv.fieldPending = true;
+        return csv;
+    }
+
+    // Advance to the next non-blank record; false at end of input
+    public boolean nextRecord() throws IOException {
+        if (reader == null) {
+            return false;
+        }
+        while (true) {
+            recordLength = 0;
+            boolean inQuotes = false;
+            boolean sawInput = false;
+
+            while (position < limit || fill()) {
+                sawInput = true;
+
+                // Scan the buffered chars for the end of the record, then copy them in one go
+                int start = position;
+                int i = position;
+                boolean endOfRecord = false;
+                while (i < limit) {
+                    char c = buffer[i];
+                    if (c == '"') {
+                        inQuotes = !inQuotes;
+                    } else if ((c == '\n' || c == '\r') && !inQuotes) {
+                        endOfRecord = true;
+                        break;
+                    }
+                    i++;
+                }
+                append(start, i);
+                position = i;
+
+                if (endOfRecord) {
+                    if (buffer[position++] == '\r' && (position < limit || fill()) && buffer[position] == '\n') {
+                        position++;
+                    }
+                    break;
+                }
+            }
+
+            if (!sawInput) {
+                return false;
+            }
+            if (!isBlankRecord()) {
+                cursor = 0;
+                fieldPending = true;
+                return true;
+            }
+        }
+    }
+
+    // Check if the current record has another field
+    public boolean hasMoreFields() {
+        return fieldPending;
+    }
+
+    // Read the next field as a new String
+    public String nextString() {
+        nextField();
+        return new String(field, fieldStart, fieldEnd - fieldStart);
+    }
+
+    // Read the next field, reusing a previously returned String with the same content
+    public String nextPooledString() {
+        nextField();
+        int hash = 0;
+        for (int i = fieldStart; i < fieldEnd; i++) {
+            hash = 31 * hash + field[i];
+        }
+        int slot = (hash ^ (hash >>> 16)) & (POOL_SIZE - 1);
+        String cached = pool[slot];
+        if (cached != null && contentEquals(cached)) {
+            return cached;
+        }
+        String value = new String(field, fieldStart, fieldEnd - fieldStart);
+        pool[slot] = value;
+        return value;
+    }
+
+    // Read the next field as an int
+    public int nextInt() {
+        nextField();
+        int start = skipLeadingSpaces();
+        int end = skipTrailingSpaces(start);
+        boolean negative = start < end && field[start] == '-';
+        int i = negative || (start < end && field[start] == '+') ? start + 1 : start;
+        if (i == end) {
+            throw invalidNumber("integer");
+        }
+
+        long value = 0;
+        for (; i < end; i++) {
+            int digit = field[i] - '0';
+            if (digit < 0 || digit > 9) {
+                throw invalidNumber("integer");
+            }
+            value = value * 10 + digit;
+            if (value > (long) Integer.MAX_VALUE + 1) {
+                throw invalidNumber("integer");
+            }
+        }
+        value = negative ? -value : value;
+        if (value > Integer.MAX_VALUE) {
+            throw invalidNumber("integer");
+        }
+        return (int) value;
+    }
+
+    // Read the next field as a double; plain decimals are decoded without allocating
+    public double nextDouble() {
+        nextField();
+        int start = skipLeadingSpaces();
+        int end = skipTrailingSpaces(start);
+        boolean negative = start < end && field[start] == '-';
+        int i = negative || (start < end && field[start] == '+') ? start + 1 : start;
+
+        long mantissa = 0;
+        int fractionDigits = 0;
+        int digits = 0;
+        boolean seenPoint = false;
+        for (; i < end; i++) {
+            char c = field[i];
+            if (c == '.' && !seenPoint) {
+                seenPoint = true;
+            } else if (c >= '0' && c <= '9' && mantissa < MAX_EXACT_MANTISSA / 10) {
+                mantissa = mantissa * 10 + (c - '0');
+                digits++;
+                if (seenPoint) {
+                    fractionDigits++;
+                }
+            } else {
+                // Exponents, huge values and anything unusual take the exact slow path
+                return parseDoubleSlow(start, end);
+            }
+        }
+        if (digits == 0 || fractionDigits >= POWERS_OF_TEN.length) {
+            return parseDoubleSlow(start, end);
+        }
+
+        // An exact mantissa divided by an exact power of ten rounds correctly
+        double value = mantissa / POWERS_OF_TEN[fractionDigits];
+        return negative ? -value : value;
+    }
+
+    // Skip the next field
+    public void skipField() {
+        nextField();
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (reader != null) {
+            reader.close();
+        }
+    }
+
+    // Quote a value for writing if it contains a delimiter, quote or line break
+    public static String escape(String value) {
+        if (value == null) {
+            return "";
+        }
+        boolean needsQuotes = false;
+        for (int i = 0; i < value.length() && !needsQuotes; i++) {
+            char c = value.charAt(i);
+            needsQuotes = c == ',' || c == '"' || c == '\n' || c == '\r';
+        }
+        if (!needsQuotes) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+
+    private void nextField() {
+        if (!fieldPending) {
+            throw new IllegalArgumentException("Missing field in CSV record: " + new String(record, 0, recordLength));
+        }
+        int i = cursor;
+
+        if (i < recordLength && record[i] == '"') {
+            int length = 0;
+            i++;
+            while (i < recordLength) {
+                char c = record[i];
+                if (c == '"') {
+                    if (i + 1 < recordLength && record[i + 1] == '"') {
+                        i++;
+                    } else {
+                        i++;
+                        break;
+                    }
+                }
+                if (length == scratch.length) {
+                    scratch = Arrays.copyOf(scratch, length * 2);
+                }
+                scratch[length++] = c;
+                i++;
+            }
+            while (i < recordLength && record[i] != ',') {
+                i++;
+            }
+            field = scratch;
+            fieldStart = 0;
+            fieldEnd = length;
+        } else {
+            int start = i;
+            while (i < recordLength && record[i] != ',') {
+                i++;
+            }
+            field = record;
+            fieldStart = start;
+            fieldEnd = i;
+        }
+
+        fieldPending = i < recordLength;
+        cursor = fieldPending ? i + 1 : recordLength;
+    }
+
+    private boolean fill() throws IOException {
+        int read = reader.read(buffer, 0, buffer.length);
+        position = 0;
+        limit = Math.max(read, 0);
+        return read > 0;
+    }
+
+    private void append(int from, int to) {
+        int length = to - from;
+        if (recordLength + length > record.length) {
+            record = Arrays.copyOf(record, Math.max(record.length * 2, recordLength + length));
+        }
+        System.arraycopy(buffer, from, record, recordLength, length);
+        recordLength += length;
+    }
+
+    private boolean isBlankRecord() {
+        for (int i = 0; i < recordLength; i++) {
+            if (record[i] > ' ') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean contentEquals(String value) {
+        if (value.length() != fieldEnd - fieldStart) {
+            return false;
+        }
+        for (int i = 0; i < value.length(); i++) {
+            if (value.charAt(i) != field[fieldStart + i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private int skipLeadingSpaces() {
+        int i = fieldStart;
+        while (i < fieldEnd && field[i] == ' ') {
+            i++;
+        }
+        return i;
+    }
+
+    private int skipTrailingSpaces(int start) {
+        int end = fieldEnd;
+        while (end > start && field[end - 1] == ' ') {
+            end--;
+        }
+        return end;
+    }
+
+    private double parseDoubleSlow(int start, int end) {
+        try {
+            return Double.parseDouble(new String(field, start, end - start));
+        } catch (NumberFormatException e) {
+            throw invalidNumber("number");
+        }
+    }
+
+    private NumberFormatException invalidNumber(String kind) {
+        return new NumberFormatException("Invalid " + kind + ": \"" + new String(field, fieldStart, fieldEnd - fieldStart) + "\"");
+    }
+}
\ No newline at end of file
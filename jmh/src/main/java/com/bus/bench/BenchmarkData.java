@@ -0,0 +1,59 @@
+package com.bus.bench;
+
+import com.bus.model.Booking;
+import com.bus.model.Bus;
+import com.bus.model.Passenger;
+import com.bus.service.BookingIdGenerator;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * BenchmarkData Class
+ * Synthetic fleets and booking histories shared by the benchmarks. Buses
+ * run between a fixed set of cities with 40 seats each. History bookings
+ * are all cancelled, so they hold no seats, and they draw their passengers
+ * from a small pool so ten million of them fit in a 4 GB heap.
+ */
+public class BenchmarkData {
+    public static final int SEATS_PER_BUS = 40;
+
+    private static final String[] CITIES = {
+        "Delhi", "Mumbai", "Bangalore", "Chennai", "Jaipur", "Pune", "Kolkata", "Hyderabad",
+        "Ahmedabad", "Lucknow", "Chandigarh", "Indore", "Bhopal", "Nagpur", "Surat", "Kochi",
+        "Goa", "Agra", "Varanasi", "Patna"
+    };
+    private static final int PASSENGER_POOL = 1000;
+
+    private BenchmarkData() {
+    }
+
+    public static List<Bus> createFleet(int size) {
+        List<Bus> fleet = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            int source = i % CITIES.length;
+            int destination = (source + 1 + (i / CITIES.length) % (CITIES.length - 1)) % CITIES.length;
+            fleet.add(new Bus("BUS" + (100000 + i), CITIES[source], CITIES[destination],
+                    SEATS_PER_BUS, 500 + (i % 20) * 50));
+        }
+        return fleet;
+    }
+
+    // Past bookings on random buses of the fleet, all cancelled
+    public static List<Booking> createHistory(List<Bus> fleet, int size, Random random) {
+        Passenger[] passengers = new Passenger[PASSENGER_POOL];
+        for (int i = 0; i < passengers.length; i++) {
+            passengers[i] = new Passenger("Passenger " + i, 18 + i % 60, i % 2 == 0 ? "M" : "F",
+                    String.valueOf(9000000000L + i), "p" + i + "@example.com");
+        }
+        BookingIdGenerator ids = new BookingIdGenerator(1);
+        List<Booking> history = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            Bus bus = fleet.get(random.nextInt(fleet.size()));
+            history.add(new Booking(ids.nextBookingId(), passengers[i % passengers.length], bus.getBusNo(),
+                    1 + random.nextInt(SEATS_PER_BUS), "2024-06-01 10:00:00", bus.getFarePerSeat(), "CANCELLED"));
+        }
+        return history;
+    }
+}
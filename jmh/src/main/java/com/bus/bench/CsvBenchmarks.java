@@ -0,0 +1,64 @@
+package com.bus.bench;
+
+import com.bus.model.Booking;
+import com.bus.model.Bus;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * CsvBenchmarks Class
+ * Per-record CSV codecs: Bus.toCSV and Booking.fromCSV, cycling through a
+ * thousand buses and booking lines.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class CsvBenchmarks {
+    private static final int RECORDS = 1000;
+
+    private List<Bus> buses;
+    private String[] lines;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        buses = BenchmarkData.createFleet(RECORDS);
+        List<Booking> history = BenchmarkData.createHistory(buses, RECORDS, new Random(42));
+        lines = new String[RECORDS];
+        for (int i = 0; i < RECORDS; i++) {
+            lines[i] = history.get(i).toCSV();
+        }
+    }
+
+    @Benchmark
+    public String busToCsv() {
+        return buses.get(nextRecord()).toCSV();
+    }
+
+    @Benchmark
+    public Booking bookingFromCsv() {
+        return Booking.fromCSV(lines[nextRecord()]);
+    }
+
+    private int nextRecord() {
+        int record = next;
+        next = record + 1 == RECORDS ? 0 : record + 1;
+        return record;
+    }
+}
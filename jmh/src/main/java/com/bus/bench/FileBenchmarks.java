@@ -0,0 +1,123 @@
+package com.bus.bench;
+
+import com.bus.model.Booking;
+import com.bus.service.FileService;
+import com.bus.service.ReportService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * FileBenchmarks Class
+ * Whole-file work on a booking history: FileService.saveBookings and
+ * loadBookings on bookings.csv, and ReportService.exportBookings writing
+ * the bookings report. Files go to a temporary directory. Scores are in
+ * milliseconds per call, since one call at the largest history takes seconds.
+ *
+ * loadBookings stops at a million bookings: ten million parsed bookings,
+ * each with its own Passenger and strings, do not fit the 4 GB heap.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class FileBenchmarks {
+
+    /**
+     * A history in memory, for the benchmarks that write it out
+     */
+    @State(Scope.Benchmark)
+    public static class History {
+        @Param({"1000", "100000", "10000000"})
+        public int history;
+
+        Path directory;
+        FileService fileService;
+        ReportService reportService;
+        File report;
+        List<Booking> bookings;
+
+        @Setup(Level.Trial)
+        public void setUp() throws IOException {
+            directory = Files.createTempDirectory("bus-bench");
+            fileService = new FileService(directory.toString());
+            reportService = new ReportService();
+            report = directory.resolve("bookings-report.txt").toFile();
+            bookings = BenchmarkData.createHistory(BenchmarkData.createFleet(100), history, new Random(42));
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() throws IOException {
+            deleteDirectory(directory);
+        }
+    }
+
+    /**
+     * A history already saved to bookings.csv, for loadBookings
+     */
+    @State(Scope.Benchmark)
+    public static class StoredHistory {
+        @Param({"1000", "100000", "1000000"})
+        public int history;
+
+        Path directory;
+        FileService fileService;
+
+        @Setup(Level.Trial)
+        public void setUp() throws IOException {
+            directory = Files.createTempDirectory("bus-bench");
+            fileService = new FileService(directory.toString());
+            fileService.saveBookings(BenchmarkData.createHistory(BenchmarkData.createFleet(100), history,
+                    new Random(42)));
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() throws IOException {
+            deleteDirectory(directory);
+        }
+    }
+
+    @Benchmark
+    public List<Booking> loadBookings(StoredHistory state) throws IOException {
+        return state.fileService.loadBookings();
+    }
+
+    @Benchmark
+    public void saveBookings(History state) throws IOException {
+        state.fileService.saveBookings(state.bookings);
+    }
+
+    @Benchmark
+    public void exportBookings(History state) throws IOException {
+        state.reportService.exportBookings(state.bookings, state.report);
+    }
+
+    private static void deleteDirectory(Path directory) throws IOException {
+        File[] files = directory.toFile().listFiles();
+        if (files != null) {
+            for (File file : files) {
+                Files.deleteIfExists(file.toPath());
+            }
+        }
+        Files.deleteIfExists(directory);
+    }
+}
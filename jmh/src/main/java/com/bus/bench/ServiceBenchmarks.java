@@ -0,0 +1,186 @@
+package com.bus.bench;
+
+import com.bus.model.Booking;
+import com.bus.model.Bus;
+import com.bus.model.Passenger;
+import com.bus.service.BusService;
+import com.bus.service.InMemoryBookingRepository;
+import com.bus.service.InMemoryBusRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ServiceBenchmarks Class
+ * BusService hot paths (bookSeat, cancelBooking, searchBuses, getBookingById)
+ * across fleet sizes and booking-history sizes. The service runs on in-memory
+ * repositories, so no storage I/O is measured here.
+ *
+ * Every booking stays in the repository, so a throughput run of bookSeat
+ * would keep growing the history and the heap until GC dominated. bookSeat
+ * and cancelBooking instead run single-shot iterations of BATCH calls each,
+ * prepared untimed: the previous batch's bookings are cancelled before a
+ * bookSeat batch, and a batch of bookings is made before a cancelBooking
+ * batch. Scores are per call. The GC profiler counts the preparation too,
+ * so their B/op includes it.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+// A small young generation leaves the old one room for ten million history bookings
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g", "-Xmn512m"})
+public class ServiceBenchmarks {
+    // Calls per bookSeat or cancelBooking iteration; half the seats of the smallest fleet
+    static final int BATCH = 200;
+
+    /**
+     * The service under test with its fleet and history
+     */
+    @State(Scope.Benchmark)
+    public static class Service {
+        @Param({"10", "1000", "100000"})
+        public int fleet;
+
+        @Param({"1000", "100000", "10000000"})
+        public int history;
+
+        BusService service;
+        List<Bus> buses;
+        String[] busNos;
+        String[] historyIds;
+        Passenger passenger;
+        private int nextBus;
+        private int nextHistory;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            Random random = new Random(42);
+            buses = BenchmarkData.createFleet(fleet);
+            List<Booking> bookings = BenchmarkData.createHistory(buses, history, random);
+            busNos = new String[fleet];
+            for (int i = 0; i < fleet; i++) {
+                busNos[i] = buses.get(i).getBusNo();
+            }
+            historyIds = new String[history];
+            for (int i = 0; i < history; i++) {
+                historyIds[i] = bookings.get(i).getBookingId();
+            }
+            shuffle(historyIds, random);
+            passenger = new Passenger("Bench Passenger", 30, "F", "9876543210", "bench@example.com");
+            service = new BusService(new InMemoryBusRepository(buses), new InMemoryBookingRepository(bookings), 0);
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() throws IOException {
+            service.close();
+        }
+
+        // Buses in turn, so every bus is used equally
+        int nextBus() {
+            int bus = nextBus;
+            nextBus = bus + 1 == fleet ? 0 : bus + 1;
+            return bus;
+        }
+
+        String nextHistoryId() {
+            String id = historyIds[nextHistory];
+            nextHistory = nextHistory + 1 == history ? 0 : nextHistory + 1;
+            return id;
+        }
+
+        private static void shuffle(String[] values, Random random) {
+            for (int i = values.length - 1; i > 0; i--) {
+                int j = random.nextInt(i + 1);
+                String value = values[i];
+                values[i] = values[j];
+                values[j] = value;
+            }
+        }
+    }
+
+    /**
+     * Bookings made by the last bookSeat batch, cancelled before the next one
+     */
+    @State(Scope.Thread)
+    public static class Booked {
+        final String[] bookingIds = new String[BATCH];
+
+        @Setup(Level.Iteration)
+        public void release(Service state) throws Exception {
+            for (int i = 0; i < BATCH; i++) {
+                if (bookingIds[i] != null) {
+                    state.service.cancelBooking(bookingIds[i]);
+                    bookingIds[i] = null;
+                }
+            }
+        }
+    }
+
+    /**
+     * Confirmed bookings for the next cancelBooking batch
+     */
+    @State(Scope.Thread)
+    public static class Confirmed {
+        final String[] bookingIds = new String[BATCH];
+
+        @Setup(Level.Iteration)
+        public void book(Service state) throws Exception {
+            for (int i = 0; i < BATCH; i++) {
+                bookingIds[i] = state.service.bookSeat(state.busNos[state.nextBus()], state.passenger).getBookingId();
+            }
+        }
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    @Warmup(iterations = 200)
+    @Measurement(iterations = 500)
+    @OperationsPerInvocation(BATCH)
+    public void bookSeat(Service state, Booked booked) throws Exception {
+        for (int i = 0; i < BATCH; i++) {
+            booked.bookingIds[i] = state.service.bookSeat(state.busNos[state.nextBus()], state.passenger)
+                    .getBookingId();
+        }
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    @Warmup(iterations = 200)
+    @Measurement(iterations = 500)
+    @OperationsPerInvocation(BATCH)
+    public void cancelBooking(Service state, Confirmed confirmed) throws Exception {
+        for (int i = 0; i < BATCH; i++) {
+            state.service.cancelBooking(confirmed.bookingIds[i]);
+        }
+    }
+
+    @Benchmark
+    public List<Bus> searchBuses(Service state) {
+        Bus bus = state.buses.get(state.nextBus());
+        return state.service.searchBuses(bus.getSource(), bus.getDestination());
+    }
+
+    @Benchmark
+    public Booking getBookingById(Service state) throws Exception {
+        return state.service.getBookingById(state.nextHistoryId());
+    }
+}
@@ -0,0 +1,159 @@
+package com.bus.service;
+
+import com.bus.model.Booking;
+import com.bus.model.Bus;
+import com.bus.model.Passenger;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * BookingStressTest Class
+ * Concurrency check for seat accounting. Threads book (any seat or a
+ * specific, contested one) and cancel at random on a small fleet, and
+ * cancel from a shared pool so two threads often race on one booking.
+ * Afterwards every bus must satisfy free seats + confirmed bookings ==
+ * total seats, no seat may be held by two confirmed bookings, every
+ * confirmed seat must be taken in the seat map, and successful bookings
+ * minus successful cancellations must equal the confirmed count.
+ * Runs once with per-bus locks and once on the event-loop engine. Races
+ * only interleave often enough to matter on a machine with several cores.
+ *
+ * The default run makes 8 threads x 250,000 = 2 million operations per
+ * engine. -Dbus.stress.profile=ci (gradle test -PstressProfile=ci) runs
+ * 8 x 20,000 instead; -Dbus.stress.threads and -Dbus.stress.operations
+ * override either.
+ */
+public class BookingStressTest {
+    private final int threads;
+    private final int operations;
+    private final int buses;
+    private final int seats;
+
+    public BookingStressTest() {
+        this.threads = Integer.getInteger("bus.stress.threads", 8);
+        this.operations = Integer.getInteger("bus.stress.operations",
+                "ci".equals(System.getProperty("bus.stress.profile")) ? 20_000 : 250_000);
+        this.buses = 5;
+        this.seats = 40;
+    }
+
+    @Test
+    public void seatAccountingHoldsWithPerBusLocks() throws Exception {
+        assertEquals(List.of(), run(0));
+    }
+
+    @Test
+    public void seatAccountingHoldsOnEventLoops() throws Exception {
+        assertEquals(List.of(), run(4));
+    }
+
+    // One run on a fresh in-memory fleet; returns the violations found (empty if none)
+    private List<String> run(int eventLoops) throws Exception {
+        List<Bus> fleet = new ArrayList<>(buses);
+        for (int i = 0; i < buses; i++) {
+            fleet.add(new Bus("STRESS" + i, "Delhi", "Jaipur", seats, 500));
+        }
+        BusService service = new BusService(new InMemoryBusRepository(fleet),
+                new InMemoryBookingRepository(new ArrayList<>()), eventLoops);
+
+        ConcurrentLinkedQueue<String> cancellable = new ConcurrentLinkedQueue<>();
+        AtomicLong booked = new AtomicLong();
+        AtomicLong cancelled = new AtomicLong();
+        AtomicLong rejected = new AtomicLong();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        List<Future<?>> workers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            workers.add(executor.submit(() -> {
+                Passenger passenger = new Passenger("Stress Passenger", 30, "M", "9876543210", "");
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                start.await();
+                for (int i = 0; i < operations; i++) {
+                    String busNo = "STRESS" + random.nextInt(buses);
+                    int choice = random.nextInt(10);
+                    try {
+                        if (choice < 4) {
+                            cancellable.add(service.bookSeat(busNo, passenger).getBookingId());
+                            booked.incrementAndGet();
+                        } else if (choice < 6) {
+                            // A few contested seats, so specific-seat requests collide
+                            int seatNo = 1 + random.nextInt(Math.min(seats, 4));
+                            cancellable.add(service.bookSeat(busNo, passenger, seatNo).getBookingId());
+                            booked.incrementAndGet();
+                        } else {
+                            String bookingId = cancellable.poll();
+                            if (bookingId == null) {
+                                continue;
+                            }
+                            service.cancelBooking(bookingId);
+                            cancelled.incrementAndGet();
+                            // Put it back now and then so another thread tries to cancel it twice
+                            if (choice == 9) {
+                                cancellable.add(bookingId);
+                            }
+                        }
+                    } catch (Exception e) {
+                        rejected.incrementAndGet();
+                    }
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> worker : workers) {
+            worker.get();
+        }
+        executor.shutdown();
+
+        List<String> violations = check(service, booked.get() - cancelled.get());
+        System.out.println("eventLoops=" + eventLoops + " booked=" + booked + " cancelled=" + cancelled
+                + " rejected=" + rejected + " violations=" + violations.size());
+        service.close();
+        return violations;
+    }
+
+    // Compare every bus's seat map with its confirmed bookings
+    private List<String> check(BusService service, long expectedConfirmed) {
+        List<String> violations = new ArrayList<>();
+        long confirmed = 0;
+        for (Bus bus : service.getAllBuses()) {
+            Set<Integer> taken = new HashSet<>();
+            int busConfirmed = 0;
+            for (Booking booking : service.getBookingsForBus(bus.getBusNo())) {
+                if (!booking.getStatus().equals("CONFIRMED")) {
+                    continue;
+                }
+                busConfirmed++;
+                if (!taken.add(booking.getSeatNo())) {
+                    violations.add(bus.getBusNo() + " seat " + booking.getSeatNo() + " sold twice");
+                }
+                if (bus.isSeatFree(booking.getSeatNo())) {
+                    violations.add(bus.getBusNo() + " seat " + booking.getSeatNo() + " is booked but shown free");
+                }
+            }
+            if (bus.getSeatsAvailable() + busConfirmed != bus.getTotalSeats()) {
+                violations.add(bus.getBusNo() + ": " + bus.getSeatsAvailable() + " free + " + busConfirmed
+                        + " booked != " + bus.getTotalSeats() + " seats");
+            }
+            confirmed += busConfirmed;
+        }
+        if (confirmed != expectedConfirmed) {
+            violations.add(confirmed + " confirmed bookings, but " + expectedConfirmed
+                    + " bookings succeeded and were not cancelled");
+        }
+        return violations;
+    }
+}